@@ -1,8 +1,125 @@
 import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import core.GoldenRun;
+import core.InputRecording;
+import core.OffHeapBenchmark;
+import core.Scenario;
+import core.World;
+import net.MatchProtocol;
+import net.MatchServer;
+import physics.BodyStore;
+import telemetry.LogSummary;
+import ui.FrameExporter;
 import ui.SimulationPanel;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // --log-summary <file> prints statistics for a telemetry log and exits
+        if (args.length >= 2 && args[0].equals("--log-summary")) {
+            LogSummary.print(new File(args[1]), System.out);
+            return;
+        }
+
+        // --compile-scenario <in> <out> writes the binary form of a scenario and exits
+        if (args.length >= 3 && args[0].equals("--compile-scenario")) {
+            Scenario.compile(new File(args[1]), new File(args[2]));
+            return;
+        }
+
+        // --golden-check [dir] reruns every golden run in dir (default golden/) and exits
+        // 1 if any diverged, 2 if any ran slower than this machine's baseline;
+        // --golden-update <dir> re-records them all; --golden-baseline [dir] retakes
+        // this machine's speed baseline
+        if (args.length >= 1 && args[0].equals("--golden-check")) {
+            File dir = new File(args.length >= 2 ? args[1] : "golden");
+            System.exit(GoldenRun.checkAll(dir, System.out));
+        }
+        if (args.length >= 2 && args[0].equals("--golden-update")) {
+            GoldenRun.updateAll(new File(args[1]), System.out);
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--golden-baseline")) {
+            GoldenRun.updateBaselines(new File(args.length >= 2 ? args[1] : "golden"), System.out);
+            return;
+        }
+
+        // --bench-offheap [bodies] compares on-heap bodies with an off-heap BodyStore and exits
+        if (args.length >= 1 && args[0].equals("--bench-offheap")) {
+            new OffHeapBenchmark(args.length >= 2 ? Integer.parseInt(args[1]) : 200_000).run(System.out);
+            return;
+        }
+
+        // Optional: --replay <file> drives the robot from a saved input recording,
+        // --scenario <file> replaces the built-in layout
+        InputRecording replay = null;
+        Scenario layout = null;
+        // --export-frames <dir> writes the run as PNGs without a window and exits,
+        // with --fps <n> (default 30) and --seconds <s> (default: end of the replay)
+        File exportDir = null;
+        int fps = 30;
+        double seconds = 0;
+        // --golden-record <file> records a golden run of the replay (or, with --auto true,
+        // the autonomous routine) for --seconds <s> and exits
+        File goldenFile = null;
+        // --share-state <file> maps a BodyStore that holds every body's state after each tick
+        File sharedFile = null;
+        // --serve <port> hosts a networked match without a window (-Dsim.robots drivers,
+        // default 2); --connect <host[:port]> joins one
+        int servePort = -1;
+        String connect = null;
+        GoldenRun golden = new GoldenRun();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--replay")) {
+                replay = InputRecording.load(new File(args[i + 1]));
+                golden.recording = args[i + 1];
+            } else if (args[i].equals("--scenario")) {
+                layout = new Scenario(new File(args[i + 1]));
+                golden.scenario = args[i + 1];
+            } else if (args[i].equals("--golden-record")) {
+                goldenFile = new File(args[i + 1]);
+            } else if (args[i].equals("--share-state")) {
+                sharedFile = new File(args[i + 1]);
+            } else if (args[i].equals("--serve")) {
+                servePort = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--connect")) {
+                connect = args[i + 1];
+            } else if (args[i].equals("--auto")) {
+                golden.autonomous = Boolean.parseBoolean(args[i + 1]);
+            } else if (args[i].equals("--export-frames")) {
+                exportDir = new File(args[i + 1]);
+            } else if (args[i].equals("--fps")) {
+                fps = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--seconds")) {
+                seconds = Double.parseDouble(args[i + 1]);
+            }
+        }
+        if (goldenFile != null) {
+            golden.robots = Integer.getInteger("sim.robots", 1);
+            golden.ticks = (int)Math.ceil((seconds > 0 ? seconds : 20) * 120);
+            golden.record();
+            golden.save(goldenFile);
+            System.out.printf("Recorded %s: %d ticks%n", goldenFile.getPath(), golden.ticks);
+            return;
+        }
+        if (servePort >= 0) {
+            serve(layout, servePort);
+            return;
+        }
+        if (exportDir != null) {
+            FrameExporter exporter = new FrameExporter(1200, 700);
+            exporter.setFps(fps);
+            exporter.export(layout, replay, seconds, exportDir);
+            return;
+        }
+        final InputRecording recording = replay;
+        final Scenario scenario = layout;
+        final BodyStore sharedState = sharedFile != null ? BodyStore.map(sharedFile, 1024) : null;
+        final String matchHost = connect == null ? null
+            : connect.contains(":") ? connect.substring(0, connect.lastIndexOf(':')) : connect;
+        final int matchPort = connect != null && connect.contains(":")
+            ? Integer.parseInt(connect.substring(connect.lastIndexOf(':') + 1)) : MatchProtocol.DEFAULT_PORT;
+
         // Create UI on EDT
         SwingUtilities.invokeLater(() -> {
             // Create window
@@ -11,6 +128,22 @@ public class Main {
 
             // Create and add simulation panel
             SimulationPanel panel = new SimulationPanel(1200, 700);
+            if (scenario != null) {
+                panel.setScenario(scenario);
+            }
+            if (recording != null) {
+                panel.setReplay(recording);
+            }
+            if (sharedState != null) {
+                panel.setSharedState(sharedState);
+            }
+            if (matchHost != null) {
+                try {
+                    panel.joinMatch(matchHost, matchPort);
+                } catch (IOException e) {
+                    System.err.println("Could not join the match at " + matchHost + ":" + matchPort + ": " + e.getMessage());
+                }
+            }
             frame.add(panel);
 
             // Pack and show
@@ -22,4 +155,38 @@ public class Main {
             panel.start();
         });
     }
+
+    /**
+     * Host a match until the process is stopped, printing traffic every five seconds
+     */
+    private static void serve(Scenario layout, int port) throws IOException {
+        World world = new World();
+        world.scenario = layout;
+        world.robotCount = Integer.getInteger("sim.robots", 2);
+        world.reset();
+        int inputDelay = Integer.getInteger("sim.match.inputDelay", 3);
+        MatchServer server = new MatchServer(world, port == 0 ? MatchProtocol.DEFAULT_PORT : port, inputDelay);
+        server.start();
+        System.out.printf("Serving a %d-robot match on port %d (input delay %d ticks)%n",
+            world.robotCount, server.getPort(), inputDelay);
+
+        long lastBytes = 0;
+        long lastFrames = 0;
+        while (true) {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                server.close();
+                return;
+            }
+            long bytes = server.getBytesSent();
+            long frames = server.getFramesSent();
+            System.out.printf("tick %d  clients %d  %.1f kB/s  %.0f B/frame  skipped %d  late inputs %d%n",
+                server.getTick(), server.getClientCount(), (bytes - lastBytes) / 5e3,
+                frames > lastFrames ? (double)(bytes - lastBytes) / (frames - lastFrames) : 0.0,
+                server.getFramesSkipped(), server.getLateInputs());
+            lastBytes = bytes;
+            lastFrames = frames;
+        }
+    }
 }
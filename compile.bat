@@ -7,7 +7,7 @@ REM Set source path
 set "SRC=."
 
 REM Compile all Java files
-javac -sourcepath %SRC% -d bin %SRC%\physics\*.java %SRC%\core\*.java %SRC%\objects\*.java %SRC%\objects\robot\*.java %SRC%\objects\robot\subsystems\*.java %SRC%\ui\*.java Main.java
+javac -sourcepath %SRC% -d bin %SRC%\physics\*.java %SRC%\core\*.java %SRC%\objects\*.java %SRC%\objects\robot\*.java %SRC%\objects\robot\subsystems\*.java %SRC%\objects\robot\commands\*.java %SRC%\objects\robot\planning\*.java %SRC%\ui\*.java %SRC%\telemetry\*.java %SRC%\systems\*.java %SRC%\net\*.java Main.java
 
 REM Run the program
 java -cp bin Main
@@ -0,0 +1,45 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import objects.Cargo;
+import objects.robot.Robot;
+import objects.robot.subsystems.Sensor;
+import physics.Body;
+import physics.ForceGenerator;
+
+/**
+ * Dense arrays of the world's objects grouped by component type, for the tick's
+ * systems to iterate. Rebuilt from the object list whenever objects are added or
+ * removed; the arrays are never modified in place.
+ */
+public class Components {
+    public Robot[] robots = new Robot[0];
+    public Cargo[] cargos = new Cargo[0];
+    public Body[] bodies = new Body[0];          // Robots, then cargo
+    public ForceGenerator[] forceGenerators = new ForceGenerator[0];
+    public Sensor[] sensors = new Sensor[0];
+
+    public void rebuild(World world) {
+        robots = world.robots.toArray(new Robot[0]);
+        cargos = world.cargos.toArray(new Cargo[0]);
+
+        List<Body> b = new ArrayList<>();
+        List<ForceGenerator> f = new ArrayList<>();
+        List<Sensor> s = new ArrayList<>();
+        for (GameObject obj : world.objects) {
+            if (obj instanceof Body) {
+                b.add((Body) obj);
+            }
+            if (obj instanceof ForceGenerator) {
+                f.add((ForceGenerator) obj);
+            }
+            if (obj instanceof Sensor) {
+                s.add((Sensor) obj);
+            }
+        }
+        bodies = b.toArray(new Body[0]);
+        forceGenerators = f.toArray(new ForceGenerator[0]);
+        sensors = s.toArray(new Sensor[0]);
+    }
+}
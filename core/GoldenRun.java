@@ -0,0 +1,357 @@
+package core;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import objects.robot.RobotCommand;
+import objects.robot.RobotController;
+import objects.robot.RobotState;
+import objects.robot.ShuttleController;
+import objects.robot.commands.AutonomousController;
+import objects.robot.commands.Autos;
+
+/**
+ * A recorded headless run and the state checksums it produced, for checking that a
+ * change (data layout, parallel stepping, ...) leaves results bit-for-bit the same.
+ *
+ * A golden file holds what to run (scenario, input recording or the autonomous
+ * routine, robot count, length) and, for every tick, the rolling
+ * {@link StateChecksum} and each body's hash. Checking reruns it from scratch and
+ * reports the first tick whose checksum differs and which bodies differ there.
+ *
+ * Checking also times each run against a speed baseline. Throughput depends on the
+ * machine, so the baseline is not part of the golden file: it lives in a per-machine
+ * file next to the runs ({@link #BASELINE_FILE}, not committed), taken the first time
+ * a run is checked on that machine or with {@link #updateBaselines}.
+ *
+ * Files are gzip-compressed: bodies at rest hash the same tick after tick.
+ */
+public class GoldenRun {
+    private static final int MAGIC = 0x46524347; // "FRCG"
+    private static final int VERSION = 2;
+    private static final double DT = 1.0/120.0;
+    private static final int SPEED_RUNS = 3;
+    public static final double SLOW_RATIO = 0.75;   // Below this share of the baseline fails
+    public static final String BASELINE_FILE = "speed.local";
+
+    // checkAll results, also the exit status of --golden-check
+    public static final int CHECK_PASSED = 0;
+    public static final int CHECK_DIVERGED = 1;
+    public static final int CHECK_SLOW = 2;
+
+    // What to run
+    public String scenario = "";    // Scenario file, "" for the built-in layout
+    public String recording = "";   // Input recording driving robot 0, "" for none
+    public boolean autonomous;      // Robot 0 runs the autonomous routine instead
+    public int robots = 1;          // Robots past the first shuttle back and forth
+    public int ticks;
+
+    // What it produced
+    private long[] checksums = new long[0];
+    private int[][] bodyHashes = new int[0][];
+
+    /**
+     * Outcome of rerunning a golden run
+     */
+    public static class Result {
+        public long divergedTick = -1;   // First tick whose checksum differs, -1 if none
+        public String bodies = "";       // Bodies whose hash differs at that tick
+        public double ticksPerSecond;   // Measured only if the checksums matched
+
+        public boolean passed() {
+            return divergedTick < 0;
+        }
+    }
+
+    /**
+     * Run the configured scenario and keep its checksums as the expected ones
+     */
+    public void record() throws IOException {
+        checksums = new long[ticks];
+        bodyHashes = new int[ticks][];
+        StateChecksum sum = new StateChecksum();
+        run((tick, world) -> {
+            checksums[tick] = sum.update(world);
+            int[] hashes = new int[sum.getBodyCount()];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = sum.getBodyHash(i);
+            }
+            bodyHashes[tick] = hashes;
+            return true;
+        });
+    }
+
+    /**
+     * Rerun and compare against the recorded checksums, stopping at the first difference
+     */
+    public Result check() throws IOException {
+        Result result = new Result();
+        StateChecksum sum = new StateChecksum();
+        run((tick, world) -> {
+            if (sum.update(world) == checksums[tick]) {
+                return true;
+            }
+            result.divergedTick = tick;
+            result.bodies = describeDifferences(world, sum, bodyHashes[tick]);
+            return false;
+        });
+        if (result.passed()) {
+            result.ticksPerSecond = measureSpeed();
+        }
+        return result;
+    }
+
+    /**
+     * Best ticks per second over a few runs without checksums. Called after the
+     * checksum pass, so the JIT has already compiled the step; taking the best run
+     * keeps a stray GC pause from flagging a slowdown.
+     */
+    public double measureSpeed() throws IOException {
+        double best = 0;
+        for (int i = 0; i < SPEED_RUNS; i++) {
+            long start = System.nanoTime();
+            run((tick, world) -> true);
+            best = Math.max(best, ticks / ((System.nanoTime() - start) / 1e9));
+        }
+        return best;
+    }
+
+    private static String describeDifferences(World world, StateChecksum sum, int[] expected) {
+        StringBuilder sb = new StringBuilder();
+        int n = Math.max(sum.getBodyCount(), expected.length);
+        int listed = 0;
+        for (int i = 0; i < n && listed < 8; i++) {
+            boolean same = i < sum.getBodyCount() && i < expected.length && sum.getBodyHash(i) == expected[i];
+            if (!same) {
+                if (listed++ > 0) {
+                    sb.append(", ");
+                }
+                sb.append(i < sum.getBodyCount() ? StateChecksum.describeBody(world, i) : "body " + i + " (missing)");
+            }
+        }
+        if (sb.length() == 0) {
+            sb.append("no body; clock or score");
+        }
+        return sb.toString();
+    }
+
+    private interface TickObserver {
+        /**
+         * Look at the world after a tick; return false to stop
+         */
+        boolean afterTick(int tick, World world) throws IOException;
+    }
+
+    /**
+     * Build a fresh world and step it, driving robot 0 from the recording or the
+     * autonomous routine. Returns the number of ticks run.
+     */
+    private int run(TickObserver observer) throws IOException {
+        World world = new World();
+        world.synchronousControl = true;
+        world.robotCount = robots;
+        if (!scenario.isEmpty()) {
+            world.scenario = new Scenario(new File(scenario));
+        }
+
+        Input input = new Input();
+        InputRecording replay = recording.isEmpty() ? null : InputRecording.load(new File(recording));
+        if (autonomous) {
+            world.setController(0, new AutonomousController(Autos::scorePresetCargo));
+        } else if (replay != null) {
+            world.setController(0, new RobotController() {
+                @Override
+                public void control(RobotState state, RobotCommand out) {
+                    out.setFromInput(input);
+                }
+
+                @Override
+                public double period() {
+                    return 0;
+                }
+            });
+        }
+        for (int i = 1; i < World.MAX_ROBOTS; i++) {
+            world.setController(i, new ShuttleController(3, 14));
+        }
+        world.reset();
+
+        try {
+            for (int tick = 0; tick < ticks; tick++) {
+                if (replay != null) {
+                    replay.replayTick(tick, input);
+                }
+                if (input.reset) {
+                    world.reset();
+                    input.reset = false;
+                }
+                world.step(DT);
+                if (!observer.afterTick(tick, world)) {
+                    return tick + 1;
+                }
+            }
+            return ticks;
+        } finally {
+            for (int i = 0; i < World.MAX_ROBOTS; i++) {
+                world.setController(i, null);
+            }
+        }
+    }
+
+    public void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(file))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(scenario);
+            out.writeUTF(recording);
+            out.writeBoolean(autonomous);
+            out.writeInt(robots);
+            out.writeInt(ticks);
+            for (int t = 0; t < ticks; t++) {
+                out.writeLong(checksums[t]);
+                out.writeInt(bodyHashes[t].length);
+                for (int h : bodyHashes[t]) {
+                    out.writeInt(h);
+                }
+            }
+        }
+    }
+
+    public static GoldenRun load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a golden run: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported golden run version " + version + ": " + file);
+            }
+            GoldenRun run = new GoldenRun();
+            run.scenario = in.readUTF();
+            run.recording = in.readUTF();
+            run.autonomous = in.readBoolean();
+            run.robots = in.readInt();
+            run.ticks = in.readInt();
+            run.checksums = new long[run.ticks];
+            run.bodyHashes = new int[run.ticks][];
+            for (int t = 0; t < run.ticks; t++) {
+                run.checksums[t] = in.readLong();
+                int[] hashes = new int[in.readInt()];
+                for (int i = 0; i < hashes.length; i++) {
+                    hashes[i] = in.readInt();
+                }
+                run.bodyHashes[t] = hashes;
+            }
+            return run;
+        }
+    }
+
+    /**
+     * Check every golden run in a directory and print one line each. A run that
+     * passes is then timed against this machine's baseline (taken now if it has none);
+     * one still below {@link #SLOW_RATIO} of it after a second measurement is SLOW.
+     * @return {@link #CHECK_DIVERGED} if any run diverged, else {@link #CHECK_SLOW}
+     *         if any was slow, else {@link #CHECK_PASSED}
+     */
+    public static int checkAll(File dir, PrintStream out) throws IOException {
+        Properties baseline = loadBaselines(dir);
+        boolean baselineChanged = false;
+        boolean diverged = false;
+        boolean slow = false;
+        for (File file : goldenFiles(dir)) {
+            GoldenRun run = load(file);
+            Result r = run.check();
+            if (!r.passed()) {
+                diverged = true;
+                out.println(String.format("FAIL  %-24s diverged at tick %d: %s",
+                    file.getName(), r.divergedTick, r.bodies));
+                continue;
+            }
+            String expected = baseline.getProperty(file.getName());
+            if (expected == null) {
+                baseline.setProperty(file.getName(), String.valueOf(r.ticksPerSecond));
+                baselineChanged = true;
+                out.println(String.format("PASS  %-24s %d ticks  %.0f ticks/s (baseline taken)",
+                    file.getName(), run.ticks, r.ticksPerSecond));
+                continue;
+            }
+            double base = Double.parseDouble(expected);
+            double speed = r.ticksPerSecond;
+            if (speed < SLOW_RATIO * base) {
+                // Confirm before failing: one slow measurement is usually other load
+                speed = Math.max(speed, run.measureSpeed());
+            }
+            boolean runSlow = speed < SLOW_RATIO * base;
+            slow |= runSlow;
+            out.println(String.format("%s  %-24s %d ticks  %.0f ticks/s (%.0f%% of baseline)",
+                runSlow ? "SLOW" : "PASS", file.getName(), run.ticks, speed, speed / base * 100));
+        }
+        if (baselineChanged) {
+            saveBaselines(dir, baseline);
+        }
+        return diverged ? CHECK_DIVERGED : slow ? CHECK_SLOW : CHECK_PASSED;
+    }
+
+    /**
+     * Re-record every golden run in a directory with its own settings, after a change
+     * that is meant to alter results
+     */
+    public static void updateAll(File dir, PrintStream out) throws IOException {
+        for (File file : goldenFiles(dir)) {
+            GoldenRun run = load(file);
+            run.record();
+            run.save(file);
+            out.println(String.format("Recorded %s: %d ticks", file.getName(), run.ticks));
+        }
+    }
+
+    /**
+     * Take this machine's speed baseline again for every golden run in a directory,
+     * after a change that is meant to alter speed (or new hardware)
+     */
+    public static void updateBaselines(File dir, PrintStream out) throws IOException {
+        Properties baseline = new Properties();
+        for (File file : goldenFiles(dir)) {
+            GoldenRun run = load(file);
+            run.check(); // Warms up the step before timing, as checkAll does
+            double speed = run.measureSpeed();
+            baseline.setProperty(file.getName(), String.valueOf(speed));
+            out.println(String.format("Baseline %s: %.0f ticks/s", file.getName(), speed));
+        }
+        saveBaselines(dir, baseline);
+    }
+
+    private static Properties loadBaselines(File dir) throws IOException {
+        Properties baseline = new Properties();
+        File file = new File(dir, BASELINE_FILE);
+        if (file.exists()) {
+            try (Reader in = new FileReader(file)) {
+                baseline.load(in);
+            }
+        }
+        return baseline;
+    }
+
+    private static void saveBaselines(File dir, Properties baseline) throws IOException {
+        try (Writer out = new FileWriter(new File(dir, BASELINE_FILE))) {
+            baseline.store(out, "Golden run ticks/s on this machine (not committed)");
+        }
+    }
+
+    private static File[] goldenFiles(File dir) throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".gold"));
+        if (files == null) {
+            throw new IOException("Not a directory: " + dir);
+        }
+        Arrays.sort(files);
+        return files;
+    }
+}
@@ -5,9 +5,25 @@ import java.awt.event.KeyListener;
 
 /**
  * Handles keyboard input for the simulation.
+ *
+ * Robot controls are not written directly by the EDT. Key changes are stamped with
+ * System.nanoTime() and pushed into an {@link InputQueue}; the simulation thread drains
+ * them at tick boundaries with {@link #poll}, so every press lands on a definite tick
+ * and can be recorded for replay.
  */
 public class Input implements KeyListener {
-    // Control states
+    // Control ids for queued events
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+    public static final int BRAKE = 2;
+    public static final int LIFT_UP = 3;
+    public static final int LIFT_DOWN = 4;
+    public static final int TILT_BACK = 5;
+    public static final int TILT_FWD = 6;
+    public static final int RESET = 7;
+    private static final int CONTROL_COUNT = 8;
+
+    // Control states (written by the simulation thread when events are applied)
     public volatile boolean left;
     public volatile boolean right;
     public volatile boolean brake;
@@ -18,6 +34,28 @@ public class Input implements KeyListener {
     public volatile boolean reset;
     public volatile boolean pause;
 
+    // Loop-level controls (consumed by the simulation loop, not queued)
+    public volatile boolean faster;
+    public volatile boolean slower;
+    public volatile boolean turbo;
+    public volatile boolean saveRecording;
+    public volatile boolean toggleLog;
+    public volatile boolean toggleNetwork;
+    public volatile boolean toggleAuto;
+    public volatile boolean togglePlanner;
+
+    // Event queue from the EDT to the simulation thread
+    private final InputQueue queue = new InputQueue(1024);
+    private final boolean[] edtDown = new boolean[CONTROL_COUNT];    // Filters key auto-repeat
+    private final boolean[] pressedThisTick = new boolean[CONTROL_COUNT];
+
+    // Recording of applied events, if any
+    private InputRecording recording;
+
+    // Latency from key event to the tick that applied it
+    public volatile long lastLatencyNanos = 0;
+    public volatile long maxLatencyNanos = 0;
+
     @Override
     public void keyTyped(KeyEvent e) {
         // Not used
@@ -39,36 +77,183 @@ public class Input implements KeyListener {
     private void setKey(KeyEvent e, boolean down) {
         switch(e.getKeyCode()) {
             case KeyEvent.VK_A:
-                left = down;
+                push(LEFT, down);
                 break;
             case KeyEvent.VK_D:
-                right = down;
+                push(RIGHT, down);
                 break;
             case KeyEvent.VK_SPACE:
-                brake = down;
+                push(BRAKE, down);
                 break;
             case KeyEvent.VK_W:
-                liftUp = down;
+                push(LIFT_UP, down);
                 break;
             case KeyEvent.VK_S:
-                liftDown = down;
+                push(LIFT_DOWN, down);
                 break;
             case KeyEvent.VK_Q:
-                tiltBack = down;
+                push(TILT_BACK, down);
                 break;
             case KeyEvent.VK_E:
-                tiltFwd = down;
+                push(TILT_FWD, down);
                 break;
             case KeyEvent.VK_R:
-                if (down) {
-                    reset = true;
-                }
+                push(RESET, down);
                 break;
             case KeyEvent.VK_P:
                 if (down) {
                     pause = !pause;
                 }
                 break;
+            case KeyEvent.VK_CLOSE_BRACKET:
+                if (down) {
+                    faster = true;
+                }
+                break;
+            case KeyEvent.VK_OPEN_BRACKET:
+                if (down) {
+                    slower = true;
+                }
+                break;
+            case KeyEvent.VK_T:
+                if (down) {
+                    turbo = !turbo;
+                }
+                break;
+            case KeyEvent.VK_V:
+                if (down) {
+                    saveRecording = true;
+                }
+                break;
+            case KeyEvent.VK_L:
+                if (down) {
+                    toggleLog = true;
+                }
+                break;
+            case KeyEvent.VK_N:
+                if (down) {
+                    toggleNetwork = true;
+                }
+                break;
+            case KeyEvent.VK_O:
+                if (down) {
+                    toggleAuto = true;
+                }
+                break;
+            case KeyEvent.VK_M:
+                if (down) {
+                    togglePlanner = true;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Queue a control transition, ignoring auto-repeated presses
+     */
+    private void push(int control, boolean down) {
+        if (edtDown[control] == down) {
+            return;
+        }
+        edtDown[control] = down;
+        queue.offer(System.nanoTime(), control, down);
+    }
+
+    /**
+     * Apply all queued events received up to the given time. Called by the
+     * simulation thread at the start of each tick.
+     *
+     * A release is held back to the next tick if the same control was pressed in
+     * this batch, so a tap shorter than one tick is still seen by at least one tick.
+     *
+     * @param boundaryNanos Wall time (System.nanoTime) that this tick corresponds to
+     * @param tick Tick number used when recording
+     */
+    public void poll(long boundaryNanos, long tick) {
+        for (int i = 0; i < CONTROL_COUNT; i++) {
+            pressedThisTick[i] = false;
+        }
+
+        long now = System.nanoTime();
+        while (queue.peekStamp() <= boundaryNanos) {
+            int control = queue.peekControl();
+            boolean down = queue.peekDown();
+            if (!down && pressedThisTick[control]) {
+                break;
+            }
+            long latency = now - queue.peekStamp();
+            queue.pop();
+
+            if (down) {
+                pressedThisTick[control] = true;
+            }
+            apply(control, down);
+            if (recording != null) {
+                recording.record(tick, control, down);
+            }
+
+            lastLatencyNanos = latency;
+            if (latency > maxLatencyNanos) {
+                maxLatencyNanos = latency;
+            }
+        }
+    }
+
+    /**
+     * Drop all queued events without applying them (used while replaying)
+     */
+    public void discardPending() {
+        while (!queue.isEmpty()) {
+            queue.pop();
+        }
+    }
+
+    /**
+     * Set the state of a control directly (used by poll and by replays)
+     */
+    public void apply(int control, boolean down) {
+        switch (control) {
+            case LEFT:
+                left = down;
+                break;
+            case RIGHT:
+                right = down;
+                break;
+            case BRAKE:
+                brake = down;
+                break;
+            case LIFT_UP:
+                liftUp = down;
+                break;
+            case LIFT_DOWN:
+                liftDown = down;
+                break;
+            case TILT_BACK:
+                tiltBack = down;
+                break;
+            case TILT_FWD:
+                tiltFwd = down;
+                break;
+            case RESET:
+                if (down) {
+                    reset = true;
+                }
+                break;
         }
     }
+
+    /**
+     * Record every applied event into the given recording (null to stop)
+     */
+    public void setRecording(InputRecording recording) {
+        this.recording = recording;
+    }
+
+    public InputRecording getRecording() {
+        return recording;
+    }
+
+    public long getDroppedEvents() {
+        return queue.getDropped();
+    }
 }
@@ -0,0 +1,90 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer ring buffer of timestamped input events.
+ * The EDT offers events as keys change; the simulation thread drains them at tick boundaries.
+ * Events are stored in preallocated primitive arrays so neither side allocates.
+ */
+public class InputQueue {
+    private final long[] stamps;   // System.nanoTime() when the event was received
+    private final int[] events;    // Encoded as (control << 1) | down
+    private final int mask;
+
+    // Sequence counters; each is written by only one thread
+    private final AtomicLong head = new AtomicLong(); // Next slot to read (consumer)
+    private final AtomicLong tail = new AtomicLong(); // Next slot to write (producer)
+
+    private volatile long dropped = 0; // Events rejected because the buffer was full
+
+    /**
+     * Creates a queue
+     * @param capacity Number of slots, must be a power of two
+     */
+    public InputQueue(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.stamps = new long[capacity];
+        this.events = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Producer side: append an event
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean offer(long nanos, int control, boolean down) {
+        long t = tail.get();
+        if (t - head.get() >= stamps.length) {
+            dropped++;
+            return false;
+        }
+        int i = (int)(t & mask);
+        stamps[i] = nanos;
+        events[i] = (control << 1) | (down ? 1 : 0);
+        tail.lazySet(t + 1); // Publish the slot after it is fully written
+        return true;
+    }
+
+    /**
+     * Consumer side: timestamp of the oldest event, or Long.MAX_VALUE if empty
+     */
+    public long peekStamp() {
+        long h = head.get();
+        if (h >= tail.get()) {
+            return Long.MAX_VALUE;
+        }
+        return stamps[(int)(h & mask)];
+    }
+
+    /**
+     * Consumer side: control id of the oldest event (queue must not be empty)
+     */
+    public int peekControl() {
+        return events[(int)(head.get() & mask)] >>> 1;
+    }
+
+    /**
+     * Consumer side: whether the oldest event is a press (queue must not be empty)
+     */
+    public boolean peekDown() {
+        return (events[(int)(head.get() & mask)] & 1) != 0;
+    }
+
+    /**
+     * Consumer side: discard the oldest event
+     */
+    public void pop() {
+        head.lazySet(head.get() + 1);
+    }
+
+    public boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+}
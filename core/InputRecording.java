@@ -0,0 +1,102 @@
+package core;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Tick-indexed stream of input events that can be saved and replayed.
+ * Replaying the same stream from the same starting world reproduces the run.
+ */
+public class InputRecording {
+    private static final int MAGIC = 0x46524349; // "FRCI"
+    private static final int VERSION = 1;
+
+    private long[] ticks = new long[256];
+    private int[] events = new int[256]; // Encoded as (control << 1) | down
+    private int size = 0;
+
+    // Replay cursor
+    private int cursor = 0;
+
+    /**
+     * Append an event applied at the given tick
+     */
+    public void record(long tick, int control, boolean down) {
+        if (size == ticks.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+            events = Arrays.copyOf(events, size * 2);
+        }
+        ticks[size] = tick;
+        events[size] = (control << 1) | (down ? 1 : 0);
+        size++;
+    }
+
+    /**
+     * Apply every recorded event for the given tick to the input state.
+     * Ticks must be replayed in increasing order.
+     */
+    public void replayTick(long tick, Input input) {
+        while (cursor < size && ticks[cursor] <= tick) {
+            if (ticks[cursor] == tick) {
+                input.apply(events[cursor] >>> 1, (events[cursor] & 1) != 0);
+            }
+            cursor++;
+        }
+    }
+
+    /**
+     * Restart replay from the first event
+     */
+    public void rewind() {
+        cursor = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tick of the last recorded event, or -1 if empty
+     */
+    public long lastTick() {
+        return size == 0 ? -1 : ticks[size - 1];
+    }
+
+    public void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(ticks[i]);
+                out.writeInt(events[i]);
+            }
+        }
+    }
+
+    public static InputRecording load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an input recording: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported recording version " + version + ": " + file);
+            }
+            int n = in.readInt();
+            InputRecording rec = new InputRecording();
+            for (int i = 0; i < n; i++) {
+                long tick = in.readLong();
+                int event = in.readInt();
+                rec.record(tick, event >>> 1, (event & 1) != 0);
+            }
+            return rec;
+        }
+    }
+}
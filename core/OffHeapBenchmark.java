@@ -0,0 +1,160 @@
+package core;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import physics.Body;
+import physics.BodyLayout;
+import physics.BodyStore;
+import physics.StepContext;
+
+/**
+ * Compares keeping a large scene's body state in {@link Body} objects against a
+ * {@link BodyStore}: integration time per tick, collector time while the game churns
+ * short-lived garbage, and the pause of a full collection with the bodies live.
+ *
+ * Both sides step the same randomly placed bodies under gravity for the same number
+ * of ticks, and the final states are compared to check the off-heap kernel matches.
+ */
+public class OffHeapBenchmark {
+    private static final double DT = 1.0/120.0;
+    private static final int TICKS = 600;
+    private static final int GARBAGE_PER_TICK = 64 * 1024; // Bytes of short-lived arrays per tick
+    private static final int FULL_GCS = 3;
+
+    private final int bodyCount;
+    private final StepContext context = new StepContext();
+    private byte[] sink; // Keeps the garbage from being optimized away
+
+    public OffHeapBenchmark(int bodyCount) {
+        this.bodyCount = bodyCount;
+        World world = new World();
+        context.prepare(world, DT);
+    }
+
+    public void run(PrintStream out) throws IOException {
+        out.printf("%d bodies, %d ticks, %d KB garbage per tick%n", bodyCount, TICKS, GARBAGE_PER_TICK / 1024);
+
+        // Warm both kernels up on a small scene first so neither is timed interpreted
+        new OffHeapBenchmark(1000).measureOnHeap(null);
+        new OffHeapBenchmark(1000).measureOffHeap(null);
+
+        // Keep the on-heap result off the heap, so it isn't counted against the store
+        BodyStore expected = BodyStore.allocate(bodyCount);
+        expected.capture(measureOnHeap(out), TICKS);
+        BodyStore store = measureOffHeap(out);
+
+        // Same start, same arithmetic: the states must agree exactly
+        int mismatched = 0;
+        for (int i = 0; i < bodyCount; i++) {
+            for (int field : BodyLayout.OFFSETS) {
+                if (field != BodyLayout.FLAGS &&
+                    Double.doubleToRawLongBits(expected.get(i, field)) != Double.doubleToRawLongBits(store.get(i, field))) {
+                    mismatched++;
+                    break;
+                }
+            }
+        }
+        out.printf("Final states: %s%n", mismatched == 0 ? "identical" : mismatched + " bodies differ");
+    }
+
+    private Body[] createBodies() {
+        Random random = new Random(42);
+        Body[] bodies = new Body[bodyCount];
+        for (int i = 0; i < bodyCount; i++) {
+            Body b = new Body(2 + random.nextDouble() * 20, 2.3 + random.nextDouble() * 6, 0.3, 0.3, 10, false);
+            b.velocity.x = random.nextDouble() * 4 - 2;
+            if (i % 2 == 0) {
+                b.fixedRotation = false;
+                b.angularVelocity = random.nextDouble() * 2 - 1;
+                b.updateInertia();
+            }
+            bodies[i] = b;
+        }
+        return bodies;
+    }
+
+    private Body[] measureOnHeap(PrintStream out) {
+        Body[] bodies = createBodies();
+        System.gc();
+        long gcBefore = gcMillis();
+        long gcCountBefore = gcCount();
+        long start = System.nanoTime();
+        for (int t = 0; t < TICKS; t++) {
+            for (Body b : bodies) {
+                b.addForce(0, b.mass * context.gravity);
+            }
+            for (Body b : bodies) {
+                b.integrate(context);
+            }
+            churn();
+        }
+        long nanos = System.nanoTime() - start;
+        if (out != null) {
+            report(out, "On-heap Body", nanos, gcMillis() - gcBefore, gcCount() - gcCountBefore);
+        }
+        return bodies;
+    }
+
+    private BodyStore measureOffHeap(PrintStream out) throws IOException {
+        BodyStore store = BodyStore.allocate(bodyCount);
+        store.capture(createBodies(), 0); // The objects are garbage once captured
+        System.gc();
+        long gcBefore = gcMillis();
+        long gcCountBefore = gcCount();
+        long start = System.nanoTime();
+        for (int t = 0; t < TICKS; t++) {
+            for (int i = 0; i < bodyCount; i++) {
+                store.addForce(i, 0, store.get(i, BodyLayout.MASS) * context.gravity);
+            }
+            store.integrate(context);
+            churn();
+        }
+        long nanos = System.nanoTime() - start;
+        if (out != null) {
+            report(out, "Off-heap store", nanos, gcMillis() - gcBefore, gcCount() - gcCountBefore);
+        }
+        return store;
+    }
+
+    /**
+     * Allocate the short-lived garbage a frame produces, so young collections run
+     */
+    private void churn() {
+        for (int i = 0; i < GARBAGE_PER_TICK / 1024; i++) {
+            sink = new byte[1024];
+        }
+    }
+
+    private void report(PrintStream out, String name, long nanos, long gcMillis, long gcCount) {
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heap = rt.totalMemory() - rt.freeMemory();
+        double fullPause = 0;
+        for (int i = 0; i < FULL_GCS; i++) {
+            long t0 = System.nanoTime();
+            System.gc();
+            fullPause += (System.nanoTime() - t0) / 1e6;
+        }
+        out.printf("%-15s %7.3f ms/tick  %4d GCs %5d ms during run  full GC %6.2f ms  heap %6.1f MB%n",
+            name, nanos / 1e6 / TICKS, gcCount, gcMillis, fullPause / FULL_GCS, heap / 1e6);
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,460 @@
+package core;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import objects.Bucket;
+import objects.Conveyor;
+
+/**
+ * A world layout loaded from a file on every reset: field size, physics constants,
+ * the bucket, robot starts and cargo.
+ *
+ * The text form has one directive per line, numbers in meters and SI units, and
+ * '#' starting a comment:
+ * <pre>
+ * field   groundY leftX rightX
+ * physics gravity linearDamping groundFriction
+ * bucket  x y innerW innerH wall
+ * robot   x y
+ * cargo   x y [halfSize]
+ * grid    x y columns rows dx dy [halfSize]   (a block of cargo, x/y is the first box)
+ * conveyor x y vx vy interval maxActive      (endless drill, see {@link Conveyor})
+ * </pre>
+ * Lines are parsed as they are read and each directive goes straight into the world
+ * being built, so large layouts never exist as a separate list of records. Directives
+ * can come in any order; a scenario must have a bucket, and without robot lines
+ * the built-in robot starts are used.
+ *
+ * The binary form holds the same scenario with grids expanded. A section table up
+ * front gives each section's offset and record count, and the file is memory mapped,
+ * so reloading (every reset) is a straight read of packed numbers. The loader tells
+ * the two forms apart by the magic number at the start.
+ */
+public class Scenario {
+    private static final int MAGIC = 0x46524353; // "FRCS"
+    private static final int VERSION = 2;
+    private static final double DEFAULT_CARGO_SIZE = 0.3;
+
+    // Binary sections
+    private static final int FIELD = 1;
+    private static final int PHYSICS = 2;
+    private static final int BUCKET = 3;
+    private static final int ROBOTS = 4;
+    private static final int CARGO = 5;
+    private static final int CONVEYOR = 6;
+    private static final int MAX_SECTIONS = 6;
+    private static final int HEADER_BYTES = 12 + MAX_SECTIONS * 16; // Magic, version, count, table
+
+    private final File file;
+
+    public Scenario(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Add this scenario's objects to a world that was just cleared, and apply its
+     * field and physics settings
+     */
+    public void build(World world) throws IOException {
+        WorldSink sink = new WorldSink(world);
+        read(file, sink);
+        if (world.bucket == null) {
+            throw new IOException("Scenario has no bucket: " + file);
+        }
+        if (world.robots.isEmpty()) {
+            world.addDefaultRobots();
+        }
+    }
+
+    /**
+     * Convert a scenario (either form) to the binary form
+     */
+    public static void compile(File in, File out) throws IOException {
+        File parent = out.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (BinaryWriter writer = new BinaryWriter(out)) {
+            read(in, writer);
+        }
+    }
+
+    private static void read(File file, Sink sink) throws IOException {
+        boolean binary;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            binary = file.length() >= 4 && in.readInt() == MAGIC;
+        }
+        if (binary) {
+            readBinary(file, sink);
+        } else {
+            readText(file, sink);
+        }
+    }
+
+    /**
+     * Receives a scenario's directives as they are read
+     */
+    private interface Sink {
+        void field(double groundY, double leftX, double rightX) throws IOException;
+
+        void physics(double gravity, double linearDamping, double groundFriction) throws IOException;
+
+        void bucket(double x, double y, double innerW, double innerH, double wall) throws IOException;
+
+        void robot(double x, double y) throws IOException;
+
+        void cargo(double x, double y, double size) throws IOException;
+
+        void conveyor(double x, double y, double vx, double vy, double interval, int maxActive) throws IOException;
+    }
+
+    private static void readText(File file, Sink sink) throws IOException {
+        try (BufferedReader in = new BufferedReader(new FileReader(file), 1 << 16)) {
+            double[] args = new double[7];
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+
+                // Split by hand: a layout can run to tens of thousands of lines
+                int pos = skipSpace(line, 0);
+                if (pos == line.length()) {
+                    continue;
+                }
+                int end = skipWord(line, pos);
+                String directive = line.substring(pos, end);
+                int n = 0;
+                pos = skipSpace(line, end);
+                while (pos < line.length()) {
+                    end = skipWord(line, pos);
+                    if (n == args.length) {
+                        throw new IOException(file + ":" + lineNo + ": too many values");
+                    }
+                    try {
+                        args[n++] = Double.parseDouble(line.substring(pos, end));
+                    } catch (NumberFormatException e) {
+                        throw new IOException(file + ":" + lineNo + ": not a number: " + line.substring(pos, end));
+                    }
+                    pos = skipSpace(line, end);
+                }
+
+                switch (directive) {
+                    case "field":
+                        expect(file, lineNo, n, 3, 3);
+                        sink.field(args[0], args[1], args[2]);
+                        break;
+                    case "physics":
+                        expect(file, lineNo, n, 3, 3);
+                        sink.physics(args[0], args[1], args[2]);
+                        break;
+                    case "bucket":
+                        expect(file, lineNo, n, 5, 5);
+                        sink.bucket(args[0], args[1], args[2], args[3], args[4]);
+                        break;
+                    case "robot":
+                        expect(file, lineNo, n, 2, 2);
+                        sink.robot(args[0], args[1]);
+                        break;
+                    case "cargo":
+                        expect(file, lineNo, n, 2, 3);
+                        sink.cargo(args[0], args[1], n == 3 ? args[2] : DEFAULT_CARGO_SIZE);
+                        break;
+                    case "grid": {
+                        expect(file, lineNo, n, 6, 7);
+                        double size = n == 7 ? args[6] : DEFAULT_CARGO_SIZE;
+                        for (int row = 0; row < (int)args[3]; row++) {
+                            for (int col = 0; col < (int)args[2]; col++) {
+                                sink.cargo(args[0] + col * args[4], args[1] + row * args[5], size);
+                            }
+                        }
+                        break;
+                    }
+                    case "conveyor":
+                        expect(file, lineNo, n, 6, 6);
+                        sink.conveyor(args[0], args[1], args[2], args[3], args[4], (int)args[5]);
+                        break;
+                    default:
+                        throw new IOException(file + ":" + lineNo + ": unknown directive: " + directive);
+                }
+            }
+        }
+    }
+
+    private static int skipSpace(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipWord(String s, int i) {
+        while (i < s.length() && !Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void expect(File file, int lineNo, int n, int min, int max) throws IOException {
+        if (n < min || n > max) {
+            throw new IOException(file + ":" + lineNo + ": expected " +
+                (min == max ? String.valueOf(min) : min + " to " + max) + " values, got " + n);
+        }
+    }
+
+    private static void readBinary(File file, Sink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buf.getInt(); // Magic
+            int version = buf.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported scenario version " + version + ": " + file);
+            }
+            int sections = buf.getInt();
+            if (sections > MAX_SECTIONS) {
+                throw new IOException("Corrupt scenario: " + file);
+            }
+
+            // Settings before objects, whatever the table order
+            for (int type = FIELD; type <= CONVEYOR; type++) {
+                for (int i = 0; i < sections; i++) {
+                    int entry = 12 + i * 16;
+                    if (buf.getInt(entry) != type) {
+                        continue;
+                    }
+                    int count = buf.getInt(entry + 4);
+                    long offset = buf.getLong(entry + 8);
+                    if (offset < HEADER_BYTES || offset > channel.size()) {
+                        throw new IOException("Corrupt scenario: " + file);
+                    }
+                    buf.position((int)offset);
+                    readSection(type, count, buf, sink);
+                }
+            }
+        }
+    }
+
+    private static void readSection(int type, int count, ByteBuffer buf, Sink sink) throws IOException {
+        for (int i = 0; i < count; i++) {
+            switch (type) {
+                case FIELD:
+                    sink.field(buf.getDouble(), buf.getDouble(), buf.getDouble());
+                    break;
+                case PHYSICS:
+                    sink.physics(buf.getDouble(), buf.getDouble(), buf.getDouble());
+                    break;
+                case BUCKET:
+                    sink.bucket(buf.getDouble(), buf.getDouble(), buf.getDouble(), buf.getDouble(), buf.getDouble());
+                    break;
+                case ROBOTS:
+                    sink.robot(buf.getDouble(), buf.getDouble());
+                    break;
+                case CARGO:
+                    sink.cargo(buf.getDouble(), buf.getDouble(), buf.getDouble());
+                    break;
+                case CONVEYOR:
+                    sink.conveyor(buf.getDouble(), buf.getDouble(), buf.getDouble(), buf.getDouble(),
+                        buf.getDouble(), (int)buf.getDouble());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Builds directly into a world
+     */
+    private static class WorldSink implements Sink {
+        private final World world;
+
+        WorldSink(World world) {
+            this.world = world;
+        }
+
+        @Override
+        public void field(double groundY, double leftX, double rightX) {
+            world.groundY = groundY;
+            world.leftX = leftX;
+            world.rightX = rightX;
+        }
+
+        @Override
+        public void physics(double gravity, double linearDamping, double groundFriction) {
+            world.gravity = gravity;
+            world.linearDamping = linearDamping;
+            world.groundFriction = groundFriction;
+        }
+
+        @Override
+        public void bucket(double x, double y, double innerW, double innerH, double wall) throws IOException {
+            if (world.bucket != null) {
+                throw new IOException("Only one bucket is supported");
+            }
+            world.bucket = new Bucket(x, y, innerW, innerH, wall);
+        }
+
+        @Override
+        public void robot(double x, double y) throws IOException {
+            if (world.robots.size() == World.MAX_ROBOTS) {
+                throw new IOException("At most " + World.MAX_ROBOTS + " robots");
+            }
+            world.addRobot(x, y);
+        }
+
+        @Override
+        public void cargo(double x, double y, double size) {
+            world.addCargo(x, y, size);
+        }
+
+        @Override
+        public void conveyor(double x, double y, double vx, double vy, double interval, int maxActive)
+                throws IOException {
+            if (world.conveyor != null) {
+                throw new IOException("Only one conveyor is supported");
+            }
+            world.conveyor = new Conveyor(x, y, vx, vy, interval, maxActive);
+        }
+    }
+
+    /**
+     * Writes the binary form. Cargo records stream straight to the file after the
+     * header; the few settings and robots are kept until the end, when they are
+     * written after the cargo and the section table is filled in.
+     */
+    private static class BinaryWriter implements Sink, Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+
+        private double[] field;
+        private double[] physics;
+        private double[] bucket;
+        private double[] conveyor;
+        private final double[] robots = new double[World.MAX_ROBOTS * 2];
+        private int robotCount = 0;
+        private int cargoCount = 0;
+
+        BinaryWriter(File out) throws IOException {
+            channel = FileChannel.open(out.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            channel.position(HEADER_BYTES);
+        }
+
+        @Override
+        public void field(double groundY, double leftX, double rightX) {
+            field = new double[] { groundY, leftX, rightX };
+        }
+
+        @Override
+        public void physics(double gravity, double linearDamping, double groundFriction) {
+            physics = new double[] { gravity, linearDamping, groundFriction };
+        }
+
+        @Override
+        public void bucket(double x, double y, double innerW, double innerH, double wall) throws IOException {
+            if (bucket != null) {
+                throw new IOException("Only one bucket is supported");
+            }
+            bucket = new double[] { x, y, innerW, innerH, wall };
+        }
+
+        @Override
+        public void robot(double x, double y) throws IOException {
+            if (robotCount == World.MAX_ROBOTS) {
+                throw new IOException("At most " + World.MAX_ROBOTS + " robots");
+            }
+            robots[robotCount * 2] = x;
+            robots[robotCount * 2 + 1] = y;
+            robotCount++;
+        }
+
+        @Override
+        public void conveyor(double x, double y, double vx, double vy, double interval, int maxActive)
+                throws IOException {
+            if (conveyor != null) {
+                throw new IOException("Only one conveyor is supported");
+            }
+            conveyor = new double[] { x, y, vx, vy, interval, maxActive };
+        }
+
+        @Override
+        public void cargo(double x, double y, double size) throws IOException {
+            ensure(24);
+            buf.putDouble(x).putDouble(y).putDouble(size);
+            cargoCount++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                // Sections in file order: cargo first, then what was held back
+                ByteBuffer table = ByteBuffer.allocate(HEADER_BYTES);
+                table.putInt(MAGIC).putInt(VERSION).putInt(0);
+                int sections = 0;
+                sections += entry(table, CARGO, cargoCount, HEADER_BYTES);
+                sections += writeValues(table, FIELD, field);
+                sections += writeValues(table, PHYSICS, physics);
+                sections += writeValues(table, BUCKET, bucket);
+                sections += writeValues(table, CONVEYOR, conveyor);
+                if (robotCount > 0) {
+                    sections += entry(table, ROBOTS, robotCount, offset());
+                    for (int i = 0; i < robotCount * 2; i++) {
+                        ensure(8);
+                        buf.putDouble(robots[i]);
+                    }
+                }
+                flush();
+                table.putInt(8, sections);
+                table.rewind();
+                channel.write(table, 0);
+            } finally {
+                channel.close();
+            }
+        }
+
+        private int writeValues(ByteBuffer table, int type, double[] values) throws IOException {
+            if (values == null) {
+                return 0;
+            }
+            entry(table, type, 1, offset());
+            for (double v : values) {
+                ensure(8);
+                buf.putDouble(v);
+            }
+            return 1;
+        }
+
+        private static int entry(ByteBuffer table, int type, int count, long offset) {
+            table.putInt(type).putInt(count).putLong(offset);
+            return 1;
+        }
+
+        private long offset() throws IOException {
+            return channel.position() + buf.position();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buf.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            buf.clear();
+        }
+    }
+}
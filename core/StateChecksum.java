@@ -0,0 +1,92 @@
+package core;
+
+import objects.Cargo;
+import objects.robot.Robot;
+import physics.Body;
+
+/**
+ * Cheap fingerprint of the world's state, for catching changes that alter results.
+ *
+ * Every body (each robot's chassis, carriage and forks, then every cargo slot, in
+ * play or parked) hashes its exact position, velocity, angle, spin and whether it is
+ * in play. The tick's hash combines those with the clock and score, and the rolling
+ * checksum folds each tick's hash into the previous one, so two runs agree on it at
+ * tick N only if they agreed at every tick before.
+ */
+public class StateChecksum {
+    private long rolling = 0;
+    private int[] bodyHashes = new int[64];
+    private int bodyCount = 0;
+
+    /**
+     * Fold the world's current state into the checksum and return the new value.
+     * Also keeps each body's hash for {@link #getBodyHash}.
+     */
+    public long update(World world) {
+        Robot[] robots = world.components.robots;
+        Cargo[] cargos = world.components.cargos;
+        int n = robots.length * 3 + cargos.length;
+        if (bodyHashes.length < n) {
+            bodyHashes = new int[Math.max(n, bodyHashes.length * 2)];
+        }
+        bodyCount = n;
+
+        long h = mix(0, Double.doubleToRawLongBits(world.timeSec));
+        h = mix(h, world.score);
+        h = mix(h, world.delivered);
+        int k = 0;
+        for (Robot r : robots) {
+            h = mix(h, bodyHashes[k++] = bodyHash(r));
+            h = mix(h, bodyHashes[k++] = bodyHash(r.mast.carriage));
+            h = mix(h, bodyHashes[k++] = bodyHash(r.mast.forks));
+        }
+        for (Cargo c : cargos) {
+            h = mix(h, bodyHashes[k++] = bodyHash(c));
+        }
+        rolling = mix(rolling, h);
+        return rolling;
+    }
+
+    public long getRolling() {
+        return rolling;
+    }
+
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    /**
+     * Hash of body i as of the last update, in the order described above
+     */
+    public int getBodyHash(int i) {
+        return bodyHashes[i];
+    }
+
+    /**
+     * Name of body i for reports, e.g. "robot 0 forks" or "cargo 12"
+     */
+    public static String describeBody(World world, int i) {
+        int robotBodies = world.components.robots.length * 3;
+        if (i < robotBodies) {
+            String[] parts = { "chassis", "carriage", "forks" };
+            return "robot " + i / 3 + " " + parts[i % 3];
+        }
+        return "cargo " + (i - robotBodies);
+    }
+
+    public static int bodyHash(Body b) {
+        long h = mix(0, Double.doubleToRawLongBits(b.position.x));
+        h = mix(h, Double.doubleToRawLongBits(b.position.y));
+        h = mix(h, Double.doubleToRawLongBits(b.velocity.x));
+        h = mix(h, Double.doubleToRawLongBits(b.velocity.y));
+        h = mix(h, Double.doubleToRawLongBits(b.angle));
+        h = mix(h, Double.doubleToRawLongBits(b.angularVelocity));
+        h = mix(h, b.active ? 1 : 0);
+        return (int)(h ^ (h >>> 32));
+    }
+
+    private static long mix(long h, long v) {
+        h = (h ^ v) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
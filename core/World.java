@@ -1,20 +1,29 @@
 package core;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import objects.Cargo;
 import objects.robot.*;
 import objects.Bucket;
+import objects.Conveyor;
+import physics.StepContext;
+import systems.SystemScheduler;
 
 /**
  * Represents the simulation world and contains all simulation objects and parameters.
  */
 public class World {
-    // Physics parameters
-    public double gravity = -9.81;        // m/s^2 (real-world gravity)
-    public double linearDamping = 0.60;   // Simple drag coefficient (higher = more friction)
-    public double groundFriction = 0.80;  // Additional friction when touching ground
+    // Physics parameters (restored to these defaults on reset unless the scenario sets them)
+    public static final double DEFAULT_GRAVITY = -9.81;
+    public static final double DEFAULT_LINEAR_DAMPING = 0.60;
+    public static final double DEFAULT_GROUND_FRICTION = 0.80;
+    public double gravity = DEFAULT_GRAVITY;                 // m/s^2 (real-world gravity)
+    public double linearDamping = DEFAULT_LINEAR_DAMPING;    // Simple drag coefficient (higher = more friction)
+    public double groundFriction = DEFAULT_GROUND_FRICTION;  // Additional friction when touching ground
 
     // World boundaries
     public double groundY = 2;           // Ground level in meters
@@ -23,37 +32,290 @@ public class World {
 
     // Game objects
     public final List<GameObject> objects = new ArrayList<>();
-    public Robot robot;
+    public final List<Robot> robots = new ArrayList<>();
+    public Robot robot;                   // Robot 0, driven from this machine
     public Bucket bucket;
+    public Conveyor conveyor;             // Endless cargo source (null when off)
     public final List<Cargo> cargos = new ArrayList<>();
 
+    // Despawned cargo waiting to be reused. Boxes keep their slot in the object lists
+    // and component arrays while parked, so spawning and despawning never shift them
+    private Cargo[] freeCargo = new Cargo[16];
+    private int freeCargoCount = 0;
+
+    // Component arrays and the systems that run over them each tick
+    public final Components components = new Components();
+    public final SystemScheduler systems = SystemScheduler.standard();
+    public final StepContext stepContext = new StepContext(); // Per-tick constants, prepared by step()
+
+    // Robots created on reset and their control sources (kept across resets)
+    public static final int MAX_ROBOTS = 6;
+    private static final double[] START_X = {6, 4.2, 7.8, 9.6, 11.4, 13.2};
+    public int robotCount = 1;
+    private final RobotController[] controllers = new RobotController[MAX_ROBOTS];
+    public boolean synchronousControl = false; // Run all controllers on the sim thread (headless batch runs)
+
+    // Layout built on reset (null for the built-in one)
+    public Scenario scenario;
+
+    // Game state
+    public int score = 0;
+    public int delivered = 0;             // Cargo scored and then removed (conveyor drills)
+    public double timeSec = 0;
+
     /**
      * Reset the world to its initial state
      */
     public void reset() {
+        // Stop controllers of the previous robots
+        for (Robot r : robots) {
+            if (r.control != null) {
+                r.control.close();
+            }
+        }
+
         // Clear all objects
         objects.clear();
+        robots.clear();
         cargos.clear();
+        Arrays.fill(freeCargo, 0, freeCargoCount, null);
+        freeCargoCount = 0;
+        bucket = null;
+        conveyor = null;
+        score = 0;
+        delivered = 0;
+        timeSec = 0;
+        gravity = DEFAULT_GRAVITY;
+        linearDamping = DEFAULT_LINEAR_DAMPING;
+        groundFriction = DEFAULT_GROUND_FRICTION;
 
-        // Create robot
-        robot = new Robot(6, 4);
+        if (scenario != null) {
+            try {
+                scenario.build(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load scenario " + scenario.getFile(), e);
+            }
+        } else {
+            buildDefault();
+        }
 
-        // Create scoring bucket
-        bucket = new Bucket(16, 4, 4, 3, 0.5); // x, y, innerW, innerH, wallThickness
+        for (int i = 0; i < robots.size(); i++) {
+            attachController(i);
+        }
+        robot = robots.get(0);
 
         // Add main objects
-        objects.add(bucket);
-        objects.add(robot);
-        objects.addAll(List.of(robot.mechanisms));
+        if (bucket != null) {
+            objects.add(bucket);
+        }
+        if (conveyor != null) {
+            objects.add(conveyor);
+        }
+        for (Robot r : robots) {
+            objects.add(r);
+            objects.addAll(List.of(r.mechanisms));
+        }
+        objects.addAll(cargos);
+
+        // Fill the pool up front so the drill never allocates
+        if (conveyor != null) {
+            reserveCargo(conveyor.maxActive);
+        }
+        components.rebuild(this);
+    }
+
+    /**
+     * The built-in layout: robots along the left, the bucket on the right and a
+     * stack of cargo in between
+     */
+    private void buildDefault() {
+        addDefaultRobots();
+
+        // Create scoring bucket
+        bucket = new Bucket(16, 4, 4, 3, 0.5); // x, y, innerW, innerH, wallThickness
 
         // Create cargo boxes - start them in a neat stack away from the robot
         for (int i = 0; i < 6; i++) {
             // Stack 3x2: place boxes in two columns of three
             double x = 10 + 2 * i;
             double y = 3 + (i % 3) * 0.7;        // Stack three high
-            Cargo c = new Cargo(x, y, 0.3);
+            addCargo(x, y, 0.3);
+        }
+    }
+
+    /**
+     * Add {@link #robotCount} robots at the built-in start positions
+     */
+    public void addDefaultRobots() {
+        int count = Math.max(1, Math.min(robotCount, MAX_ROBOTS));
+        for (int i = 0; i < count; i++) {
+            addRobot(START_X[i], 4);
+        }
+    }
+
+    /**
+     * Add a robot while the world is being built (during {@link #reset})
+     */
+    public void addRobot(double x, double y) {
+        if (robots.size() == MAX_ROBOTS) {
+            throw new IllegalStateException("At most " + MAX_ROBOTS + " robots");
+        }
+        robots.add(new Robot(x, y, robots.size()));
+    }
+
+    /**
+     * Add a cargo box while the world is being built (during {@link #reset})
+     */
+    public void addCargo(double x, double y, double size) {
+        cargos.add(new Cargo(x, y, size));
+    }
+
+    /**
+     * Bring a cargo box into play at rest, reusing a despawned box if there is one.
+     * Only allocates (and rebuilds the component arrays) when the pool is empty.
+     */
+    public Cargo spawnCargo(double x, double y) {
+        Cargo c;
+        if (freeCargoCount > 0) {
+            c = freeCargo[--freeCargoCount];
+            freeCargo[freeCargoCount] = null;
+        } else {
+            c = new Cargo(x, y, 0.3);
             cargos.add(c);
             objects.add(c);
+            components.rebuild(this);
+        }
+        c.place(x, y);
+        c.active = true;
+        return c;
+    }
+
+    /**
+     * Take a cargo box out of play and keep it for the next spawn. The box stays in
+     * the lists and arrays (skipped everywhere while inactive).
+     */
+    public void despawnCargo(Cargo c) {
+        if (!c.active) {
+            return;
         }
+        c.active = false;
+        c.velocity.x = 0;
+        c.velocity.y = 0;
+        c.angularVelocity = 0;
+        if (freeCargoCount == freeCargo.length) {
+            freeCargo = Arrays.copyOf(freeCargo, freeCargoCount * 2);
+        }
+        freeCargo[freeCargoCount++] = c;
+    }
+
+    /**
+     * Make sure at least this many cargo boxes in total exist, adding inactive ones to
+     * the pool as needed
+     */
+    public void reserveCargo(int total) {
+        if (cargos.size() >= total) {
+            return;
+        }
+        while (cargos.size() < total) {
+            Cargo c = new Cargo(0, 0, 0.3);
+            cargos.add(c);
+            objects.add(c);
+            despawnCargo(c);
+        }
+        components.rebuild(this);
+    }
+
+    /**
+     * Cargo boxes currently in play
+     */
+    public int getActiveCargo() {
+        return cargos.size() - freeCargoCount;
+    }
+
+    /**
+     * Make this world a copy of another one's physical state, for running what-if
+     * simulations (e.g. planner rollouts) off to the side.
+     *
+     * Objects are only created when the other world's robots or cargo don't match
+     * the ones already here; after that a copy just overwrites fields in place, so
+     * the same scratch world can be reused every control cycle without allocating.
+     * Copies share sprites with the original and never load them, have no
+     * controllers (robots keep their copied command), skip sensors, and have no
+     * conveyor, so rollouts never spawn cargo.
+     */
+    public void copyFrom(World src) {
+        gravity = src.gravity;
+        linearDamping = src.linearDamping;
+        groundFriction = src.groundFriction;
+        groundY = src.groundY;
+        leftX = src.leftX;
+        rightX = src.rightX;
+        robotCount = src.robotCount;
+        score = src.score;
+        delivered = src.delivered;
+        timeSec = src.timeSec;
+
+        if (robots.size() != src.robots.size() || cargos.size() != src.cargos.size() || bucket != src.bucket) {
+            objects.clear();
+            robots.clear();
+            cargos.clear();
+            bucket = src.bucket; // Static, so it can be shared
+            objects.add(bucket);
+            for (Robot r : src.robots) {
+                Robot copy = new Robot(r);
+                robots.add(copy);
+                objects.add(copy);
+                objects.addAll(List.of(copy.actuators));
+            }
+            for (Cargo c : src.cargos) {
+                Cargo copy = new Cargo(c);
+                cargos.add(copy);
+                objects.add(copy);
+            }
+            robot = robots.get(0);
+            components.rebuild(this);
+            return;
+        }
+
+        for (int i = 0; i < robots.size(); i++) {
+            robots.get(i).copyStateFrom(src.robots.get(i));
+        }
+        for (int i = 0; i < cargos.size(); i++) {
+            cargos.get(i).copyStateFrom(src.cargos.get(i));
+        }
+    }
+
+    /**
+     * Set the control source for a robot slot. Replaces the current robot's controller
+     * immediately and is kept across resets. Call from the simulation thread.
+     * @param index Robot index (0 = local driver)
+     * @param controller Controller, or null to leave the robot's command untouched
+     */
+    public void setController(int index, RobotController controller) {
+        controllers[index] = controller;
+        if (index < robots.size()) {
+            attachController(index);
+        }
+    }
+
+    private void attachController(int index) {
+        Robot r = robots.get(index);
+        if (r.control != null) {
+            r.control.close();
+            r.control = null;
+        }
+        if (controllers[index] != null) {
+            r.control = new ControlLoop(controllers[index], r, "robot-" + index + "-control", synchronousControl);
+        }
+    }
+
+    /**
+     * Advance the simulation by one fixed timestep
+     * @param dt Time step in seconds
+     */
+    public void step(double dt) {
+        timeSec += dt;
+        stepContext.prepare(this, dt);
+        systems.run(this, dt);
     }
 }
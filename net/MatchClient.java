@@ -0,0 +1,331 @@
+package net;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+import core.Scenario;
+import core.World;
+import static net.MatchProtocol.*;
+
+/**
+ * One driver's end of a networked match: sends this machine's keys to a
+ * {@link MatchServer} and keeps a local world that predicts the match.
+ *
+ * Key changes are stamped to take effect a fixed number of ticks ahead (the input
+ * delay the server announces), and the local world applies them at that same tick,
+ * so the local robot moves in step with how the server will move it. Other robots
+ * are assumed to keep their last known keys. When a state frame arrives, the local
+ * world is rolled back to it (every body set to the server's state) and the ticks
+ * since are stepped again with this driver's recorded keys. Mispredictions are
+ * corrected without the display ever waiting on the network.
+ *
+ * All calls come from the caller's simulation thread; the socket is non-blocking and
+ * is polled once per {@link #tick}.
+ */
+public class MatchClient implements AutoCloseable {
+    private static final int MAX_AHEAD = 30;   // Ticks to predict past the last frame before waiting
+    private static final int HISTORY = 64;     // Recorded own keys, by tick (power of two, > MAX_AHEAD)
+
+    private final World world;
+    private final NetworkDriver[] drivers = new NetworkDriver[World.MAX_ROBOTS];
+    private SocketChannel channel;
+    private ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+    private final ByteBuffer out = ByteBuffer.allocate(4096);  // Write mode; position = pending bytes
+
+    private int slot = -1;
+    private int inputDelay;
+    private long tick;            // Ticks stepped by the local world
+    private long confirmedTick;   // Tick of the newest state frame
+
+    // Authoritative state as of the newest frame
+    private int[] state = new int[0];
+    private final int[] robotBits = new int[World.MAX_ROBOTS];
+    private int score;
+    private int delivered;
+    private boolean frameArrived = false;
+
+    // This driver's keys: changes not yet due, and the keys applied at each recent tick
+    private final long[] changeTicks = new long[HISTORY];
+    private final int[] changeBits = new int[HISTORY];
+    private int changeHead = 0;
+    private int changeCount = 0;
+    private final int[] ownBits = new int[HISTORY];
+    private int currentBits = 0;
+    private int lastSentBits = 0;
+
+    // Stats
+    private long bytesReceived = 0;
+    private long frames = 0;
+    private int lastRollback = 0;
+    private int maxRollback = 0;
+
+    /**
+     * @param world World to drive; it is rebuilt to match the server's on connect
+     */
+    public MatchClient(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Connect and join, waiting for the server's welcome
+     */
+    public void connect(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+        ByteBuffer hello = ByteBuffer.allocate(5 + HELLO_BYTES);
+        hello.putInt(1 + HELLO_BYTES).put(HELLO).putInt(MAGIC).putInt(VERSION).flip();
+        while (hello.hasRemaining()) {
+            channel.write(hello);
+        }
+
+        // Blocking until the welcome, then polled
+        ByteBuffer header = ByteBuffer.allocate(5);
+        readFully(header);
+        int length = header.getInt(0);
+        if (header.get(4) != WELCOME || length < 1 + WELCOME_BYTES || length > 1 + WELCOME_BYTES + MAX_SCENARIO_BYTES) {
+            throw new IOException("Not a match server, or a different protocol version");
+        }
+        ByteBuffer welcome = ByteBuffer.allocate(length - 1);
+        readFully(welcome);
+        welcome.flip();
+        slot = welcome.getInt();
+        tick = welcome.getInt();
+        confirmedTick = tick;
+        inputDelay = welcome.getInt();
+        int robots = welcome.getInt();
+        int scenarioBytes = welcome.getInt();
+        if (scenarioBytes != welcome.remaining() || robots < 1 || robots > World.MAX_ROBOTS) {
+            throw new IOException("Malformed welcome from the server");
+        }
+        channel.configureBlocking(false);
+
+        // Same field as the server (from the server's own scenario file), every robot driven by keys
+        Scenario scenario = null;
+        if (scenarioBytes > 0) {
+            File file = File.createTempFile("match-", ".scn");
+            file.deleteOnExit();
+            Files.write(file.toPath(), Arrays.copyOfRange(welcome.array(), welcome.position(), welcome.limit()));
+            scenario = new Scenario(file);
+        }
+        world.scenario = scenario;
+        world.robotCount = robots;
+        world.synchronousControl = true;
+        for (int i = 0; i < World.MAX_ROBOTS; i++) {
+            drivers[i] = new NetworkDriver();
+            world.setController(i, drivers[i]);
+        }
+        try {
+            world.reset();
+        } catch (UncheckedIOException e) {
+            throw new IOException("Could not build the server's field: " + e.getCause().getMessage(), e);
+        }
+        world.timeSec = tick * DT;
+    }
+
+    private void readFully(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+        }
+    }
+
+    /**
+     * Advance the local match by one tick with this driver's current keys: take in
+     * any frames (rolling back to the newest), send key changes, and predict ahead.
+     * @param bits Keys held now, from {@link MatchProtocol#bits}
+     */
+    public void tick(int bits) throws IOException {
+        receive();
+        if (frameArrived) {
+            frameArrived = false;
+            rollback();
+        }
+
+        // Keys change from a fixed delay ahead, here and on the server alike
+        if (bits != lastSentBits && slot >= 0) {
+            long due = tick + 1 + inputDelay;
+            out.putInt(1 + INPUT_BYTES).put(INPUT).putInt((int)due).put((byte)bits);
+            if (changeCount == HISTORY) {
+                changeHead = (changeHead + 1) % HISTORY;
+                changeCount--;
+            }
+            changeTicks[(changeHead + changeCount) % HISTORY] = due;
+            changeBits[(changeHead + changeCount) % HISTORY] = bits;
+            changeCount++;
+            lastSentBits = bits;
+        }
+        send();
+
+        // Wait for the server rather than drift too far from it
+        if (tick - confirmedTick < MAX_AHEAD) {
+            stepLocal();
+        }
+    }
+
+    /**
+     * Step the local world one tick, applying this driver's keys due by then
+     */
+    private void stepLocal() {
+        long t = tick + 1;
+        while (changeCount > 0 && changeTicks[changeHead] <= t) {
+            currentBits = changeBits[changeHead];
+            changeHead = (changeHead + 1) % HISTORY;
+            changeCount--;
+        }
+        ownBits[(int)(t & (HISTORY - 1))] = currentBits;
+        if (slot >= 0) {
+            drivers[slot].bits = currentBits;
+        }
+        world.step(DT);
+        tick = t;
+    }
+
+    /**
+     * Reset the local world to the newest frame and replay the ticks predicted since
+     */
+    private void rollback() {
+        apply(state, world);
+        world.score = score;
+        world.delivered = delivered;
+        world.timeSec = confirmedTick * DT;
+        for (int i = 0; i < world.robots.size(); i++) {
+            drivers[i].bits = robotBits[i];
+        }
+
+        if (confirmedTick >= tick) {
+            // The server is ahead of the prediction: jump to it
+            lastRollback = 0;
+            tick = confirmedTick;
+            return;
+        }
+        int replay = (int)(tick - confirmedTick);
+        lastRollback = replay;
+        maxRollback = Math.max(maxRollback, replay);
+        for (long t = confirmedTick + 1; t <= confirmedTick + replay; t++) {
+            if (slot >= 0) {
+                drivers[slot].bits = ownBits[(int)(t & (HISTORY - 1))];
+            }
+            world.step(DT);
+        }
+    }
+
+    private void send() throws IOException {
+        if (out.position() == 0) {
+            return;
+        }
+        out.flip();
+        channel.write(out);
+        out.compact();
+    }
+
+    /**
+     * Read whatever has arrived and decode complete frames into the state
+     */
+    private void receive() throws IOException {
+        int n;
+        while ((n = channel.read(in)) > 0) {
+            bytesReceived += n;
+            in.flip();
+            decode();
+            in.compact();
+            if (!in.hasRemaining()) {
+                // A frame bigger than the buffer (a large field's first full frame)
+                ByteBuffer grown = ByteBuffer.allocate(in.capacity() * 2);
+                in.flip();
+                grown.put(in);
+                in = grown;
+            }
+        }
+        if (n < 0) {
+            throw new IOException("Server closed the connection");
+        }
+    }
+
+    private void decode() throws IOException {
+        while (in.remaining() >= 5) {
+            int length = in.getInt(in.position());
+            if (in.remaining() < 4 + length) {
+                return;
+            }
+            in.getInt();
+            byte type = in.get();
+            if (type != STATE) {
+                throw new IOException("Unexpected message " + type);
+            }
+            confirmedTick = in.getInt();
+            boolean full = in.get() != 0;
+            int bodyCount = in.getInt();
+            score = in.getInt();
+            delivered = in.getInt();
+            int robots = in.get();
+            for (int r = 0; r < robots; r++) {
+                robotBits[r] = in.get();
+            }
+            if (bodyCount != bodyCount(world)) {
+                throw new IOException("Server has " + bodyCount + " bodies but this field has " + bodyCount(world));
+            }
+            if (full || state.length != bodyCount * FIELDS) {
+                state = new int[bodyCount * FIELDS];
+            }
+            readDelta(in, in.getInt(), state);
+            frames++;
+            frameArrived = true;
+        }
+    }
+
+    /**
+     * Robot slot this client drives, or -1 when watching
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    public int getInputDelay() {
+        return inputDelay;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getConfirmedTick() {
+        return confirmedTick;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Ticks replayed after the last rollback, and the most so far
+     */
+    public int getLastRollback() {
+        return lastRollback;
+    }
+
+    public int getMaxRollback() {
+        return maxRollback;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        for (int i = 0; i < World.MAX_ROBOTS; i++) {
+            world.setController(i, null);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package net;
+
+import java.nio.ByteBuffer;
+import core.Input;
+import core.World;
+import objects.robot.Robot;
+import objects.robot.RobotCommand;
+import physics.Body;
+
+/**
+ * Wire format and shared helpers for networked matches ({@link MatchServer},
+ * {@link MatchClient}).
+ *
+ * Messages go over TCP, each framed as {@code int length, byte type, payload}
+ * (big-endian, length counting the type byte):
+ * <pre>
+ *   HELLO   client -> server  int magic, int version
+ *   WELCOME server -> client  int slot (-1 = spectator), int tick, int inputDelay,
+ *                             int robotCount, int scenarioBytes, scenario file
+ *                             contents (none = built-in layout)
+ *   INPUT   client -> server  int tick, byte bits   (bits hold from that tick on)
+ *   STATE   server -> client  int tick, byte full, int bodyCount, int score,
+ *                             int delivered, byte robotCount, robotCount x byte bits,
+ *                             int entryCount, entries
+ *     entry: int body, byte fieldMask, one int per set bit of the mask
+ * </pre>
+ * Body state is quantized to ints (0.1 mm, 0.1 mm/s, 10 microradians) and each STATE
+ * carries only the fields that changed since the previous STATE on the connection,
+ * so resting cargo costs nothing. A full frame starts again from all zeros. Bodies
+ * are numbered as in {@link core.StateChecksum}: each robot's chassis, carriage and
+ * forks, then every cargo slot.
+ */
+public final class MatchProtocol {
+    static final int MAGIC = 0x4652434D; // "FRCM"
+    static final int VERSION = 2;
+
+    static final byte HELLO = 1;
+    static final byte WELCOME = 2;
+    static final byte INPUT = 3;
+    static final byte STATE = 4;
+
+    // Payload bytes of the fixed-size client messages
+    static final int HELLO_BYTES = 8;
+    static final int INPUT_BYTES = 5;
+    static final int WELCOME_BYTES = 20;               // Before the scenario contents
+    static final int MAX_SCENARIO_BYTES = 64 << 20;
+
+    public static final int DEFAULT_PORT = 5820;
+    public static final double DT = 1.0/120.0;
+    static final int FRAME_TICKS = 2;       // A state frame every other tick (60 Hz)
+
+    // Quantized fields per body
+    static final int FIELDS = 7;
+    private static final int X = 0, Y = 1, VX = 2, VY = 3, ANGLE = 4, SPIN = 5, FLAGS = 6;
+    private static final double POSITION_SCALE = 1e4;
+    private static final double VELOCITY_SCALE = 1e4;
+    private static final double ANGLE_SCALE = 1e5;
+    static final int ENTRY_MAX_BYTES = 5 + FIELDS * 4;
+    static final int STATE_HEADER_BYTES = 4 + 1 + 4 + 1 + 4 + 4 + 4 + 1 + World.MAX_ROBOTS + 4;
+
+    // Input bits
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+    public static final int BRAKE = 4;
+    public static final int LIFT_UP = 8;
+    public static final int LIFT_DOWN = 16;
+    public static final int TILT_BACK = 32;
+    public static final int TILT_FWD = 64;
+
+    private MatchProtocol() {
+    }
+
+    /**
+     * Pack the driving keys of an input state
+     */
+    public static int bits(Input input) {
+        return (input.left ? LEFT : 0) | (input.right ? RIGHT : 0) | (input.brake ? BRAKE : 0)
+            | (input.liftUp ? LIFT_UP : 0) | (input.liftDown ? LIFT_DOWN : 0)
+            | (input.tiltBack ? TILT_BACK : 0) | (input.tiltFwd ? TILT_FWD : 0);
+    }
+
+    /**
+     * Set a command from packed keys, as {@link RobotCommand#setFromInput} does
+     */
+    static void toCommand(int bits, RobotCommand out) {
+        out.drive = (bits & LEFT) != 0 ? -1 : (bits & RIGHT) != 0 ? 1 : 0;
+        out.lift = (bits & LIFT_UP) != 0 ? 1 : (bits & LIFT_DOWN) != 0 ? -1 : 0;
+        out.tilt = (bits & TILT_FWD) != 0 ? -1 : (bits & TILT_BACK) != 0 ? 1 : 0;
+        out.brake = (bits & BRAKE) != 0;
+    }
+
+    static int bodyCount(World world) {
+        return world.robots.size() * 3 + world.cargos.size();
+    }
+
+    static Body body(World world, int i) {
+        int robotBodies = world.robots.size() * 3;
+        if (i < robotBodies) {
+            Robot r = world.robots.get(i / 3);
+            switch (i % 3) {
+                case 0: return r;
+                case 1: return r.mast.carriage;
+                default: return r.mast.forks;
+            }
+        }
+        return world.cargos.get(i - robotBodies);
+    }
+
+    /**
+     * Quantize every body's state into out (bodyCount x FIELDS)
+     */
+    static void quantize(World world, int[] out) {
+        int n = bodyCount(world);
+        for (int i = 0; i < n; i++) {
+            Body b = body(world, i);
+            int at = i * FIELDS;
+            out[at + X] = (int)Math.round(b.position.x * POSITION_SCALE);
+            out[at + Y] = (int)Math.round(b.position.y * POSITION_SCALE);
+            out[at + VX] = (int)Math.round(b.velocity.x * VELOCITY_SCALE);
+            out[at + VY] = (int)Math.round(b.velocity.y * VELOCITY_SCALE);
+            out[at + ANGLE] = (int)Math.round(b.angle * ANGLE_SCALE);
+            out[at + SPIN] = (int)Math.round(b.angularVelocity * ANGLE_SCALE);
+            out[at + FLAGS] = b.active ? 1 : 0;
+        }
+    }
+
+    /**
+     * Put quantized state back into the world's bodies
+     */
+    static void apply(int[] state, World world) {
+        int n = Math.min(bodyCount(world), state.length / FIELDS);
+        for (int i = 0; i < n; i++) {
+            Body b = body(world, i);
+            int at = i * FIELDS;
+            b.position.x = state[at + X] / POSITION_SCALE;
+            b.position.y = state[at + Y] / POSITION_SCALE;
+            b.velocity.x = state[at + VX] / VELOCITY_SCALE;
+            b.velocity.y = state[at + VY] / VELOCITY_SCALE;
+            b.angle = state[at + ANGLE] / ANGLE_SCALE;
+            b.angularVelocity = state[at + SPIN] / ANGLE_SCALE;
+            b.active = state[at + FLAGS] != 0;
+            b.prevX = b.position.x;
+            b.prevY = b.position.y;
+            b.bounds.x = b.position.x;
+            b.bounds.y = b.position.y;
+        }
+    }
+
+    /**
+     * Write the bodies whose state differs from sent, and bring sent up to date
+     * @return Number of entries written
+     */
+    static int writeDelta(int[] state, int[] sent, int bodyCount, ByteBuffer out) {
+        int entries = 0;
+        for (int i = 0; i < bodyCount; i++) {
+            int at = i * FIELDS;
+            int mask = 0;
+            for (int f = 0; f < FIELDS; f++) {
+                if (state[at + f] != sent[at + f]) {
+                    mask |= 1 << f;
+                }
+            }
+            if (mask == 0) {
+                continue;
+            }
+            out.putInt(i);
+            out.put((byte)mask);
+            for (int f = 0; f < FIELDS; f++) {
+                if ((mask & (1 << f)) != 0) {
+                    out.putInt(state[at + f]);
+                    sent[at + f] = state[at + f];
+                }
+            }
+            entries++;
+        }
+        return entries;
+    }
+
+    /**
+     * Apply entries written by {@link #writeDelta} to state
+     */
+    static void readDelta(ByteBuffer in, int entries, int[] state) {
+        for (int e = 0; e < entries; e++) {
+            int at = in.getInt() * FIELDS;
+            int mask = in.get();
+            for (int f = 0; f < FIELDS; f++) {
+                if ((mask & (1 << f)) != 0) {
+                    state[at + f] = in.getInt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import core.World;
+import static net.MatchProtocol.*;
+
+/**
+ * Authoritative host for a match driven from several machines.
+ *
+ * One thread runs the fixed-step world at 120 Hz and serves every connection through
+ * a single non-blocking selector between ticks. Each client drives one robot slot.
+ * Its inputs are stamped with the tick they should take effect, a few ticks ahead
+ * (the input delay), so on a LAN they usually arrive before that tick is stepped;
+ * late ones are applied at once and counted. Every other tick each client gets a
+ * state frame holding only what changed since its previous frame. A client whose
+ * socket is backed up skips frames, and its next frame covers everything since the
+ * last one it got, so a slow client never holds up the match.
+ */
+public class MatchServer implements Runnable, AutoCloseable {
+    private static final long TICK_NANOS = 1_000_000_000L / 120;
+    private static final int MAX_CATCHUP_TICKS = 12; // Beyond this the server drops time
+
+    private final World world;
+    private final byte[] scenario;     // Scenario file contents sent to clients
+    private final int inputDelay;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final NetworkDriver[] drivers = new NetworkDriver[World.MAX_ROBOTS];
+    private final List<Peer> peers = new ArrayList<>();
+    private int[] state = new int[0];   // Quantized state of the current frame
+    private Thread thread;
+    private volatile boolean running;
+
+    // Stats
+    private volatile long tick = 0;
+    private volatile long bytesSent = 0;
+    private volatile long framesSent = 0;
+    private volatile long framesSkipped = 0;
+    private volatile long lateInputs = 0;
+    private volatile int clientCount = 0;
+
+    /**
+     * One connection and the robot it drives
+     */
+    private static class Peer {
+        final SocketChannel channel;
+        SelectionKey key;
+        boolean welcomed = false;
+        int slot = -1;
+        ByteBuffer in = ByteBuffer.allocate(256);
+        ByteBuffer out = ByteBuffer.allocate(4096);  // Write mode; position = pending bytes
+        int[] sent = new int[0];                    // State as of the last frame sent
+        boolean full = true;                        // Next frame starts from zeros
+
+        // Input changes not yet applied, in tick order (a small ring)
+        int[] changeTicks = new int[64];
+        int[] changeBits = new int[64];
+        int changeHead = 0;
+        int changeCount = 0;
+
+        Peer(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * @param world World to host, already reset; its robots become the driver slots,
+     *              and its scenario file (if any) is sent to clients to build the same field
+     */
+    public MatchServer(World world, int port, int inputDelay) throws IOException {
+        this.world = world;
+        this.scenario = world.scenario != null ? Files.readAllBytes(world.scenario.getFile().toPath()) : new byte[0];
+        if (scenario.length > MAX_SCENARIO_BYTES) {
+            throw new IOException("Scenario too large to send: " + scenario.length + " bytes");
+        }
+        this.inputDelay = inputDelay;
+        world.synchronousControl = true;
+        for (int i = 0; i < World.MAX_ROBOTS; i++) {
+            drivers[i] = new NetworkDriver();
+            world.setController(i, drivers[i]);
+        }
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this, "match-server");
+        thread.start();
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        try {
+            while (running) {
+                long waitNanos = next - System.nanoTime();
+                if (waitNanos > 1_000_000) {
+                    selector.select(waitNanos / 1_000_000);
+                } else {
+                    selector.selectNow();
+                }
+                handleKeys();
+
+                long now = System.nanoTime();
+                int steps = 0;
+                while (now >= next && steps < MAX_CATCHUP_TICKS) {
+                    step();
+                    next += TICK_NANOS;
+                    steps++;
+                }
+                if (now - next > MAX_CATCHUP_TICKS * TICK_NANOS) {
+                    next = now; // Too far behind to catch up; drop the time
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Match server stopped: " + e);
+            }
+        }
+    }
+
+    private void handleKeys() throws IOException {
+        Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+            SelectionKey key = it.next();
+            it.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            Peer peer = (Peer) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    read(peer);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    flush(peer);
+                }
+            } catch (IOException e) {
+                drop(peer);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Peer peer = new Peer(channel);
+        peer.key = channel.register(selector, SelectionKey.OP_READ, peer);
+        peers.add(peer);
+        clientCount = peers.size();
+    }
+
+    private void drop(Peer peer) {
+        peers.remove(peer);
+        clientCount = peers.size();
+        if (peer.slot >= 0) {
+            drivers[peer.slot].bits = 0;
+            System.out.println("Driver for robot " + (peer.slot + 1) + " left");
+        }
+        peer.key.cancel();
+        try {
+            peer.channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    private void read(Peer peer) throws IOException {
+        if (peer.channel.read(peer.in) < 0) {
+            throw new IOException("Closed");
+        }
+        peer.in.flip();
+        while (peer.in.remaining() >= 5) {
+            int length = peer.in.getInt(peer.in.position());
+            byte type = peer.in.get(peer.in.position() + 4);
+            // Every client message has a fixed size; anything else is dropped with the peer
+            int payload = type == HELLO ? HELLO_BYTES : type == INPUT ? INPUT_BYTES : -1;
+            if (payload < 0 || length != 1 + payload) {
+                throw new IOException("Bad message: type " + type + ", length " + length);
+            }
+            if (peer.in.remaining() < 4 + length) {
+                break;
+            }
+            peer.in.position(peer.in.position() + 5);
+            if (type == HELLO) {
+                if (peer.in.getInt() != MAGIC || peer.in.getInt() != VERSION) {
+                    throw new IOException("Client speaks a different protocol");
+                }
+                if (peer.welcomed) {
+                    throw new IOException("Second hello");
+                }
+                welcome(peer);
+            } else {
+                queueInput(peer, peer.in.getInt(), peer.in.get());
+            }
+        }
+        peer.in.compact();
+    }
+
+    private void welcome(Peer peer) throws IOException {
+        for (int s = 0; s < world.robots.size() && peer.slot < 0; s++) {
+            boolean taken = false;
+            for (Peer p : peers) {
+                taken |= p.slot == s;
+            }
+            if (!taken) {
+                peer.slot = s;
+            }
+        }
+        if (peer.out.capacity() < 5 + WELCOME_BYTES + scenario.length) {
+            peer.out = ByteBuffer.allocate(5 + WELCOME_BYTES + scenario.length);
+        }
+        ByteBuffer out = peer.out;
+        out.putInt(1 + WELCOME_BYTES + scenario.length);
+        out.put(WELCOME);
+        out.putInt(peer.slot);
+        out.putInt((int)tick);
+        out.putInt(inputDelay);
+        out.putInt(world.robots.size());
+        out.putInt(scenario.length);
+        out.put(scenario);
+        peer.welcomed = true;
+        flush(peer);
+        System.out.println(peer.slot >= 0
+            ? "Driver for robot " + (peer.slot + 1) + " joined from " + peer.channel.getRemoteAddress()
+            : "Spectator joined from " + peer.channel.getRemoteAddress());
+    }
+
+    private void queueInput(Peer peer, int inputTick, int bits) {
+        if (peer.slot < 0) {
+            return;
+        }
+        if (inputTick <= tick) {
+            lateInputs++;
+        }
+        if (peer.changeCount == peer.changeTicks.length) {
+            // Flooded: fold the oldest change in now rather than grow without bound
+            drivers[peer.slot].bits = peer.changeBits[peer.changeHead];
+            peer.changeHead = (peer.changeHead + 1) % peer.changeTicks.length;
+            peer.changeCount--;
+        }
+        int at = (peer.changeHead + peer.changeCount) % peer.changeTicks.length;
+        peer.changeTicks[at] = inputTick;
+        peer.changeBits[at] = bits;
+        peer.changeCount++;
+    }
+
+    /**
+     * Apply inputs due, step the world, and send frames on frame ticks
+     */
+    private void step() {
+        long t = tick + 1;
+        for (Peer peer : peers) {
+            while (peer.changeCount > 0 && peer.changeTicks[peer.changeHead] <= t) {
+                drivers[peer.slot].bits = peer.changeBits[peer.changeHead];
+                peer.changeHead = (peer.changeHead + 1) % peer.changeTicks.length;
+                peer.changeCount--;
+            }
+        }
+        world.step(DT);
+        tick = t;
+        if (t % FRAME_TICKS == 0) {
+            broadcast();
+        }
+    }
+
+    private void broadcast() {
+        if (peers.isEmpty()) {
+            return;
+        }
+        int bodyCount = bodyCount(world);
+        if (state.length != bodyCount * FIELDS) {
+            state = new int[bodyCount * FIELDS];
+        }
+        quantize(world, state);
+
+        for (int i = 0; i < peers.size(); i++) {
+            Peer peer = peers.get(i);
+            if (!peer.welcomed) {
+                continue;
+            }
+            if (peer.out.position() > 0) {
+                framesSkipped++; // Still sending the last one; the next frame catches up
+                continue;
+            }
+            if (peer.sent.length != state.length) {
+                peer.sent = new int[state.length];
+                peer.full = true;
+            }
+            if (peer.full) {
+                Arrays.fill(peer.sent, 0);
+            }
+            int maxBytes = STATE_HEADER_BYTES + bodyCount * ENTRY_MAX_BYTES;
+            if (peer.out.capacity() < maxBytes) {
+                peer.out = ByteBuffer.allocate(maxBytes);
+            }
+
+            ByteBuffer out = peer.out;
+            out.putInt(0); // Length, filled in below
+            out.put(STATE);
+            out.putInt((int)tick);
+            out.put((byte)(peer.full ? 1 : 0));
+            out.putInt(bodyCount);
+            out.putInt(world.score);
+            out.putInt(world.delivered);
+            out.put((byte)world.robots.size());
+            for (int r = 0; r < world.robots.size(); r++) {
+                out.put((byte)drivers[r].bits);
+            }
+            int countAt = out.position();
+            out.putInt(0);
+            int entries = writeDelta(state, peer.sent, bodyCount, out);
+            out.putInt(countAt, entries);
+            out.putInt(0, out.position() - 4);
+            peer.full = false;
+            framesSent++;
+            try {
+                flush(peer);
+            } catch (IOException e) {
+                drop(peer);
+                i--;
+            }
+        }
+    }
+
+    /**
+     * Write as much pending output as the socket takes, and ask to be told when it
+     * can take the rest
+     */
+    private void flush(Peer peer) throws IOException {
+        ByteBuffer out = peer.out;
+        out.flip();
+        bytesSent += peer.channel.write(out);
+        out.compact();
+        int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (peer.key.interestOps() != ops) {
+            peer.key.interestOps(ops);
+        }
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getClientCount() {
+        return clientCount;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    /**
+     * Frames not sent because the client's socket was still busy with the last one
+     */
+    public long getFramesSkipped() {
+        return framesSkipped;
+    }
+
+    /**
+     * Inputs that arrived after the tick they were stamped for
+     */
+    public long getLateInputs() {
+        return lateInputs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Peer peer : new ArrayList<>(peers)) {
+            drop(peer);
+        }
+        server.close();
+        selector.close();
+    }
+}
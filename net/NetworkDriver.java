@@ -0,0 +1,22 @@
+package net;
+
+import objects.robot.RobotCommand;
+import objects.robot.RobotController;
+import objects.robot.RobotState;
+
+/**
+ * Drives one robot from packed input bits set by the match code before each tick
+ */
+class NetworkDriver implements RobotController {
+    int bits;
+
+    @Override
+    public void control(RobotState state, RobotCommand out) {
+        MatchProtocol.toCommand(bits, out);
+    }
+
+    @Override
+    public double period() {
+        return 0;
+    }
+}
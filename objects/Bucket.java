@@ -41,13 +41,29 @@ public class Bucket extends GameObject {
         }
     }
 
-    // Get collision bounds for walls
+    // Get collision bounds for walls (full width/height in w/h)
     public AABB getRightWall() {
-        return new AABB(x + innerW/2 + wall/2, y, wall, innerH + wall);
+        return getRightWall(new AABB(0, 0, 0, 0));
+    }
+
+    public AABB getRightWall(AABB out) {
+        return out.set(x + innerW/2 + wall/2, y, wall, innerH + wall);
     }
 
     public AABB getBottom() {
-        return new AABB(x, y - innerH/2 - wall/2, innerW + wall*2, wall);
+        return getBottom(new AABB(0, 0, 0, 0));
+    }
+
+    public AABB getBottom(AABB out) {
+        return out.set(x, y - innerH/2 - wall/2, innerW + wall*2, wall);
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
     }
 
     public boolean isInside(double px, double py) {
@@ -12,6 +12,8 @@ import ui.SpriteLoader;
  * Represents a cargo box that can be picked up by the robot
  */
 public class Cargo extends Body {
+    private static final double BUCKET_FRICTION = 0.9;
+
     private Color color;
     private BufferedImage sprite;
     private double spriteWidth;
@@ -39,85 +41,108 @@ public class Cargo extends Body {
             bounds.w = size;
             bounds.h = size;
         }
+        fixedRotation = false;
+        updateInertia();
+    }
+
+    /**
+     * Copy of another cargo box sharing its sprite, for simulation snapshots
+     */
+    public Cargo(Cargo src) {
+        super(src);
+        color = src.color;
+        sprite = src.sprite;
+        spriteWidth = src.spriteWidth;
+        spriteHeight = src.spriteHeight;
+    }
+
+    /**
+     * Sprite to draw, or null to use the drawn fallback
+     */
+    public BufferedImage getSprite() {
+        return sprite;
+    }
+
+    public Color getColor() {
+        return color;
     }
 
     @Override
-    protected void resolveGroundAndWalls(World world) {
+    public void resolveGroundAndWalls(World world) {
         super.resolveGroundAndWalls(world);
         // Check bucket collisions
-        if (world.bucket != null) {
-            // Check right wall
-            AABB rightWall = world.bucket.getRightWall();
+        StepContext c = world.stepContext;
+        if (c.hasBucket) {
+            // Check right wall (walls never rotate, so the enclosing box is enough)
+            double ex = extentX();
+            double ey = extentY();
             boolean collidingWithRightWall =
-                position.x - bounds.w < rightWall.x + rightWall.w/2 &&
-                position.x > rightWall.x - rightWall.w/2 &&
-                position.y + bounds.h > rightWall.y - rightWall.h/2 &&
-                position.y - bounds.h < rightWall.y + rightWall.h/2;
-
-            // Store previous state before collision response
-            double prevX = position.x;
+                position.x + ex > c.wallLeft &&
+                position.x - ex < c.wallRight &&
+                position.y + ey > c.wallBottom &&
+                position.y - ey < c.wallTop;
 
             if (collidingWithRightWall) {
-                // Move to just touching the wall
-                position.x = rightWall.x - rightWall.w/2 - bounds.w;
-
-                if (velocity.x > 0) {
-                    velocity.x *= -0.1; // More damping on bounces
-                }
-
-                // If this would put us through another object, restore position
-                if (position.x < prevX) {
-                    position.x = prevX;
-                    velocity.x = 0;
+                // Move to just touching the wall, on the side we came from
+                if (position.x < c.wallX) {
+                    position.x = c.wallLeft - ex;
+                    if (velocity.x > 0) {
+                        velocity.x *= -0.1; // More damping on bounces
+                    }
+                } else {
+                    position.x = c.wallRight + ex;
+                    if (velocity.x < 0) {
+                        velocity.x *= -0.1;
+                    }
                 }
             }
 
-            // Check bottom
-            AABB bottom = world.bucket.getBottom();
-            boolean collidingWithBottom =
-                position.x + bounds.w > bottom.x - bottom.w/2 &&
-                position.x - bounds.w < bottom.x + bottom.w/2 &&
-                position.y - bounds.h < bottom.y + bottom.h/2 &&
-                position.y + bounds.h > bottom.y - bottom.h/2; // Added vertical overlap check
-
-            double prevY = position.y;
-
-            if (collidingWithBottom) {
-                // Move to just above the bottom
-                position.y = bottom.y + bottom.h/2 + bounds.h;
+            // Rest on the bottom, with more friction to prevent sliding through
+            boolean collidingWithBottom = supportOnSegment(
+                c.floorLeft, c.floorTop, 1, 0, c.floorW,
+                c.floorH + 2 * extentY(), null, 0, BUCKET_FRICTION);
 
+            // Additional check to prevent escape through corners
+            if (collidingWithBottom && collidingWithRightWall) {
+                velocity.x *= 0.5; // Extra damping at corners
                 if (velocity.y < 0) {
                     velocity.y = 0;
-                    // Apply more friction when sitting in bucket to prevent sliding through
-                    velocity.x *= 0.90; // Increased friction
-                }
-
-                // If this would put us through another object, restore position
-                if (position.y < prevY) {
-                    position.y = prevY;
-                    velocity.y = 0;
                 }
             }
+        }
+        bounds.x = position.x;
+        bounds.y = position.y;
+    }
 
-            // Additional check to prevent escape through corners
-            if (collidingWithBottom && collidingWithRightWall) {
-                velocity.x *= 0.5; // Extra damping at corners
-                velocity.y = 0;
-            }
+    @Override
+    public void sweepObstacles(World world, Sweep sweep) {
+        super.sweepObstacles(world, sweep);
+        StepContext c = world.stepContext;
+        if (!c.hasBucket) {
+            return;
         }
+        // Bucket walls are given as full sizes
+        double ex = extentX();
+        double ey = extentY();
+        double dx = position.x - prevX;
+        double dy = position.y - prevY;
+        sweep.test(prevX, prevY, ex, ey, dx, dy, c.wallX, c.wallY, c.wallW / 2, c.wallH / 2, 0, 0);
+        sweep.test(prevX, prevY, ex, ey, dx, dy, c.floorX, c.floorY, c.floorW / 2, c.floorH / 2, 0, 0);
     }
 
     @Override
     public void draw(Graphics2D g) {
+        if (!active) {
+            return;
+        }
         Point screenPos = SimulationPanel.toScreen(position.x, position.y);
         int size = (int)(bounds.w * 2 * SimulationPanel.PPM);
 
         // Save original transform
         AffineTransform oldTransform = g.getTransform();
 
-        // Rotate slightly based on velocity for visual flair
-        double angle = Math.atan2(velocity.y, velocity.x) * 0.2;
-        g.rotate(angle, screenPos.x, screenPos.y);
+        // Screen Y points down, so world rotation is drawn clockwise
+        g.rotate(-angle, screenPos.x, screenPos.y);
 
         if (sprite != null) {
             // Draw sprite at native resolution
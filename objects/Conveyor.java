@@ -0,0 +1,95 @@
+package objects;
+
+import java.awt.*;
+import core.GameObject;
+import core.World;
+import ui.SimulationPanel;
+
+/**
+ * Endless cargo source for conveyor drills: drops a box at a fixed point at a steady
+ * rate, and removes boxes that have come to rest in the bucket, counting them as
+ * delivered. Boxes come from and go back to the world's cargo pool, so a drill can
+ * run indefinitely without allocating.
+ */
+public class Conveyor extends GameObject {
+    private static final double REST_SPEED = 0.2;  // Speed below which a box in the bucket counts as settled
+    private static final double CLEARANCE = 0.7;   // Spawn waits while a box is this close to the drop point
+
+    public final double x;         // Drop point
+    public final double y;
+    public final double vx;        // Velocity boxes are launched with
+    public final double vy;
+    public final double interval;  // Seconds between boxes
+    public final int maxActive;    // Boxes in play at most; the drill waits while full
+
+    private double timer = 0;
+    private long spawned = 0;
+    private long skipped = 0;      // Drops missed because the field was full or the drop point blocked
+
+    public Conveyor(double x, double y, double vx, double vy, double interval, int maxActive) {
+        this.x = x;
+        this.y = y;
+        this.vx = vx;
+        this.vy = vy;
+        this.interval = interval;
+        this.maxActive = maxActive;
+    }
+
+    /**
+     * Remove settled boxes from the bucket and drop a new box when one is due
+     */
+    public void step(World world, double dt) {
+        Cargo[] cargos = world.components.cargos;
+        boolean blocked = false;
+        for (Cargo c : cargos) {
+            if (!c.active) {
+                continue;
+            }
+            if (world.bucket != null && world.bucket.isInside(c.position.x, c.position.y) &&
+                Math.abs(c.velocity.x) < REST_SPEED && Math.abs(c.velocity.y) < REST_SPEED) {
+                world.despawnCargo(c);
+                world.delivered++;
+                continue;
+            }
+            if (Math.abs(c.position.x - x) < CLEARANCE && Math.abs(c.position.y - y) < CLEARANCE) {
+                blocked = true;
+            }
+        }
+
+        timer -= dt;
+        if (timer > 0) {
+            return;
+        }
+        timer += interval;
+        if (blocked || world.getActiveCargo() >= maxActive) {
+            skipped++;
+            return;
+        }
+        Cargo c = world.spawnCargo(x, y);
+        c.velocity.x = vx;
+        c.velocity.y = vy;
+        spawned++;
+    }
+
+    public long getSpawned() {
+        return spawned;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public void update(World world, double dt) {
+        // Stepped by the conveyor system
+    }
+
+    @Override
+    public void draw(Graphics2D g) {
+        // Chute above the drop point
+        g.setColor(new Color(90, 90, 100));
+        SimulationPanel.drawRectCenter(g, x, y + 0.45, 0.8, 0.1, true);
+        SimulationPanel.drawRectCenter(g, x - 0.4, y + 0.65, 0.08, 0.5, true);
+        SimulationPanel.drawRectCenter(g, x + 0.4, y + 0.65, 0.08, 0.5, true);
+    }
+}
@@ -0,0 +1,189 @@
+package objects.robot;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import core.World;
+
+/**
+ * Runs a {@link RobotController} for one robot.
+ *
+ * Inline controllers (period 0) are called on the simulation thread each tick.
+ * In synchronous mode (headless batch runs) periodic controllers are also called on
+ * the simulation thread, once per period, so runs are reproducible.
+ * Otherwise controllers get their own thread (a virtual thread where the JVM supports
+ * them). Every period the simulation posts a state snapshot to the controller's
+ * inbox; the controller answers through an outbox that the simulation drains each
+ * tick. Both mailboxes are bounded and backed by preallocated pools, and the
+ * simulation side only ever uses non-blocking offer/poll. If the controller falls
+ * behind, new observations are dropped and counted instead of queuing up, and the
+ * robot keeps its last command.
+ */
+public class ControlLoop implements AutoCloseable {
+    private static final int POOL_SIZE = 4;
+    private static final long CLOSE_TIMEOUT_MS = 1000; // Longest wait for a controller's last cycle
+
+    private final RobotController controller;
+    private final Robot robot;
+    private final double period;
+    private final boolean synchronous;
+    private double accumulator = 0;
+
+    // Inline mode
+    private final RobotState inlineState = new RobotState();
+
+    // Threaded mode
+    private final ArrayBlockingQueue<RobotState> freeStates = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final ArrayBlockingQueue<RobotState> inbox = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final ArrayBlockingQueue<RobotCommand> freeCommands = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final ArrayBlockingQueue<RobotCommand> outbox = new ArrayBlockingQueue<>(POOL_SIZE);
+    private Thread thread;
+    private volatile boolean closed = false;
+    private volatile long droppedObservations = 0;
+
+    /**
+     * Attach a controller to a robot
+     * @param synchronous Run periodic controllers on the simulation thread instead of their own
+     */
+    public ControlLoop(RobotController controller, Robot robot, String name, boolean synchronous) {
+        this.controller = controller;
+        this.robot = robot;
+        this.period = controller.period();
+        this.synchronous = synchronous;
+        controller.bind(robot);
+        if (period > 0 && !synchronous) {
+            for (int i = 0; i < POOL_SIZE; i++) {
+                freeStates.add(new RobotState());
+                freeCommands.add(new RobotCommand());
+            }
+            thread = newControllerThread(this::runController, name);
+            thread.start();
+        }
+    }
+
+    public RobotController getController() {
+        return controller;
+    }
+
+    /**
+     * Simulation side: exchange observations and commands for this tick
+     */
+    public void tick(World world, Robot robot, double dt) {
+        if (period <= 0) {
+            controller.observe(world, robot);
+            inlineState.capture(world, robot);
+            controller.control(inlineState, robot.command);
+            return;
+        }
+
+        if (synchronous) {
+            accumulator += dt;
+            if (accumulator >= period) {
+                accumulator -= period;
+                controller.observe(world, robot);
+                inlineState.capture(world, robot);
+                controller.control(inlineState, robot.command);
+            }
+            return;
+        }
+
+        // Apply the newest command the controller has produced
+        RobotCommand cmd;
+        while ((cmd = outbox.poll()) != null) {
+            robot.command.copyFrom(cmd);
+            freeCommands.offer(cmd);
+        }
+
+        // Post an observation once per control period
+        accumulator += dt;
+        if (accumulator >= period) {
+            accumulator -= period;
+            RobotState state = freeStates.poll();
+            if (state == null) {
+                droppedObservations++; // Controller still busy with earlier cycles
+            } else {
+                controller.observe(world, robot);
+                state.capture(world, robot);
+                inbox.offer(state);
+            }
+        }
+    }
+
+    /**
+     * Controller thread: answer observations until closed
+     */
+    private void runController() {
+        RobotCommand current = new RobotCommand();
+        try {
+            while (!closed) {
+                RobotState state = inbox.take();
+                // Skip to the newest observation if several queued up
+                RobotState newer;
+                while ((newer = inbox.poll()) != null) {
+                    freeStates.offer(state);
+                    state = newer;
+                }
+
+                controller.control(state, current);
+                freeStates.offer(state);
+
+                RobotCommand reply = freeCommands.take();
+                reply.copyFrom(current);
+                if (!outbox.offer(reply)) {
+                    freeCommands.offer(reply);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        } catch (RuntimeException e) {
+            System.err.println("Robot controller failed: " + Thread.currentThread().getName());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Observations dropped because the controller hadn't caught up
+     */
+    public long getDroppedObservations() {
+        return droppedObservations;
+    }
+
+    /**
+     * Stop the controller thread, waiting for a cycle in progress to finish, then
+     * unbind. A controller can be attached again (e.g. on a reset) as soon as this
+     * returns without two threads running it.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(CLOSE_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                System.err.println("Robot controller still running after close: " + thread.getName());
+            }
+        }
+        controller.unbind(robot);
+    }
+
+    /**
+     * Create a virtual thread if the running JVM supports them, otherwise a daemon platform thread
+     */
+    private static Thread newControllerThread(Runnable task, String name) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class).invoke(builder, name);
+            return (Thread) builderClass.getMethod("unstarted", Runnable.class).invoke(builder, task);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Thread t = new Thread(task, name);
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package objects.robot;
+
+import core.World;
+import physics.*;
+
+/**
+ * The lift mast: a carriage sliding up the front of the chassis on a prismatic joint,
+ * and the forks pinned to the carriage by a revolute joint at the fork heel.
+ *
+ * The lift and tilt motors drive the joints toward a speed with limited force and
+ * torque. Contacts of cargo resting on the forks are solved together with the joints,
+ * and the lift's force falls off with speed, so a load slows the lift and a heavy
+ * enough one stalls it.
+ */
+public class Mast {
+    private static final double CARRIAGE_MASS = 4.0;   // kg
+    private static final double FORKS_MASS = 2.0;      // kg
+    private static final double FORK_HALF_THICKNESS = 0.05;
+    private static final double LIFT_MAX_FORCE = 600;  // N, at stall
+    private static final double LIFT_FREE_SPEED = 0.85; // m/s, a little above full command
+    private static final double TILT_MAX_TORQUE = 400; // N*m
+    private static final double MIN_TILT_DEG = -15;
+    private static final double MAX_TILT_DEG = 35;
+
+    public final Body carriage;
+    public final Body forks;
+    public final PrismaticJoint liftJoint;
+    public final RevoluteJoint tiltJoint;
+
+    private final Robot robot;
+    private final JointSolver solver;
+
+    /**
+     * @param anchorX Fork heel at zero lift, relative to the chassis center
+     * @param anchorY Fork heel at zero lift, relative to the chassis center
+     */
+    public Mast(Robot robot, double anchorX, double anchorY, double minLift, double maxLift, double forkLength) {
+        this.robot = robot;
+        double heelX = robot.position.x + anchorX;
+        double heelY = robot.position.y + anchorY;
+
+        carriage = new Body(heelX, heelY, 0.05, 0.05, CARRIAGE_MASS, false);
+        forks = new Body(heelX + forkLength / 2, heelY, forkLength / 2, FORK_HALF_THICKNESS, FORKS_MASS, false);
+        forks.fixedRotation = false;
+        forks.updateInertia();
+
+        liftJoint = new PrismaticJoint(robot, carriage, anchorX, anchorY, 0, 1, minLift, maxLift, LIFT_MAX_FORCE);
+        liftJoint.kinematicA = true; // The chassis is far heavier and the ground holds it up
+        liftJoint.freeSpeed = LIFT_FREE_SPEED;
+        tiltJoint = new RevoluteJoint(carriage, forks, 0, 0, -forkLength / 2, 0,
+            Math.toRadians(MIN_TILT_DEG), Math.toRadians(MAX_TILT_DEG), TILT_MAX_TORQUE);
+        solver = new JointSolver(new Body[] { carriage, forks }, new Joint[] { tiltJoint, liftJoint });
+    }
+
+    /**
+     * Solve the joints for one step and update the robot's lift and tilt readouts
+     */
+    public void step(World world, double dt) {
+        solver.step(world, dt);
+        robot.lift = liftJoint.getTranslation();
+        robot.tiltDeg = Math.toDegrees(tiltJoint.getAngle());
+    }
+
+    /**
+     * Weight carried by the lift beyond the carriage and forks themselves, in Newtons
+     * (includes the force needed to accelerate the load while the lift moves)
+     */
+    public double getLoad(World world) {
+        return liftJoint.getAxialForce() + (CARRIAGE_MASS + FORKS_MASS) * world.gravity;
+    }
+
+    /**
+     * Copy body and joint state from another robot's mast without allocating
+     */
+    public void copyStateFrom(Mast src) {
+        carriage.copyStateFrom(src.carriage);
+        forks.copyStateFrom(src.forks);
+        liftJoint.copyStateFrom(src.liftJoint);
+        tiltJoint.copyStateFrom(src.tiltJoint);
+    }
+}
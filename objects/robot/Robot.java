@@ -5,10 +5,7 @@ import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import physics.*;
 import core.*;
-import objects.robot.subsystems.Brakes;
-import objects.robot.subsystems.DriveMotor;
-import objects.robot.subsystems.LiftMotor;
-import objects.robot.subsystems.TiltMotor;
+import objects.robot.subsystems.*;
 import ui.SimulationPanel;
 import ui.SpriteLoader;
 
@@ -28,25 +25,49 @@ public class Robot extends Body {
     private double forksWidth = 6.0;    // Default forks width
     private double forksHeight = 3.0;   // Default forks height
 
-    // Actuated state
+    // Lift and tilt as read back from the mast joints after each step
     public double lift = 0.0;
     public double tiltDeg = 0.0;
 
-    // Performance characteristics
-    private final double driveForce = 20.0; // N (reduced for better control)
-    private final double liftRate = 0.1; // m/s (reduced for better control)
-    private final double tiltRate = 15.0; // deg/s (reduced for better control)
+    // Carriage and forks, jointed to the chassis
+    public Mast mast;
+
+    // Performance characteristics (tunable while running, see telemetry.SimTuning)
+    public double driveForce = 20.0; // N (reduced for better control)
+    public double liftRate = 0.1; // m/s (reduced for better control)
+    public double tiltRate = 15.0; // deg/s (reduced for better control)
+    public double brakeForce = 100.0; // N while braking
 
     public DriveMotor driveMotor = new DriveMotor(this);
     public Brakes brakes = new Brakes(this);
     public LiftMotor liftMotor = new LiftMotor(this);
     public TiltMotor tiltMotor = new TiltMotor(this);
 
-    public GameObject[] mechanisms = { driveMotor, brakes, liftMotor, tiltMotor};
+    // Slot in the world's robot list; seeds this robot's sensor noise
+    public final int index;
+
+    // Sensors (sampled after the robot moves each tick)
+    public FrontDistSensor frontDistSensor;
+    public DriveEncoder driveEncoder;
+    public LiftEncoder liftEncoder;
+    public TiltPotentiometer tiltPot;
+    public ForkLoadCell forkLoadCell;
+
+    public GameObject[] actuators;
+    public GameObject[] mechanisms;
+
+    // Current operator set-points and the control source producing them
+    public final RobotCommand command = new RobotCommand();
+    public ControlLoop control;
 
-    public Robot(double x, double y) {
+    /**
+     * @param index Slot in the world's robot list
+     */
+    public Robot(double x, double y, int index) {
         // Start with default size, will update with sprite sizes
         super(x, y, 6, 2, 60, false);
+        this.index = index;
+        initMechanisms();
 
         // Load sprites and adjust dimensions
         SpriteLoader.SpriteInfo baseInfo = SpriteLoader.getSprite("robot_base");
@@ -73,84 +94,96 @@ public class Robot extends Body {
             forksHeight = forksInfo.heightMeters;
             forkLength = forksWidth;
         }
+
+        mast = new Mast(this, bounds.w - 0.1, bounds.h, minLiftHeight, mastHeight, forkLength);
     }
 
-    @Override
-    public void update(World world, double dt) {
-        // Drive commands
-        applyDrive(world, dt);
-        // Mechanism updates
-        applyLift(world, dt);
-        applyTilt(world, dt);
+    /**
+     * Copy of another robot sharing its sprites and dimensions, for simulation
+     * snapshots. Does not touch SpriteLoader; the copy has no controller.
+     */
+    public Robot(Robot src) {
+        super(src);
+        index = src.index;
+        maxLiftHeight = src.maxLiftHeight;
+        forkLength = src.forkLength;
+        robotSprite = src.robotSprite;
+        mastSprite = src.mastSprite;
+        forksSprite = src.forksSprite;
+        baseWidth = src.baseWidth;
+        baseHeight = src.baseHeight;
+        mastWidth = src.mastWidth;
+        mastHeight = src.mastHeight;
+        minLiftHeight = src.minLiftHeight;
+        forksWidth = src.forksWidth;
+        forksHeight = src.forksHeight;
+        initMechanisms();
+        mast = new Mast(this, bounds.w - 0.1, bounds.h, minLiftHeight, mastHeight, forkLength);
+        copyStateFrom(src);
+    }
 
-        // Physics update
-        super.update(world, dt);
-        // Simulate boundaries
-        lift = clamp(lift, minLiftHeight, mastHeight);
-        tiltDeg = clamp(tiltDeg, -15, 35);
+    private void initMechanisms() {
+        frontDistSensor = new FrontDistSensor(this);
+        driveEncoder = new DriveEncoder(this);
+        liftEncoder = new LiftEncoder(this);
+        tiltPot = new TiltPotentiometer(this);
+        forkLoadCell = new ForkLoadCell(this);
+        actuators = new GameObject[] { driveMotor, brakes, liftMotor, tiltMotor };
+        mechanisms = new GameObject[] {
+            driveMotor, brakes, liftMotor, tiltMotor,
+            frontDistSensor, driveEncoder, liftEncoder, tiltPot, forkLoadCell
+        };
     }
 
-    public void applyDrive(World world, double dt) {
-        if (SimulationPanel.input.left) {
-            driveMotor.setPower(-driveForce);
-        } else if (SimulationPanel.input.right) {
-            driveMotor.setPower(driveForce);
-        } else {
-            driveMotor.setPower(0);
-        }
+    /**
+     * Overwrite this robot's physical and actuator state and tuning with another's
+     * without allocating. Sensor histories are not copied.
+     */
+    public void copyStateFrom(Robot src) {
+        super.copyStateFrom(src);
+        lift = src.lift;
+        tiltDeg = src.tiltDeg;
+        mast.copyStateFrom(src.mast);
+        command.copyFrom(src.command);
+        driveMotor.copyStateFrom(src.driveMotor);
+        liftMotor.copyStateFrom(src.liftMotor);
+        tiltMotor.copyStateFrom(src.tiltMotor);
+        brakes.setBrakeForce(src.brakes.getBrakeForce());
+        // Tuning too, so predictions use the rates the real robot has now
+        driveForce = src.driveForce;
+        liftRate = src.liftRate;
+        tiltRate = src.tiltRate;
+        brakeForce = src.brakeForce;
+    }
 
-        if (SimulationPanel.input.brake) {
-            brakes.setBrakeForce(100);
-        } else {
-            brakes.setBrakeForce(0);
-        }
+    public void applyDrive(World world, double dt) {
+        driveMotor.setPower(clamp(command.drive, -1, 1) * driveForce);
+        brakes.setBrakeForce(command.brake ? brakeForce : 0);
     }
 
     public void applyLift(World world, double dt) {
-        if (SimulationPanel.input.liftUp) {
-            liftMotor.setPower(liftRate);
-        } else if (SimulationPanel.input.liftDown) {
-            liftMotor.setPower(-liftRate);
-        } else {
-            liftMotor.setPower(0);
-        }
+        liftMotor.setPower(clamp(command.lift, -1, 1) * liftRate);
     }
 
     public void applyTilt(World world, double dt) {
-        if (SimulationPanel.input.tiltFwd) {
-            tiltMotor.setPower(-tiltRate);
-        } else if (SimulationPanel.input.tiltBack) {
-            tiltMotor.setPower(tiltRate);
-        } else {
-            tiltMotor.setPower(0);
-        }
+        tiltMotor.setPower(clamp(command.tilt, -1, 1) * tiltRate);
     }
 
-    private Vec2 getForkBaseWorld() {
-        double frontX = position.x + bounds.w - 0.1; // Moved back to align with mast
-        double baseY = position.y + bounds.h;
-        return new Vec2(frontX, baseY + lift);
+    public double getForkLength() {
+        return forkLength;
     }
 
     public Vec2 getForkTipWorld() {
-        Vec2 base = getForkBaseWorld();
-        double rad = Math.toRadians(tiltDeg);
-        double dx = Math.cos(rad) * forkLength;
-        double dy = Math.sin(rad) * forkLength;
-        return new Vec2(base.x + dx, base.y + dy);
+        return getForkTipWorld(new Vec2());
     }
 
-    public AABB getForkPickupZone() {
-        Vec2 tip = getForkTipWorld();
-        // Zone starts from 70% of the way to the tip to ensure cargo is well-supported
-        double zoneStart = tip.x - forkLength * 0.3;
-        double zoneY = tip.y;
-        return new AABB(zoneStart, zoneY, 0.2, 0.05); // Smaller zone for more precise pickup
-    }
-
-    @Override
-    protected void resolveGroundAndWalls(World world) {
-        super.resolveGroundAndWalls(world);
+    /**
+     * Center of the fork blade's tip end, written into out
+     */
+    public Vec2 getForkTipWorld(Vec2 out) {
+        Body forks = mast.forks;
+        out.set(Math.cos(forks.angle), Math.sin(forks.angle));
+        return out.addScaled(forks.position, out, forks.bounds.w);
     }
 
     public Vec2 getVelocity() {
@@ -163,13 +196,23 @@ public class Robot extends Body {
 
     @Override
     public void draw(Graphics2D g) {
+        drawPose(g, position.x, position.y, mast.carriage.position.x, mast.carriage.position.y, tiltDeg);
+    }
+
+    /**
+     * Draw this robot at a given pose (e.g. one captured for the render thread)
+     *
+     * @param baseX Fork heel (carriage) position
+     * @param baseY Fork heel (carriage) position
+     */
+    public void drawPose(Graphics2D g, double x, double y, double baseX, double baseY, double tiltDeg) {
         // Save original transform for each sprite
         AffineTransform oldTransform = g.getTransform();
 
         if (robotSprite != null && mastSprite != null && forksSprite != null) {
             // Draw base
             // Draw robot base at native resolution
-            Point basePos = SimulationPanel.toScreen(position.x, position.y);
+            Point basePos = SimulationPanel.toScreen(x, y);
             g.drawImage(robotSprite,
                 basePos.x - (int)(baseWidth * SimulationPanel.PPM / 2),
                 basePos.y - (int)(baseHeight * SimulationPanel.PPM / 2),
@@ -177,7 +220,7 @@ public class Robot extends Body {
                 (int)(baseHeight * SimulationPanel.PPM), null);
 
             // Draw mast at native resolution
-            Point mastPos = SimulationPanel.toScreen(position.x + bounds.w - mastWidth/2, position.y + bounds.h + mastHeight/2);
+            Point mastPos = SimulationPanel.toScreen(x + bounds.w - mastWidth/2, y + bounds.h + mastHeight/2);
             g.drawImage(mastSprite,
                 mastPos.x - (int)(mastWidth * SimulationPanel.PPM / 2),
                 mastPos.y - (int)(mastHeight * SimulationPanel.PPM / 2),
@@ -185,8 +228,7 @@ public class Robot extends Body {
                 (int)(mastHeight * SimulationPanel.PPM), null);
 
             // Draw forks with rotation
-            Vec2 base = getForkBaseWorld();
-            Point forkPos = SimulationPanel.toScreen(base.x, base.y);
+            Point forkPos = SimulationPanel.toScreen(baseX, baseY);
             double rad = Math.toRadians(-tiltDeg); // Negative for correct rotation direction
 
             // Setup fork rotation
@@ -207,14 +249,13 @@ public class Robot extends Body {
             // Fallback to drawn graphics
             // Draw chassis
             g.setColor(new Color(40, 120, 200));
-            SimulationPanel.drawRectCenter(g, position.x, position.y, bounds.w * 2, bounds.h * 2, true);
+            SimulationPanel.drawRectCenter(g, x, y, bounds.w * 2, bounds.h * 2, true);
             g.setColor(Color.BLACK);
-            SimulationPanel.drawRectCenter(g, position.x, position.y, bounds.w * 2, bounds.h * 2, false);
+            SimulationPanel.drawRectCenter(g, x, y, bounds.w * 2, bounds.h * 2, false);
 
             // Draw mast
-            Vec2 base = getForkBaseWorld();
             g.setColor(new Color(60, 60, 60));
-            SimulationPanel.drawRectCenter(g, base.x - 0.7, position.y + bounds.h + mastHeight/2, 1.4, mastHeight, true);
+            SimulationPanel.drawRectCenter(g, baseX - 0.7, y + bounds.h + mastHeight/2, 1.4, mastHeight, true);
 
             // Draw forks
             double rad = Math.toRadians(tiltDeg);
@@ -224,10 +265,46 @@ public class Robot extends Body {
             g.setStroke(new BasicStroke(3));
             g.setColor(new Color(90, 60, 20));
 
-            drawLine(g, base.x, base.y + 0.3,
-                       base.x + dx * forkLength,
-                       base.y + 0.3 + dy * forkLength);
+            drawLine(g, baseX, baseY + 0.3,
+                       baseX + dx * forkLength,
+                       baseY + 0.3 + dy * forkLength);
+        }
+    }
+
+    /**
+     * Screen rectangle that {@link #drawPose} touches at a given pose, with a few
+     * pixels to spare for antialiasing. The rotated forks are bounded by a square.
+     */
+    public void drawBounds(double x, double y, double baseX, double baseY, double tiltDeg, Rectangle out) {
+        int ppm = SimulationPanel.PPM;
+        int sx = SimulationPanel.screenX(x);
+        int sy = SimulationPanel.screenY(y);
+        int forkX;
+        int forkY;
+        int forkReach;
+        if (robotSprite != null && mastSprite != null && forksSprite != null) {
+            out.setBounds(sx - (int)(baseWidth * ppm / 2), sy - (int)(baseHeight * ppm / 2),
+                (int)(baseWidth * ppm), (int)(baseHeight * ppm));
+            int mx = SimulationPanel.screenX(x + bounds.w - mastWidth/2);
+            int my = SimulationPanel.screenY(y + bounds.h + mastHeight/2);
+            out.add(mx - (int)(mastWidth * ppm / 2), my - (int)(mastHeight * ppm / 2));
+            out.add(mx + (int)(mastWidth * ppm / 2), my + (int)(mastHeight * ppm / 2));
+            forkX = SimulationPanel.screenX(baseX);
+            forkY = SimulationPanel.screenY(baseY);
+            forkReach = (int)((forksWidth + forksHeight) * ppm);
+        } else {
+            int w = (int)(bounds.w * 2 * ppm);
+            int h = (int)(bounds.h * 2 * ppm);
+            out.setBounds(sx - w/2, sy - h/2, w, h);
+            out.add(SimulationPanel.screenX(baseX - 1.4), SimulationPanel.screenY(y + bounds.h + mastHeight));
+            out.add(SimulationPanel.screenX(baseX), SimulationPanel.screenY(y + bounds.h));
+            forkX = SimulationPanel.screenX(baseX);
+            forkY = SimulationPanel.screenY(baseY + 0.3);
+            forkReach = (int)(forkLength * ppm);
         }
+        out.add(forkX - forkReach, forkY - forkReach);
+        out.add(forkX + forkReach, forkY + forkReach);
+        out.grow(3, 3);
     }
 
     private void drawLine(Graphics2D g, double x1, double y1, double x2, double y2) {
@@ -0,0 +1,38 @@
+package objects.robot;
+
+import core.Input;
+
+/**
+ * Operator set-points for one robot, each normalised to [-1, 1].
+ * The robot scales these by its drive/lift/tilt rates every tick.
+ */
+public class RobotCommand {
+    public double drive;    // -1 = full left, 1 = full right
+    public double lift;     // -1 = down, 1 = up
+    public double tilt;     // -1 = tilt forward, 1 = tilt back
+    public boolean brake;
+
+    /**
+     * Map the keyboard state onto this command
+     */
+    public void setFromInput(Input input) {
+        drive = input.left ? -1 : input.right ? 1 : 0;
+        lift = input.liftUp ? 1 : input.liftDown ? -1 : 0;
+        tilt = input.tiltFwd ? -1 : input.tiltBack ? 1 : 0;
+        brake = input.brake;
+    }
+
+    public void copyFrom(RobotCommand other) {
+        drive = other.drive;
+        lift = other.lift;
+        tilt = other.tilt;
+        brake = other.brake;
+    }
+
+    public void clear() {
+        drive = 0;
+        lift = 0;
+        tilt = 0;
+        brake = false;
+    }
+}
@@ -0,0 +1,53 @@
+package objects.robot;
+
+import core.World;
+
+/**
+ * Control source for one robot: turns observations into set-points.
+ *
+ * Controllers with a positive {@link #period()} run on their own thread and trade
+ * observations and commands with the simulation through bounded mailboxes, so a slow
+ * controller only delays its own robot's commands and never stalls physics. A period
+ * of 0 means the controller is a cheap, non-blocking source (keyboard, dashboard) that
+ * is called on the simulation thread every physics tick.
+ */
+public interface RobotController {
+    /**
+     * Compute set-points from the latest observation
+     * @param state Robot state at the start of this control cycle
+     * @param out Command to update; holds the previous cycle's set-points on entry
+     */
+    void control(RobotState state, RobotCommand out);
+
+    /**
+     * Called on the simulation thread when the controller is attached to a robot,
+     * before any call to {@link #control}. Controllers that need the robot's
+     * subsystems (e.g. as command requirements) can look them up here.
+     */
+    default void bind(Robot robot) {
+    }
+
+    /**
+     * Called on the simulation thread when the controller is detached from a robot
+     * (replaced, or the world was reset). It may be bound again afterwards.
+     */
+    default void unbind(Robot robot) {
+    }
+
+    /**
+     * Called on the simulation thread each time an observation is taken for this
+     * controller, just before the matching {@link #control} call is scheduled.
+     * Controllers that need more than {@link RobotState} (e.g. a planner that
+     * simulates the whole field) can snapshot the world here; it must not be
+     * touched from {@link #control}, which may run on another thread.
+     */
+    default void observe(World world, Robot robot) {
+    }
+
+    /**
+     * Control period in seconds, or 0 to run inline every physics tick
+     */
+    default double period() {
+        return 0.02; // 50 Hz, like a real robot controller
+    }
+}
@@ -0,0 +1,41 @@
+package objects.robot;
+
+import core.World;
+
+/**
+ * Snapshot of what a controller can observe about its robot.
+ * Captured on the simulation thread and handed to controllers by value.
+ */
+public class RobotState {
+    public int robotIndex;
+    public double time;
+    public double x, y;
+    public double vx, vy;
+    public double lift;
+    public double tiltDeg;
+    public int score;
+
+    // Sensor readings (latest sample visible to the robot code)
+    public double frontDistance;
+    public double driveDistance;
+    public double liftHeight;
+    public double tiltAngleDeg;
+    public double forkLoad;
+
+    public void capture(World world, Robot robot) {
+        robotIndex = world.robots.indexOf(robot);
+        time = world.timeSec;
+        x = robot.position.x;
+        y = robot.position.y;
+        vx = robot.velocity.x;
+        vy = robot.velocity.y;
+        lift = robot.lift;
+        tiltDeg = robot.tiltDeg;
+        score = world.score;
+        frontDistance = robot.frontDistSensor.getDistance();
+        driveDistance = robot.driveEncoder.getDistance();
+        liftHeight = robot.liftEncoder.getHeight();
+        tiltAngleDeg = robot.tiltPot.getAngleDeg();
+        forkLoad = robot.forkLoadCell.getLoad();
+    }
+}
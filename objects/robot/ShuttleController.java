@@ -0,0 +1,27 @@
+package objects.robot;
+
+/**
+ * Simple practice opponent: drives back and forth between two x positions,
+ * braking at each end.
+ */
+public class ShuttleController implements RobotController {
+    private final double minX;
+    private final double maxX;
+    private boolean headingRight = true;
+
+    public ShuttleController(double minX, double maxX) {
+        this.minX = minX;
+        this.maxX = maxX;
+    }
+
+    @Override
+    public void control(RobotState state, RobotCommand out) {
+        double target = headingRight ? maxX : minX;
+        double error = target - state.x;
+        if (Math.abs(error) < 0.3) {
+            headingRight = !headingRight;
+        }
+        out.drive = Math.max(-1, Math.min(1, error));
+        out.brake = Math.abs(error) < 0.6 && Math.abs(state.vx) > 0.5;
+    }
+}
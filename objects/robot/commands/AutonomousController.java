@@ -0,0 +1,64 @@
+package objects.robot.commands;
+
+import java.util.function.Function;
+import objects.robot.Robot;
+import objects.robot.RobotCommand;
+import objects.robot.RobotController;
+import objects.robot.RobotState;
+
+/**
+ * Robot controller that runs a command-based routine at the 50 Hz control rate.
+ * The routine is built for the robot when the controller is bound to it and
+ * scheduled on the first control cycle; binding again (on a reset) drops the old one.
+ * Binding happens on the simulation thread while the routine runs on the control
+ * thread, so both go through this object's lock.
+ */
+public class AutonomousController implements RobotController {
+    private final Function<Robot, Command> routineFactory;
+    private final CommandScheduler scheduler = new CommandScheduler();
+    private Command routine;
+    private boolean started = false;
+
+    public AutonomousController(Function<Robot, Command> routineFactory) {
+        this.routineFactory = routineFactory;
+    }
+
+    @Override
+    public synchronized void bind(Robot robot) {
+        // The old routine's commands end into a throwaway command; the next cycle sets the real one
+        scheduler.cancelAll(new RobotCommand());
+        scheduler.setRobot(robot);
+        routine = routineFactory.apply(robot);
+        started = false;
+    }
+
+    @Override
+    public synchronized void unbind(Robot robot) {
+        scheduler.cancelAll(new RobotCommand());
+        routine = null;
+        started = false;
+    }
+
+    @Override
+    public synchronized void control(RobotState state, RobotCommand out) {
+        if (routine == null) {
+            return; // Unbound; a last cycle from the old control thread
+        }
+        if (!started) {
+            scheduler.schedule(routine, state, out);
+            started = true;
+        }
+        scheduler.run(state, out);
+    }
+
+    public CommandScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Whether the routine has run to completion
+     */
+    public synchronized boolean isDone() {
+        return started && !scheduler.isScheduled(routine);
+    }
+}
@@ -0,0 +1,46 @@
+package objects.robot.commands;
+
+import objects.robot.Robot;
+
+/**
+ * Autonomous routines for the default field layout.
+ */
+public class Autos {
+    /**
+     * Pick up the cargo box at the default layout's pickup spot (the first box in
+     * front of the starting robot) and set it down in the bucket
+     */
+    public static Command scorePresetCargo(Robot robot) {
+        return new SequentialCommandGroup(
+            // Forks level and raised clear of the boxes
+            new ParallelCommandGroup(
+                new SetLift(robot, LIFT_CLEAR, 0.03),
+                new SetTilt(robot, 0, 2)
+            ),
+            // Park with the forks over the first box
+            new DriveToPosition(robot, PICKUP_X, 0.05),
+            // Lower onto it so it ends up sitting on the forks
+            new SetLift(robot, LIFT_FLOOR, 0.03),
+            // Raise it above the bucket rim, tilting back a little
+            new ParallelCommandGroup(
+                new SetLift(robot, LIFT_CARRY, 0.03),
+                new SetTilt(robot, 5, 2)
+            ),
+            // Carry it over the bucket, set it down and back away
+            new DriveToPosition(robot, DUMP_X, 0.1, 0.4),
+            new ParallelCommandGroup(
+                new SetLift(robot, LIFT_RELEASE, 0.03),
+                new SetTilt(robot, 0, 2)
+            ),
+            new DriveToPosition(robot, PICKUP_X, 0.2)
+        );
+    }
+
+    // Field positions for the default layout (robot center x, lift heights)
+    private static final double LIFT_FLOOR = -0.4;
+    private static final double LIFT_CLEAR = 0.5;
+    private static final double LIFT_CARRY = 1.2;
+    private static final double LIFT_RELEASE = 0.7;
+    private static final double PICKUP_X = 9.0;
+    private static final double DUMP_X = 14.9;
+}
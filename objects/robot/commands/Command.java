@@ -0,0 +1,58 @@
+package objects.robot.commands;
+
+import objects.robot.RobotCommand;
+import objects.robot.RobotState;
+import objects.robot.subsystems.Subsystem;
+
+/**
+ * A unit of robot behaviour run by a {@link CommandScheduler}.
+ *
+ * Lifecycle: {@link #initialize} once when scheduled, then {@link #execute} every
+ * control cycle until {@link #isFinished} returns true or the command is interrupted,
+ * then {@link #end}. Commands write set-points into the {@link RobotCommand} only for
+ * the subsystems they require.
+ */
+public abstract class Command {
+    private final Subsystem[] requirements;
+
+    protected Command(Subsystem... requirements) {
+        this.requirements = requirements;
+    }
+
+    public Subsystem[] getRequirements() {
+        return requirements;
+    }
+
+    public boolean requires(Subsystem subsystem) {
+        for (Subsystem s : requirements) {
+            if (s == subsystem) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called once when the command starts
+     */
+    public void initialize(RobotState state) {
+    }
+
+    /**
+     * Called every control cycle while the command is running
+     */
+    public abstract void execute(RobotState state, RobotCommand out);
+
+    /**
+     * Whether the command has completed
+     */
+    public boolean isFinished(RobotState state) {
+        return false;
+    }
+
+    /**
+     * Called once when the command finishes or is interrupted
+     */
+    public void end(RobotCommand out, boolean interrupted) {
+    }
+}
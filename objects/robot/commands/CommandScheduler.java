@@ -0,0 +1,138 @@
+package objects.robot.commands;
+
+import objects.robot.Robot;
+import objects.robot.RobotCommand;
+import objects.robot.RobotState;
+import objects.robot.subsystems.Subsystem;
+
+/**
+ * Runs commands for one robot.
+ *
+ * Scheduled commands live in a fixed-size array and are executed in the order they
+ * were scheduled. Scheduling a command interrupts any running command that shares a
+ * requirement. Subsystems not required by any running command are stopped each cycle.
+ * A cycle does no allocation, so long headless batches stay GC-quiet.
+ */
+public class CommandScheduler {
+    private static final int MAX_COMMANDS = 32;
+
+    private final Command[] scheduled = new Command[MAX_COMMANDS];
+    private int count = 0;
+    private Robot robot;
+
+    /**
+     * Robot whose subsystems are stopped when no command requires them
+     */
+    public void setRobot(Robot robot) {
+        this.robot = robot;
+    }
+
+    /**
+     * Start a command, interrupting running commands with overlapping requirements
+     * @return false if the scheduler is full
+     */
+    public boolean schedule(Command command, RobotState state, RobotCommand out) {
+        if (isScheduled(command)) {
+            return true;
+        }
+        for (Subsystem s : command.getRequirements()) {
+            for (int i = count - 1; i >= 0; i--) {
+                if (scheduled[i].requires(s)) {
+                    Command interrupted = scheduled[i];
+                    remove(i);
+                    interrupted.end(out, true);
+                }
+            }
+        }
+        if (count == MAX_COMMANDS) {
+            return false;
+        }
+        scheduled[count++] = command;
+        command.initialize(state);
+        return true;
+    }
+
+    public boolean isScheduled(Command command) {
+        for (int i = 0; i < count; i++) {
+            if (scheduled[i] == command) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getScheduledCount() {
+        return count;
+    }
+
+    /**
+     * Interrupt a running command
+     */
+    public void cancel(Command command, RobotCommand out) {
+        for (int i = 0; i < count; i++) {
+            if (scheduled[i] == command) {
+                remove(i);
+                command.end(out, true);
+                return;
+            }
+        }
+    }
+
+    public void cancelAll(RobotCommand out) {
+        while (count > 0) {
+            Command c = scheduled[count - 1];
+            remove(count - 1);
+            c.end(out, true);
+        }
+    }
+
+    /**
+     * Run one control cycle
+     */
+    public void run(RobotState state, RobotCommand out) {
+        int i = 0;
+        while (i < count) {
+            Command c = scheduled[i];
+            c.execute(state, out);
+            if (c.isFinished(state)) {
+                remove(i);
+                c.end(out, false);
+            } else {
+                i++;
+            }
+        }
+
+        // Idle subsystems hold still
+        if (robot != null) {
+            if (!isRequired(robot.driveMotor)) {
+                out.drive = 0;
+            }
+            if (!isRequired(robot.liftMotor)) {
+                out.lift = 0;
+            }
+            if (!isRequired(robot.tiltMotor)) {
+                out.tilt = 0;
+            }
+            if (!isRequired(robot.brakes)) {
+                out.brake = false;
+            }
+        }
+    }
+
+    private boolean isRequired(Subsystem subsystem) {
+        for (int i = 0; i < count; i++) {
+            if (scheduled[i].requires(subsystem)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove the command at an index, keeping the order of the rest
+     */
+    private void remove(int index) {
+        System.arraycopy(scheduled, index + 1, scheduled, index, count - index - 1);
+        scheduled[--count] = null;
+    }
+}
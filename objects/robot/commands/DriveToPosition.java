@@ -0,0 +1,48 @@
+package objects.robot.commands;
+
+import objects.robot.Robot;
+import objects.robot.RobotCommand;
+import objects.robot.RobotState;
+
+/**
+ * Drives to an x position with a PD controller, braking to a stop on arrival.
+ * The output limit lets a routine creep up on cargo without shoving it.
+ */
+public class DriveToPosition extends Command {
+    private static final double GAIN = 0.8;          // Drive output per meter of error
+    private static final double DAMPING = 0.6;       // Drive output per m/s of velocity
+    private static final double BRAKE_DISTANCE = 0.4; // Start braking this close when still moving
+
+    private final double targetX;
+    private final double tolerance;
+    private final double maxOutput;
+
+    public DriveToPosition(Robot robot, double targetX, double tolerance) {
+        this(robot, targetX, tolerance, 1.0);
+    }
+
+    public DriveToPosition(Robot robot, double targetX, double tolerance, double maxOutput) {
+        super(robot.driveMotor, robot.brakes);
+        this.targetX = targetX;
+        this.tolerance = tolerance;
+        this.maxOutput = maxOutput;
+    }
+
+    @Override
+    public void execute(RobotState state, RobotCommand out) {
+        double error = targetX - state.x;
+        out.drive = Math.max(-maxOutput, Math.min(maxOutput, error * GAIN - state.vx * DAMPING));
+        out.brake = Math.abs(error) < BRAKE_DISTANCE && state.vx * error > 0 && Math.abs(state.vx) > 0.3;
+    }
+
+    @Override
+    public boolean isFinished(RobotState state) {
+        return Math.abs(targetX - state.x) < tolerance && Math.abs(state.vx) < 0.2;
+    }
+
+    @Override
+    public void end(RobotCommand out, boolean interrupted) {
+        out.drive = 0;
+        out.brake = false;
+    }
+}
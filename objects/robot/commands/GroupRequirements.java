@@ -0,0 +1,34 @@
+package objects.robot.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+import objects.robot.subsystems.Subsystem;
+
+/**
+ * Requirement bookkeeping for command groups (construction time only).
+ */
+class GroupRequirements {
+    static Subsystem[] union(Command[] commands) {
+        List<Subsystem> all = new ArrayList<>();
+        for (Command c : commands) {
+            for (Subsystem s : c.getRequirements()) {
+                if (!all.contains(s)) {
+                    all.add(s);
+                }
+            }
+        }
+        return all.toArray(new Subsystem[0]);
+    }
+
+    static void checkDisjoint(Command[] commands) {
+        for (int i = 0; i < commands.length; i++) {
+            for (int j = i + 1; j < commands.length; j++) {
+                for (Subsystem s : commands[i].getRequirements()) {
+                    if (commands[j].requires(s)) {
+                        throw new IllegalArgumentException("Parallel commands share a requirement");
+                    }
+                }
+            }
+        }
+    }
+}
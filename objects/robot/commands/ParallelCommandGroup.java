@@ -0,0 +1,62 @@
+package objects.robot.commands;
+
+import objects.robot.RobotCommand;
+import objects.robot.RobotState;
+
+/**
+ * Runs commands at the same time and finishes when all of them have finished.
+ * Children must not share requirements.
+ */
+public class ParallelCommandGroup extends Command {
+    private final Command[] commands;
+    private final boolean[] running;
+
+    public ParallelCommandGroup(Command... commands) {
+        super(GroupRequirements.union(commands));
+        GroupRequirements.checkDisjoint(commands);
+        this.commands = commands;
+        this.running = new boolean[commands.length];
+    }
+
+    @Override
+    public void initialize(RobotState state) {
+        for (int i = 0; i < commands.length; i++) {
+            commands[i].initialize(state);
+            running[i] = true;
+        }
+    }
+
+    @Override
+    public void execute(RobotState state, RobotCommand out) {
+        for (int i = 0; i < commands.length; i++) {
+            if (!running[i]) {
+                continue;
+            }
+            commands[i].execute(state, out);
+            if (commands[i].isFinished(state)) {
+                commands[i].end(out, false);
+                running[i] = false;
+            }
+        }
+    }
+
+    @Override
+    public boolean isFinished(RobotState state) {
+        for (boolean r : running) {
+            if (r) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void end(RobotCommand out, boolean interrupted) {
+        for (int i = 0; i < commands.length; i++) {
+            if (running[i]) {
+                commands[i].end(out, true);
+                running[i] = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package objects.robot.commands;
+
+import objects.robot.RobotCommand;
+import objects.robot.RobotState;
+
+/**
+ * Runs commands one after another. Requires everything its children require.
+ */
+public class SequentialCommandGroup extends Command {
+    private final Command[] commands;
+    private int current = -1;
+
+    public SequentialCommandGroup(Command... commands) {
+        super(GroupRequirements.union(commands));
+        this.commands = commands;
+    }
+
+    @Override
+    public void initialize(RobotState state) {
+        current = 0;
+        if (commands.length > 0) {
+            commands[0].initialize(state);
+        }
+    }
+
+    @Override
+    public void execute(RobotState state, RobotCommand out) {
+        // Advance through children that finish this cycle
+        while (current < commands.length) {
+            Command c = commands[current];
+            c.execute(state, out);
+            if (!c.isFinished(state)) {
+                return;
+            }
+            c.end(out, false);
+            current++;
+            if (current < commands.length) {
+                commands[current].initialize(state);
+            } else {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean isFinished(RobotState state) {
+        return current >= commands.length;
+    }
+
+    @Override
+    public void end(RobotCommand out, boolean interrupted) {
+        if (interrupted && current >= 0 && current < commands.length) {
+            commands[current].end(out, true);
+        }
+        current = -1;
+    }
+}
@@ -0,0 +1,35 @@
+package objects.robot.commands;
+
+import objects.robot.Robot;
+import objects.robot.RobotCommand;
+import objects.robot.RobotState;
+
+/**
+ * Moves the forks to a lift height.
+ */
+public class SetLift extends Command {
+    private final double target;
+    private final double tolerance;
+
+    public SetLift(Robot robot, double target, double tolerance) {
+        super(robot.liftMotor);
+        this.target = target;
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    public void execute(RobotState state, RobotCommand out) {
+        double error = target - state.lift;
+        out.lift = Math.abs(error) < tolerance ? 0 : Math.signum(error);
+    }
+
+    @Override
+    public boolean isFinished(RobotState state) {
+        return Math.abs(target - state.lift) < tolerance;
+    }
+
+    @Override
+    public void end(RobotCommand out, boolean interrupted) {
+        out.lift = 0;
+    }
+}
@@ -0,0 +1,35 @@
+package objects.robot.commands;
+
+import objects.robot.Robot;
+import objects.robot.RobotCommand;
+import objects.robot.RobotState;
+
+/**
+ * Tilts the forks to an angle in degrees (positive = tilted back).
+ */
+public class SetTilt extends Command {
+    private final double targetDeg;
+    private final double toleranceDeg;
+
+    public SetTilt(Robot robot, double targetDeg, double toleranceDeg) {
+        super(robot.tiltMotor);
+        this.targetDeg = targetDeg;
+        this.toleranceDeg = toleranceDeg;
+    }
+
+    @Override
+    public void execute(RobotState state, RobotCommand out) {
+        double error = targetDeg - state.tiltDeg;
+        out.tilt = Math.abs(error) < toleranceDeg ? 0 : Math.signum(error);
+    }
+
+    @Override
+    public boolean isFinished(RobotState state) {
+        return Math.abs(targetDeg - state.tiltDeg) < toleranceDeg;
+    }
+
+    @Override
+    public void end(RobotCommand out, boolean interrupted) {
+        out.tilt = 0;
+    }
+}
@@ -0,0 +1,30 @@
+package objects.robot.commands;
+
+import objects.robot.RobotCommand;
+import objects.robot.RobotState;
+
+/**
+ * Does nothing for a fixed amount of simulated time.
+ */
+public class WaitCommand extends Command {
+    private final double seconds;
+    private double endTime;
+
+    public WaitCommand(double seconds) {
+        this.seconds = seconds;
+    }
+
+    @Override
+    public void initialize(RobotState state) {
+        endTime = state.time + seconds;
+    }
+
+    @Override
+    public void execute(RobotState state, RobotCommand out) {
+    }
+
+    @Override
+    public boolean isFinished(RobotState state) {
+        return state.time >= endTime;
+    }
+}
@@ -0,0 +1,101 @@
+package objects.robot.planning;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import core.World;
+import objects.robot.Robot;
+import objects.robot.RobotCommand;
+import objects.robot.RobotController;
+import objects.robot.RobotState;
+
+/**
+ * Robot controller that picks set-points with a {@link RolloutPlanner} every
+ * control cycle.
+ *
+ * The world is snapshotted on the simulation thread when each observation is taken
+ * and handed to the control side through a small pool of reusable snapshot worlds,
+ * the same way {@link objects.robot.ControlLoop} hands over states. The planner gets
+ * a fixed share of the control period, so an answer is always ready in time.
+ *
+ * The planner and its worker threads live as long as the controller, across resets
+ * and rebinds; {@link #close} stops them.
+ */
+public class PlanningController implements RobotController, AutoCloseable {
+    private static final int SNAPSHOTS = 2;
+
+    private final double budgetFraction;
+
+    private final ArrayBlockingQueue<World> freeSnapshots = new ArrayBlockingQueue<>(SNAPSHOTS);
+    private final ArrayBlockingQueue<World> readySnapshots = new ArrayBlockingQueue<>(SNAPSHOTS);
+    private volatile int robotIndex = 0;
+    private final RolloutPlanner planner;
+
+    /**
+     * Planner with 64 candidates over a 2 s horizon, using all but one core
+     */
+    public PlanningController() {
+        this(64, 4, 0.5, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 0.6);
+    }
+
+    /**
+     * @param candidates Control sequences evaluated per cycle
+     * @param segments Segments per sequence
+     * @param segmentTime Duration of each segment in seconds
+     * @param threads Rollout threads, including the control thread
+     * @param budgetFraction Share of the control period the planner may use
+     */
+    public PlanningController(int candidates, int segments, double segmentTime, int threads, double budgetFraction) {
+        this.budgetFraction = budgetFraction;
+        this.planner = new RolloutPlanner(candidates, segments, segmentTime, 1.0 / 120, threads, 0x5EED);
+        for (int i = 0; i < SNAPSHOTS; i++) {
+            freeSnapshots.add(new World());
+        }
+    }
+
+    @Override
+    public void observe(World world, Robot robot) {
+        World snapshot = freeSnapshots.poll();
+        if (snapshot == null) {
+            // Planner is still busy; replace the stale snapshot it hasn't picked up
+            snapshot = readySnapshots.poll();
+            if (snapshot == null) {
+                return;
+            }
+        }
+        robotIndex = world.robots.indexOf(robot);
+        snapshot.copyFrom(world);
+        readySnapshots.offer(snapshot);
+    }
+
+    /**
+     * Plans on the calling control thread. The controller outlives rebinds, so a new
+     * control loop can start while the old one is still finishing a cycle; the lock
+     * keeps them from sharing the planner's buffers.
+     */
+    @Override
+    public synchronized void control(RobotState state, RobotCommand out) {
+        World snapshot = readySnapshots.poll();
+        if (snapshot == null) {
+            return; // Nothing new; keep the last command
+        }
+        World newer;
+        while ((newer = readySnapshots.poll()) != null) {
+            freeSnapshots.offer(snapshot);
+            snapshot = newer;
+        }
+
+        planner.plan(snapshot, robotIndex, (long)(period() * budgetFraction * 1e9), out);
+        freeSnapshots.offer(snapshot);
+    }
+
+    public RolloutPlanner getPlanner() {
+        return planner;
+    }
+
+    /**
+     * Stop the planner's worker threads; the controller plans nothing after this
+     */
+    @Override
+    public void close() {
+        planner.close();
+    }
+}
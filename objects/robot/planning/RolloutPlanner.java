@@ -0,0 +1,303 @@
+package objects.robot.planning;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import core.World;
+import objects.Cargo;
+import objects.robot.Robot;
+import objects.robot.RobotCommand;
+import physics.MathScratch;
+import physics.Vec2;
+
+/**
+ * Sampling-based model-predictive planner.
+ *
+ * Each call to {@link #plan} rolls out a set of candidate control sequences from a
+ * world snapshot and returns the first step of the best one. A sequence is a few
+ * piecewise-constant segments of drive/lift/tilt output; candidates are the previous
+ * best plan, a stop plan, mutations of the previous best and fresh random plans.
+ *
+ * Rollouts run in parallel on a pool of worker threads that lives as long as the
+ * planner, each with its own scratch world that is overwritten in place for every
+ * rollout. Workers take candidates from a shared counter and stop at the deadline,
+ * so a plan is always returned within the time budget; candidates that didn't
+ * finish are ignored.
+ */
+public class RolloutPlanner implements AutoCloseable {
+    public static final int CONTROLS = 3; // drive, lift, tilt
+    private static final double[] LEVELS = {-1, -0.5, 0, 0.5, 1};
+    private static final double MUTATE_FRACTION = 0.5; // Share of candidates derived from the previous best
+
+    private final int candidates;
+    private final int segments;
+    private final int stepsPerSegment;
+    private final double stepDt;
+
+    private final double[] plans;   // [candidate][segment][control]
+    private final double[] values;  // Objective per candidate, NaN if not evaluated
+    private final double[] best;    // [segment][control]
+    private final Random random;
+
+    // Worker pool; scratch[0] belongs to the thread calling plan()
+    private final World[] scratch;
+    private final Thread[] workers;
+    private final Object lock = new Object();
+    private int generation = 0;
+    private int active = 0;
+    private volatile boolean closed = false;
+
+    // Current cycle, published to workers under the lock
+    private final AtomicInteger nextCandidate = new AtomicInteger();
+    private World root;
+    private int robotIndex;
+    private long deadline;
+
+    // Stats from the last cycle
+    private volatile int lastEvaluated = 0;
+    private volatile long lastPlanNanos = 0;
+    private volatile double lastBestValue = Double.NaN;
+
+    /**
+     * @param candidates Control sequences evaluated per cycle
+     * @param segments Segments per sequence
+     * @param segmentTime Duration of each segment in seconds
+     * @param stepDt Physics step used in rollouts
+     * @param threads Rollout threads, including the caller
+     * @param seed Seed for candidate sampling
+     */
+    public RolloutPlanner(int candidates, int segments, double segmentTime, double stepDt, int threads, long seed) {
+        this.candidates = candidates;
+        this.segments = segments;
+        this.stepsPerSegment = Math.max(1, (int)Math.round(segmentTime / stepDt));
+        this.stepDt = stepDt;
+        this.plans = new double[candidates * segments * CONTROLS];
+        this.values = new double[candidates];
+        this.best = new double[segments * CONTROLS];
+        this.random = new Random(seed);
+
+        threads = Math.max(1, threads);
+        scratch = new World[threads];
+        for (int i = 0; i < threads; i++) {
+            scratch[i] = new World();
+        }
+        workers = new Thread[threads - 1];
+        for (int i = 0; i < workers.length; i++) {
+            final int w = i + 1;
+            workers[i] = new Thread(() -> workerLoop(w), "rollout-worker-" + w);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Plan from a world snapshot and write the first step of the best sequence.
+     * The snapshot must not change until this returns.
+     * @param snapshot World to plan from
+     * @param robotIndex Robot being controlled
+     * @param budgetNanos Time allowed for rollouts
+     * @param out Command to update
+     */
+    public void plan(World snapshot, int robotIndex, long budgetNanos, RobotCommand out) {
+        if (closed) {
+            return;
+        }
+        long start = System.nanoTime();
+        sampleCandidates();
+        Arrays.fill(values, Double.NaN);
+
+        synchronized (lock) {
+            root = snapshot;
+            this.robotIndex = robotIndex;
+            deadline = start + budgetNanos;
+            nextCandidate.set(0);
+            active = workers.length;
+            generation++;
+            lock.notifyAll();
+        }
+
+        work(0);
+
+        synchronized (lock) {
+            try {
+                while (active > 0 && !closed) {
+                    lock.wait(); // Workers give up at the deadline, so this is bounded
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (closed) {
+                return; // Workers that saw the close quit without reporting back
+            }
+            root = null;
+        }
+
+        // Highest value wins; ties go to the lower index so results are reproducible
+        int bestIndex = -1;
+        int evaluated = 0;
+        for (int c = 0; c < candidates; c++) {
+            if (!Double.isNaN(values[c])) {
+                evaluated++;
+                if (bestIndex < 0 || values[c] > values[bestIndex]) {
+                    bestIndex = c;
+                }
+            }
+        }
+        if (bestIndex >= 0) {
+            System.arraycopy(plans, bestIndex * best.length, best, 0, best.length);
+            lastBestValue = values[bestIndex];
+        }
+        lastEvaluated = evaluated;
+        lastPlanNanos = System.nanoTime() - start;
+
+        out.drive = best[0];
+        out.lift = best[1];
+        out.tilt = best[2];
+        out.brake = false;
+    }
+
+    /**
+     * Fill the candidate table for this cycle
+     */
+    private void sampleCandidates() {
+        int len = best.length;
+        // 0: keep the previous best, 1: stop
+        System.arraycopy(best, 0, plans, 0, len);
+        Arrays.fill(plans, len, 2 * len, 0);
+
+        int mutated = 2 + (int)((candidates - 2) * MUTATE_FRACTION);
+        for (int c = 2; c < candidates; c++) {
+            int base = c * len;
+            for (int i = 0; i < len; i++) {
+                boolean keep = c < mutated && random.nextDouble() < 0.7;
+                plans[base + i] = keep ? best[i] : LEVELS[random.nextInt(LEVELS.length)];
+            }
+        }
+    }
+
+    private void workerLoop(int w) {
+        int seen = 0;
+        while (true) {
+            synchronized (lock) {
+                try {
+                    while (generation == seen && !closed) {
+                        lock.wait();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) {
+                    return;
+                }
+                seen = generation;
+            }
+
+            work(w);
+
+            synchronized (lock) {
+                active--;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Evaluate candidates until none are left or the deadline passes
+     */
+    private void work(int w) {
+        World sim = scratch[w];
+        int c;
+        while ((c = nextCandidate.getAndIncrement()) < candidates) {
+            double value = rollout(sim, c);
+            if (Double.isNaN(value)) {
+                return; // Out of time
+            }
+            values[c] = value;
+        }
+    }
+
+    /**
+     * Simulate one candidate from the snapshot
+     * @return Objective value, or NaN if the deadline passed first
+     */
+    private double rollout(World sim, int c) {
+        sim.copyFrom(root);
+        Robot robot = sim.robots.get(robotIndex);
+        int base = c * best.length;
+        for (int s = 0; s < segments; s++) {
+            int i = base + s * CONTROLS;
+            robot.command.drive = plans[i];
+            robot.command.lift = plans[i + 1];
+            robot.command.tilt = plans[i + 2];
+            robot.command.brake = false;
+            for (int k = 0; k < stepsPerSegment; k++) {
+                if (System.nanoTime() > deadline) {
+                    return Double.NaN;
+                }
+                sim.step(stepDt);
+            }
+        }
+        return evaluate(sim, robot);
+    }
+
+    /**
+     * Objective for the end state of a rollout (higher is better). Scored cargo
+     * dominates; otherwise the planner is pulled toward getting the forks under the
+     * most promising loose cargo box and that box toward the bucket.
+     */
+    protected double evaluate(World world, Robot robot) {
+        double value = 100.0 * world.score;
+        if (world.bucket == null) {
+            return value;
+        }
+
+        // Runs on the pool's workers, so temporaries come from each thread's own scratch
+        MathScratch scratch = MathScratch.get();
+        scratch.push();
+        try {
+            Vec2 tip = robot.getForkTipWorld(scratch.vec());
+            double bx = world.bucket.getX();
+            double by = world.bucket.getY();
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (Cargo c : world.cargos) {
+                if (!c.active || world.bucket.isInside(c.position.x, c.position.y)) {
+                    continue;
+                }
+                double toBucket = Math.hypot(bx - c.position.x, by - c.position.y);
+                double toForks = Math.hypot(tip.x - c.position.x, tip.y - c.position.y);
+                bestCost = Math.min(bestCost, 3 * toBucket + toForks);
+            }
+            return bestCost == Double.POSITIVE_INFINITY ? value : value - bestCost;
+        } finally {
+            scratch.pop();
+        }
+    }
+
+    public int getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Candidates fully evaluated in the last cycle
+     */
+    public int getLastEvaluated() {
+        return lastEvaluated;
+    }
+
+    public long getLastPlanNanos() {
+        return lastPlanNanos;
+    }
+
+    public double getLastBestValue() {
+        return lastBestValue;
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+    }
+}
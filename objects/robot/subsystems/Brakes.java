@@ -1,9 +1,11 @@
 package objects.robot.subsystems;
 
 import core.GameObject;
+import core.World;
 import objects.robot.Robot;
+import physics.ForceGenerator;
 
-public class Brakes extends GameObject{
+public class Brakes extends GameObject implements Subsystem, ForceGenerator {
     private double MAX_BRAKE_FORCE = 100;
     private double MIN_BRAKE_FORCE = 0;
     private double brakeForce = 0; // Default brake force
@@ -17,11 +19,20 @@ public class Brakes extends GameObject{
         this.brakeForce = Math.max(MIN_BRAKE_FORCE, Math.min(brakeForce, MAX_BRAKE_FORCE));
     }
 
+    public double getBrakeForce() {
+        return brakeForce;
+    }
+
     @Override
-    public void update(core.World world, double dt) {
+    public void applyForce(World world, double dt) {
         robot.addForce(-Math.signum(robot.velocity.x) * brakeForce, 0);
     }
 
+    @Override
+    public void update(World world, double dt) {
+        // Nothing to do; the force is applied in the force phase
+    }
+
     @Override
     public void draw(java.awt.Graphics2D g) {
         // Brakes are not drawn
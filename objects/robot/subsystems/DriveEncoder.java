@@ -0,0 +1,26 @@
+package objects.robot.subsystems;
+
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Wheel encoder: distance driven since the robot was created, in meters.
+ */
+public class DriveEncoder extends Sensor {
+    private final double startX;
+
+    public DriveEncoder(Robot robot) {
+        super(robot, 1000, 0.002, 0, 0.0005, 0xE1C0);
+        this.startX = robot.position.x;
+    }
+
+    public double getDistance() {
+        double d = read();
+        return Double.isNaN(d) ? 0 : d;
+    }
+
+    @Override
+    protected double measure(World world) {
+        return robot.position.x - startX;
+    }
+}
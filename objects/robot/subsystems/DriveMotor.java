@@ -2,16 +2,17 @@ package objects.robot.subsystems;
 
 import core.World;
 import objects.robot.Robot;
+import physics.ForceGenerator;
 
-public class DriveMotor extends Motor {
+public class DriveMotor extends Motor implements Subsystem, ForceGenerator {
     Robot robot;
     public DriveMotor(Robot robot) {
         super();
         this.robot = robot;
     }
 
-    public void update(World world, double dt) {
-        super.update(world, dt);
+    @Override
+    public void applyForce(World world, double dt) {
         // Apply drive force to robot based on motor speed
         double forceMagnitude = getSpeed();
         robot.addForce(forceMagnitude, 0); // Apply force in the x direction
@@ -0,0 +1,24 @@
+package objects.robot.subsystems;
+
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Load cell in the lift: force the lift carries beyond the empty carriage and forks,
+ * in Newtons. Reads the cargo's weight when still, plus inertia while the lift moves.
+ */
+public class ForkLoadCell extends Sensor {
+    public ForkLoadCell(Robot robot) {
+        super(robot, 1000, 0.001, 1.0, 0, 0x10AD);
+    }
+
+    public double getLoad() {
+        double l = read();
+        return Double.isNaN(l) ? 0 : l;
+    }
+
+    @Override
+    protected double measure(World world) {
+        return robot.mast.getLoad(world);
+    }
+}
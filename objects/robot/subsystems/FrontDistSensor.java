@@ -1,26 +1,69 @@
 package objects.robot.subsystems;
-import core.GameObject;
 
-public class FrontDistSensor extends GameObject {
-    private double distance;
+import core.World;
+import objects.Bucket;
+import objects.Cargo;
+import objects.robot.Robot;
+import physics.AABB;
 
-    public FrontDistSensor() {
-        this.distance = 0;
+/**
+ * Distance sensor on the front of the chassis, facing the forks.
+ * Casts a horizontal ray from the chassis front and reports the distance to the
+ * nearest cargo box, bucket wall or field wall, up to its maximum range.
+ */
+public class FrontDistSensor extends Sensor {
+    public static final double MAX_RANGE = 10.0; // meters
+
+    // The bucket doesn't move, so its wall is looked up once per bucket
+    private Bucket wallOf;
+    private final AABB wall = new AABB(0, 0, 0, 0);
+
+    public FrontDistSensor(Robot robot) {
+        super(robot, 50, 0.03, 0.005, 0.001, 0xD157);
     }
 
+    /**
+     * Latest visible distance reading in meters (MAX_RANGE when nothing is in range)
+     */
     public double getDistance() {
-        return distance;
+        double d = read();
+        return Double.isNaN(d) ? MAX_RANGE : Math.max(0, d);
     }
 
-    public void setDistance(double distance) {
-        this.distance = distance;
-    }
+    @Override
+    protected double measure(World world) {
+        double ox = robot.position.x + robot.bounds.w;
+        double oy = robot.position.y;
+        double nearest = Math.min(MAX_RANGE, world.rightX - ox);
 
-    public void update(core.World world, double dt) {
-        // Sensors might not need to update anything each frame
+        for (Cargo c : world.cargos) {
+            if (!c.active) {
+                continue;
+            }
+            nearest = Math.min(nearest, rayToBox(ox, oy, c.position.x, c.position.y, c.extentX(), c.extentY()));
+        }
+        if (world.bucket != null) {
+            if (wallOf != world.bucket) {
+                wallOf = world.bucket;
+                world.bucket.getRightWall(wall);
+            }
+            // Bucket walls store full width/height in w/h
+            nearest = Math.min(nearest, rayToBox(ox, oy, wall.x, wall.y, wall.w / 2, wall.h / 2));
+        }
+        return Math.max(0, nearest);
     }
 
-    public void draw(java.awt.Graphics2D g) {
-        // Sensors are not drawn
+    /**
+     * Distance along +x from (ox, oy) to a box given by center and half extents
+     */
+    private static double rayToBox(double ox, double oy, double cx, double cy, double hw, double hh) {
+        if (oy < cy - hh || oy > cy + hh) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double near = cx - hw - ox;
+        if (cx + hw < ox) {
+            return Double.POSITIVE_INFINITY; // Behind the sensor
+        }
+        return Math.max(0, near);
     }
 }
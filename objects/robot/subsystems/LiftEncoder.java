@@ -0,0 +1,23 @@
+package objects.robot.subsystems;
+
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Encoder on the lift winch: fork height in meters.
+ */
+public class LiftEncoder extends Sensor {
+    public LiftEncoder(Robot robot) {
+        super(robot, 500, 0.004, 0, 0.001, 0x11F7);
+    }
+
+    public double getHeight() {
+        double h = read();
+        return Double.isNaN(h) ? 0 : h;
+    }
+
+    @Override
+    protected double measure(World world) {
+        return robot.lift;
+    }
+}
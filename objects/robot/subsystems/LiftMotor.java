@@ -2,7 +2,7 @@ package objects.robot.subsystems;
 
 import objects.robot.Robot;
 
-public class LiftMotor extends Motor {
+public class LiftMotor extends Motor implements Subsystem {
     Robot robot;
     public LiftMotor(Robot robot) {
         super();
@@ -11,6 +11,6 @@ public class LiftMotor extends Motor {
 
     public void update(core.World world, double dt) {
         super.update(world, dt);
-        robot.lift += getSpeed() * dt;
+        robot.mast.liftJoint.motorSpeed = getSpeed();
     }
 }
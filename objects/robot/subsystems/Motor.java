@@ -22,6 +22,14 @@ public class Motor extends GameObject{
         speed = power * dt * 1000; // Arbitrary scaling factor for speed
     }
 
+    /**
+     * Copy power and speed from another motor
+     */
+    public void copyStateFrom(Motor src) {
+        power = src.power;
+        speed = src.speed;
+    }
+
     public double getSpeed() {
         return speed;
     }
@@ -0,0 +1,68 @@
+package objects.robot.subsystems;
+
+/**
+ * Preallocated ring buffer of timestamped sensor samples.
+ * Written by the simulation thread; old samples are overwritten once it wraps.
+ */
+public class SampleBuffer {
+    private final double[] times;
+    private final double[] values;
+    private final int mask;
+    private long count = 0; // Samples written in total
+
+    /**
+     * @param capacity Number of samples kept; rounded up to a power of two
+     */
+    public SampleBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.times = new double[size];
+        this.values = new double[size];
+        this.mask = size - 1;
+    }
+
+    public void write(double time, double value) {
+        int i = (int)(count & mask);
+        times[i] = time;
+        values[i] = value;
+        count++;
+    }
+
+    /**
+     * Number of samples currently held
+     */
+    public int size() {
+        return (int)Math.min(count, times.length);
+    }
+
+    /**
+     * Sample time, counting back from the newest (0 = newest)
+     */
+    public double timeAgo(int back) {
+        return times[(int)((count - 1 - back) & mask)];
+    }
+
+    /**
+     * Sample value, counting back from the newest (0 = newest)
+     */
+    public double valueAgo(int back) {
+        return values[(int)((count - 1 - back) & mask)];
+    }
+
+    /**
+     * Index (counting back from the newest) of the newest sample taken at or before
+     * the given time, or -1 if none is held
+     */
+    public int indexAtOrBefore(double time) {
+        int n = size();
+        for (int back = 0; back < n; back++) {
+            if (timeAgo(back) <= time) {
+                return back;
+            }
+        }
+        return -1;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+}
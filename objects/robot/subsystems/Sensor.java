@@ -0,0 +1,120 @@
+package objects.robot.subsystems;
+
+import java.util.Random;
+import core.GameObject;
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Base class for simulated sensors.
+ *
+ * Each sensor samples at its own rate independent of the physics step: once per tick
+ * it measures the true value, then writes every sample due within the tick into its
+ * ring buffer, interpolating between the previous and current true values and adding
+ * Gaussian noise and quantization. Readers see a sample only after the sensor's
+ * latency has elapsed.
+ */
+public abstract class Sensor extends GameObject {
+    private static final double HISTORY_SECONDS = 0.25; // Kept beyond the latency
+
+    protected final Robot robot;
+    private final double period;
+    private final double latency;
+    private final double noise;
+    private final double resolution;
+    private final Random random;
+    private final SampleBuffer buffer;
+
+    private double nextSampleTime = 0;
+    private double lastTime = 0;
+    private double lastTrue = Double.NaN;
+    private double now = 0;
+
+    /**
+     * @param rateHz Samples per second
+     * @param latency Delay before a sample becomes visible, in seconds
+     * @param noise Standard deviation of additive Gaussian noise
+     * @param resolution Quantization step, or 0 for none
+     * @param seed Noise seed, so runs are reproducible; mixed with the robot's index
+     *             so each robot's sensors get their own noise
+     */
+    protected Sensor(Robot robot, double rateHz, double latency, double noise, double resolution, long seed) {
+        this.robot = robot;
+        this.period = 1.0 / rateHz;
+        this.latency = latency;
+        this.noise = noise;
+        this.resolution = resolution;
+        this.random = new Random(seed ^ (robot.index * 0x9E3779B97F4A7C15L));
+        this.buffer = new SampleBuffer((int)Math.ceil(rateHz * (latency + HISTORY_SECONDS)) + 1);
+    }
+
+    /**
+     * True value of the measured quantity right now
+     */
+    protected abstract double measure(World world);
+
+    @Override
+    public void update(World world, double dt) {
+        double time = world.timeSec;
+        double value = measure(world);
+        if (Double.isNaN(lastTrue)) {
+            // First tick: start sampling now
+            lastTrue = value;
+            lastTime = time - dt;
+            nextSampleTime = time;
+        }
+
+        double span = time - lastTime;
+        while (nextSampleTime <= time) {
+            double f = span > 0 ? (nextSampleTime - lastTime) / span : 1;
+            double sample = lastTrue + (value - lastTrue) * f;
+            if (noise > 0) {
+                sample += random.nextGaussian() * noise;
+            }
+            if (resolution > 0) {
+                sample = Math.round(sample / resolution) * resolution;
+            }
+            buffer.write(nextSampleTime, sample);
+            nextSampleTime += period;
+        }
+
+        lastTrue = value;
+        lastTime = time;
+        now = time;
+    }
+
+    /**
+     * Newest sample visible at the current simulation time, or NaN before the first one
+     */
+    public double read() {
+        return readAt(now);
+    }
+
+    /**
+     * Newest sample visible at the given time (taken at least one latency earlier)
+     */
+    public double readAt(double time) {
+        int back = buffer.indexAtOrBefore(time - latency);
+        return back < 0 ? Double.NaN : buffer.valueAgo(back);
+    }
+
+    /**
+     * Raw sample history, newest first via {@link SampleBuffer#valueAgo}
+     */
+    public SampleBuffer getBuffer() {
+        return buffer;
+    }
+
+    public double getLatency() {
+        return latency;
+    }
+
+    public double getRate() {
+        return 1.0 / period;
+    }
+
+    @Override
+    public void draw(java.awt.Graphics2D g) {
+        // Sensors are not drawn
+    }
+}
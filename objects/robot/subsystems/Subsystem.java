@@ -0,0 +1,8 @@
+package objects.robot.subsystems;
+
+/**
+ * A robot mechanism that commands can require. At most one scheduled command
+ * may require a given subsystem at a time.
+ */
+public interface Subsystem {
+}
@@ -2,7 +2,7 @@ package objects.robot.subsystems;
 
 import objects.robot.Robot;
 
-public class TiltMotor extends Motor {
+public class TiltMotor extends Motor implements Subsystem {
     Robot robot;
     public TiltMotor(Robot robot) {
         super();
@@ -11,6 +11,6 @@ public class TiltMotor extends Motor {
 
     public void update(core.World world, double dt) {
         super.update(world, dt);
-        robot.tiltDeg += getSpeed() * dt;
+        robot.mast.tiltJoint.motorSpeed = Math.toRadians(getSpeed());
     }
 }
@@ -0,0 +1,23 @@
+package objects.robot.subsystems;
+
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Analog potentiometer on the tilt pivot: fork angle in degrees.
+ */
+public class TiltPotentiometer extends Sensor {
+    public TiltPotentiometer(Robot robot) {
+        super(robot, 200, 0.005, 0.2, 0, 0x7117);
+    }
+
+    public double getAngleDeg() {
+        double a = read();
+        return Double.isNaN(a) ? 0 : a;
+    }
+
+    @Override
+    protected double measure(World world) {
+        return robot.tiltDeg;
+    }
+}
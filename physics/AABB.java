@@ -3,6 +3,9 @@ package physics;
 /**
  * Represents an Axis-Aligned Bounding Box for collision detection.
  * The box is defined by its center position and half-extents (half width/height).
+ *
+ * Like {@link Vec2}, operations write into the box they are called on and return
+ * it; arguments may be the destination itself.
  */
 public class AABB {
     // Center position
@@ -33,10 +36,91 @@ public class AABB {
      * @return true if the boxes overlap
      */
     public boolean overlaps(AABB other) {
-        return x < other.x + other.w &&
-            x + w > other.x &&
-            y < other.y + other.h &&
-            y + h > other.y;
+        return Math.abs(other.x - x) < w + other.w &&
+            Math.abs(other.y - y) < h + other.h;
     }
 
+    public double minX() {
+        return x - w;
+    }
+
+    public double maxX() {
+        return x + w;
+    }
+
+    public double minY() {
+        return y - h;
+    }
+
+    public double maxY() {
+        return y + h;
+    }
+
+    public AABB set(double x, double y, double w, double h) {
+        this.x = x;
+        this.y = y;
+        this.w = w;
+        this.h = h;
+        return this;
+    }
+
+    public AABB set(AABB b) {
+        return set(b.x, b.y, b.w, b.h);
+    }
+
+    /**
+     * Set from corners instead of center and half extents
+     */
+    public AABB setBounds(double minX, double minY, double maxX, double maxY) {
+        return set((minX + maxX) / 2, (minY + maxY) / 2, (maxX - minX) / 2, (maxY - minY) / 2);
+    }
+
+    public boolean contains(double px, double py) {
+        return Math.abs(px - x) <= w && Math.abs(py - y) <= h;
+    }
+
+    /**
+     * True if b lies entirely inside this box
+     */
+    public boolean contains(AABB b) {
+        return b.minX() >= minX() && b.maxX() <= maxX() && b.minY() >= minY() && b.maxY() <= maxY();
+    }
+
+    /**
+     * this = smallest box enclosing a and b
+     */
+    public AABB union(AABB a, AABB b) {
+        return setBounds(Math.min(a.minX(), b.minX()), Math.min(a.minY(), b.minY()),
+            Math.max(a.maxX(), b.maxX()), Math.max(a.maxY(), b.maxY()));
+    }
+
+    /**
+     * this = overlap of a and b, if they overlap; otherwise this is left unchanged
+     * @return true if a and b overlap
+     */
+    public boolean intersection(AABB a, AABB b) {
+        double minX = Math.max(a.minX(), b.minX());
+        double minY = Math.max(a.minY(), b.minY());
+        double maxX = Math.min(a.maxX(), b.maxX());
+        double maxY = Math.min(a.maxY(), b.maxY());
+        if (minX >= maxX || minY >= maxY) {
+            return false;
+        }
+        setBounds(minX, minY, maxX, maxY);
+        return true;
+    }
+
+    /**
+     * this = a grown by margin on every side
+     */
+    public AABB expand(AABB a, double margin) {
+        return set(a.x, a.y, a.w + margin, a.h + margin);
+    }
+
+    /**
+     * this = box covering everything a passes over while moving by (dx, dy)
+     */
+    public AABB sweep(AABB a, double dx, double dy) {
+        return set(a.x + dx / 2, a.y + dy / 2, a.w + Math.abs(dx) / 2, a.h + Math.abs(dy) / 2);
+    }
 }
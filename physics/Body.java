@@ -7,28 +7,110 @@ import objects.Cargo;
 
 /**
  * Represents a physical body in the simulation with position, velocity, and forces.
+ *
+ * Bodies are boxes. By default they keep a fixed orientation and collide as
+ * axis-aligned boxes; bodies with {@link #fixedRotation} cleared also have an
+ * orientation and angular velocity, and collide as oriented boxes.
  */
 public class Body extends GameObject {
+    private static final double GROUND_SPAN = 1000; // Half length of the ground segment, in meters
+    private static final double GROUND_FRICTION_COEFF = 0.3;
+    private static final double FORK_FRICTION_COEFF = 0.8;
+
     // State
     public Vec2 position;     // Position in meters
     public Vec2 velocity;     // Velocity in m/s
     public Vec2 force;        // Accumulated force in Newtons
+    public double prevX;      // Position at the start of the last step, for swept collisions
+    public double prevY;
+
+    // Rotation (only integrated for bodies that can rotate)
+    public double angle;            // Orientation in radians, counter-clockwise
+    public double angularVelocity;  // rad/s
+    public double torque;           // Accumulated torque in N*m
 
     // Properties
     public double mass;       // Mass in kg
+    public double inertia;    // Moment of inertia about the center in kg*m^2
     public boolean isStatic;  // If true, object doesn't move
-    public AABB bounds;       // Collision bounds
+    public boolean fixedRotation = true; // If true, never rotates and collides as an AABB
+    public boolean active = true; // False while parked in a pool; every system skips it
+    public AABB bounds;       // Collision bounds (half extents of the unrotated box)
+    public JointSolver solver; // Solver that moves this body, if it's part of a jointed mechanism
 
     /**
      * Creates a new physical body
      */
     public Body(double x, double y, double halfW, double halfH, double mass, boolean isStatic) {
         this.position = new Vec2(x, y);
+        this.prevX = x;
+        this.prevY = y;
         this.velocity = new Vec2();
         this.force = new Vec2();
         this.mass = mass;
         this.isStatic = isStatic;
         this.bounds = new AABB(x, y, halfW, halfH);
+        updateInertia();
+    }
+
+    /**
+     * Creates a body with the same shape, mass and state as another
+     */
+    public Body(Body src) {
+        this(src.position.x, src.position.y, src.bounds.w, src.bounds.h, src.mass, src.isStatic);
+        copyStateFrom(src);
+    }
+
+    /**
+     * Overwrite this body's state with another's without allocating
+     */
+    public void copyStateFrom(Body src) {
+        position.x = src.position.x;
+        position.y = src.position.y;
+        prevX = src.prevX;
+        prevY = src.prevY;
+        velocity.x = src.velocity.x;
+        velocity.y = src.velocity.y;
+        force.x = src.force.x;
+        force.y = src.force.y;
+        angle = src.angle;
+        angularVelocity = src.angularVelocity;
+        torque = src.torque;
+        mass = src.mass;
+        inertia = src.inertia;
+        isStatic = src.isStatic;
+        fixedRotation = src.fixedRotation;
+        active = src.active;
+        bounds.x = src.bounds.x;
+        bounds.y = src.bounds.y;
+        bounds.w = src.bounds.w;
+        bounds.h = src.bounds.h;
+    }
+
+    /**
+     * Put the body at rest at a position, upright, with nothing accumulated
+     */
+    public void place(double x, double y) {
+        position.x = x;
+        position.y = y;
+        prevX = x;
+        prevY = y;
+        velocity.x = 0;
+        velocity.y = 0;
+        force.x = 0;
+        force.y = 0;
+        angle = 0;
+        angularVelocity = 0;
+        torque = 0;
+        bounds.x = x;
+        bounds.y = y;
+    }
+
+    /**
+     * Recompute the moment of inertia of a solid box after the mass or size changed
+     */
+    public void updateInertia() {
+        inertia = mass * (4 * bounds.w * bounds.w + 4 * bounds.h * bounds.h) / 12;
     }
 
     /**
@@ -39,42 +121,153 @@ public class Body extends GameObject {
         force.y += fy;
     }
 
+    /**
+     * Half width of the axis-aligned box enclosing the (possibly rotated) body
+     */
+    public double extentX() {
+        if (fixedRotation) {
+            return bounds.w;
+        }
+        return Math.abs(Math.cos(angle)) * bounds.w + Math.abs(Math.sin(angle)) * bounds.h;
+    }
+
+    /**
+     * Half height of the axis-aligned box enclosing the (possibly rotated) body
+     */
+    public double extentY() {
+        if (fixedRotation) {
+            return bounds.h;
+        }
+        return Math.abs(Math.sin(angle)) * bounds.w + Math.abs(Math.cos(angle)) * bounds.h;
+    }
+
+    public double minX() {
+        return position.x - extentX();
+    }
+
+    public double maxX() {
+        return position.x + extentX();
+    }
+
+    /**
+     * World X of a corner: 0 = bottom left, 1 = bottom right, 2 = top left, 3 = top right
+     * (in the body's own frame)
+     */
+    public double cornerX(int i) {
+        double lx = (i & 1) == 0 ? -bounds.w : bounds.w;
+        double ly = (i & 2) == 0 ? -bounds.h : bounds.h;
+        if (fixedRotation) {
+            return position.x + lx;
+        }
+        return position.x + lx * Math.cos(angle) - ly * Math.sin(angle);
+    }
+
+    /**
+     * World Y of a corner, numbered as in {@link #cornerX}
+     */
+    public double cornerY(int i) {
+        double lx = (i & 1) == 0 ? -bounds.w : bounds.w;
+        double ly = (i & 2) == 0 ? -bounds.h : bounds.h;
+        if (fixedRotation) {
+            return position.y + ly;
+        }
+        return position.y + lx * Math.sin(angle) + ly * Math.cos(angle);
+    }
+
+    /**
+     * Velocity of the point (px, py) attached to this body, X component
+     */
+    public double pointVelocityX(double px, double py) {
+        return velocity.x - angularVelocity * (py - position.y);
+    }
+
+    /**
+     * Velocity of the point (px, py) attached to this body, Y component
+     */
+    public double pointVelocityY(double px, double py) {
+        return velocity.y + angularVelocity * (px - position.x);
+    }
+
+    /**
+     * Inverse of the effective mass felt by an impulse along (nx, ny) at (px, py)
+     */
+    public double inverseMassAt(double px, double py, double nx, double ny) {
+        if (isStatic) {
+            return 0;
+        }
+        double k = 1 / mass;
+        if (!fixedRotation) {
+            double rn = (px - position.x) * ny - (py - position.y) * nx;
+            k += rn * rn / inertia;
+        }
+        return k;
+    }
+
+    /**
+     * Apply an impulse (jx, jy) at the world point (px, py)
+     */
+    public void applyImpulse(double px, double py, double jx, double jy) {
+        if (isStatic) {
+            return;
+        }
+        velocity.x += jx / mass;
+        velocity.y += jy / mass;
+        if (!fixedRotation) {
+            angularVelocity += ((px - position.x) * jy - (py - position.y) * jx) / inertia;
+        }
+    }
+
+    /**
+     * Integrate accumulated forces over one step (forces are accumulated in the
+     * force phase, collisions are resolved afterwards by the collision phase).
+     * Reads the world's {@link StepContext}, which must be prepared for this dt.
+     */
     @Override
     public void update(World world, double dt) {
+        integrate(world.stepContext);
+    }
+
+    /**
+     * Integrate accumulated forces over the context's step
+     */
+    public void integrate(StepContext c) {
+        prevX = position.x;
+        prevY = position.y;
         if (isStatic) {
             // Static objects only update their bounds position
             bounds.x = position.x;
             bounds.y = position.y;
             return;
         }
-
-        // Apply gravity
-        addForce(0, mass * world.gravity);
+        double dt = c.dt;
 
         // Semi-implicit Euler integration
         velocity.x += (force.x / mass) * dt;
         velocity.y += (force.y / mass) * dt;
 
         // Apply damping for stability
-        double damping = Math.pow(world.linearDamping, dt);
-        velocity.x *= damping;
-        velocity.y *= damping;
+        velocity.x *= c.damping;
+        velocity.y *= c.damping;
 
         // Apply extra ground friction
-        if (position.y - bounds.h <= world.groundY + 0.01) {
-            velocity.x *= Math.pow(world.groundFriction, dt);
+        if (position.y - extentY() <= c.groundContactY) {
+            velocity.x *= c.groundFriction;
         }
 
         // Update position
         position.x += velocity.x * dt;
         position.y += velocity.y * dt;
 
-        // Resolve collisions with ground and walls
-        resolveGroundAndWalls(world);
+        if (!fixedRotation) {
+            angularVelocity += (torque / inertia) * dt;
+            angularVelocity *= c.damping;
+            angle += angularVelocity * dt;
+        }
 
         // Clear forces for next frame
         force.x = 0;
         force.y = 0;
+        torque = 0;
 
         // Update collision bounds
         bounds.x = position.x;
@@ -84,49 +277,198 @@ public class Body extends GameObject {
     /**
      * Handle collisions with the ground and world boundaries
      */
-    protected void resolveGroundAndWalls(World world) {
+    public void resolveGroundAndWalls(World world) {
+        StepContext c = world.stepContext;
+
         // Ground collision
-        if (position.y - bounds.h < world.groundY) {
-            position.y = world.groundY + bounds.h;
-            if (velocity.y < 0) {
-                velocity.y = 0;  // Stop vertical motion
+        if (fixedRotation) {
+            if (position.y - bounds.h < c.groundY) {
+                position.y = c.groundY + bounds.h;
+                if (velocity.y < 0) {
+                    velocity.y = 0;  // Stop vertical motion
+                }
             }
+        } else {
+            supportOnSegment(position.x - GROUND_SPAN, c.groundY, 1, 0, 2 * GROUND_SPAN,
+                Double.POSITIVE_INFINITY, null, 0, GROUND_FRICTION_COEFF);
         }
 
         // Wall collisions
-        if (position.x - bounds.w < world.leftX) {
-            position.x = world.leftX + bounds.w;
+        double ex = extentX();
+        if (position.x - ex < c.leftX) {
+            position.x = c.leftX + ex;
             velocity.x = 0;
         }
 
-        if (position.x + bounds.w > world.rightX) {
-            position.x = world.rightX - bounds.w;
+        if (position.x + ex > c.rightX) {
+            position.x = c.rightX - ex;
             velocity.x = 0;
         }
 
-        // Bucket collision if we're a cargo object
-        if (this instanceof Cargo && world.robot != null) {
-            Vec2 bucketPos = world.robot.getForkTipWorld();
-            AABB bucketBounds = world.robot.getForkPickupZone();
+        // Fork collision if we're a cargo object
+        if (this instanceof Cargo) {
+            for (int i = 0; i < c.forkCount; i++) {
+                resolveForks(c.forks[i]);
+            }
+        }
 
-            // Check if cargo overlaps with bucket
-            if (position.x + bounds.w > bucketPos.x - bucketBounds.w &&
-                position.x - bounds.w < bucketPos.x + bucketBounds.w &&
-                position.y + bounds.h > bucketPos.y - bucketBounds.h &&
-                position.y - bounds.h < bucketPos.y + bucketBounds.h) {
+        // Update collision bounds
+        bounds.x = position.x;
+        bounds.y = position.y;
+    }
 
-                // Resolve collision by pushing cargo up and out
-                position.y = bucketPos.y + bucketBounds.h + bounds.h;
-                if (velocity.y < 0) {
-                    velocity.y = 0;
-                }
+    /**
+     * Sweep this body's motion over the last step against the fixed and driven
+     * obstacles it collides with, recording the earliest hit in the sweep. Other
+     * bodies are swept by {@link ContinuousCollision} itself.
+     */
+    public void sweepObstacles(World world, Sweep sweep) {
+        if (!(this instanceof Cargo)) {
+            return;
+        }
+        // The forks are driven by the mast's motors, so they are not pushed back. They
+        // move after collisions are resolved, so they are still where they were
+        double ex = extentX();
+        double ey = extentY();
+        StepContext c = world.stepContext;
+        for (int i = 0; i < c.forkCount; i++) {
+            StepContext.Fork forks = c.forks[i];
+            if (sweep.test(prevX, prevY, ex, ey, position.x - prevX, position.y - prevY,
+                    forks.x, forks.y, forks.extentX, forks.extentY, 0, 0)) {
+                sweep.obstacleVx = forks.vx;
+                sweep.obstacleVy = forks.vy;
+            }
+        }
+    }
 
-                // Add some horizontal velocity to simulate scooping
-                if (Math.abs(world.robot.getVelocity().x) > 0.1) {
-                    velocity.x = world.robot.getVelocity().x * 1.1;
-                }
+    /**
+     * Keep cargo resting on a robot's forks. The fork blade is thin, so a box it
+     * slides into is lifted onto its top face. The contact itself is solved with the
+     * mast's joints, which is how the lift feels the load.
+     */
+    private void resolveForks(StepContext.Fork forks) {
+        if (Math.abs(position.x - forks.x) >= extentX() + forks.extentX ||
+            Math.abs(position.y - forks.y) >= extentY() + forks.extentY) {
+            return;
+        }
+
+        // Friction carries the cargo along, and cargo hanging past the tip tips over it
+        supportOnSegment(forks.tipX, forks.tipY, forks.cos, forks.sin,
+            forks.length, 2 * extentY() + forks.thickness, forks.body, 0, FORK_FRICTION_COEFF);
+    }
+
+    /**
+     * Rest a body on a flat surface segment.
+     *
+     * The segment starts at (ox, oy) and runs along the unit tangent (tx, ty) for the
+     * given length; its solid side is to the right of the tangent. The body's lowest
+     * face is clipped to the segment to find the contact patch, so a box overhanging
+     * the end of the segment pivots on the end.
+     *
+     * @param maxDepth Penetration beyond which the body is considered to be under the surface
+     * @param surface Body the segment belongs to, or null for fixed surfaces. A surface
+     *                body must be moved by a {@link JointSolver}; the contact is handed
+     *                to that solver instead of being resolved here.
+     * @return true if the body touches the segment
+     */
+    protected boolean supportOnSegment(double ox, double oy, double tx, double ty, double length,
+                                       double maxDepth, Body surface, double restitution, double friction) {
+        double nx = -ty;
+        double ny = tx;
+
+        // The two corners lowest along the surface normal form the incident face
+        int c1 = -1;
+        int c2 = -1;
+        double d1 = Double.POSITIVE_INFINITY;
+        double d2 = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < 4; i++) {
+            double d = (cornerX(i) - ox) * nx + (cornerY(i) - oy) * ny;
+            if (d < d1) {
+                c2 = c1;
+                d2 = d1;
+                c1 = i;
+                d1 = d;
+            } else if (d < d2) {
+                c2 = i;
+                d2 = d;
+            }
+        }
+        if (d1 >= 0 || d1 < -maxDepth) {
+            return false;
+        }
+
+        // Clip the face to the segment
+        double s1 = (cornerX(c1) - ox) * tx + (cornerY(c1) - oy) * ty;
+        double s2 = (cornerX(c2) - ox) * tx + (cornerY(c2) - oy) * ty;
+        double sa = Math.min(s1, s2);
+        double sb = Math.max(s1, s2);
+        double da = s1 <= s2 ? d1 : d2;
+        double db = s1 <= s2 ? d2 : d1;
+        if (sb < 0 || sa > length) {
+            return false;
+        }
+        if (sb - sa > 1e-9) {
+            if (sa < 0) {
+                da += (db - da) * (0 - sa) / (sb - sa);
+                sa = 0;
             }
+            if (sb > length) {
+                db = da + (db - da) * (length - sa) / (sb - sa);
+                sb = length;
+            }
+        }
+        double deepest = Math.min(da, db);
+        if (deepest >= 0) {
+            return false;
         }
+
+        // Move out of the surface. On a gently sloped surface move straight up, undoing
+        // the sinking that gravity caused, so a box doesn't creep down a tilted fork
+        if (ny > 0.5) {
+            position.y -= deepest / ny;
+        } else {
+            position.x -= nx * deepest;
+            position.y -= ny * deepest;
+        }
+
+        // A face lying on the surface is pushed at the point under the center of mass,
+        // kept within the contact patch, so it rests without rocking and tips over
+        // only when the center of mass is past the end of the patch
+        double s;
+        if (da < 0 && db < 0) {
+            double sc = (position.x - ox) * tx + (position.y - oy) * ty;
+            s = Math.max(sa, Math.min(sb, sc));
+        } else {
+            s = da < 0 ? sa : sb;
+        }
+        if (surface != null) {
+            surface.solver.addContact(surface, this, ox + tx * s, oy + ty * s, nx, ny, friction);
+        } else {
+            supportImpulse(ox + tx * s, oy + ty * s, nx, ny, restitution, friction);
+        }
+
+        bounds.x = position.x;
+        bounds.y = position.y;
+        return true;
+    }
+
+    /**
+     * Stop a contact point from moving into a fixed surface, with Coulomb friction
+     */
+    private void supportImpulse(double px, double py, double nx, double ny, double restitution, double friction) {
+        double vn = pointVelocityX(px, py) * nx + pointVelocityY(px, py) * ny;
+        if (vn >= 0) {
+            return;
+        }
+        double j = -(1 + restitution) * vn / inverseMassAt(px, py, nx, ny);
+        applyImpulse(px, py, j * nx, j * ny);
+
+        double tx = ny;
+        double ty = -nx;
+        double vt = pointVelocityX(px, py) * tx + pointVelocityY(px, py) * ty;
+        double jt = -vt / inverseMassAt(px, py, tx, ty);
+        jt = Math.max(-friction * j, Math.min(friction * j, jt));
+        applyImpulse(px, py, jt * tx, jt * ty);
     }
 
     @Override
@@ -0,0 +1,56 @@
+package physics;
+
+/**
+ * Byte layout of one body record in a {@link BodyStore}.
+ *
+ * Records are 128 bytes (two cache lines) of little-endian doubles, grouped so a pass
+ * that only integrates reads the first line: position, velocity and force come
+ * first, then rotation, then the shape and mass that rarely change, then the flags.
+ */
+public final class BodyLayout {
+    // Positions
+    public static final int POS_X = 0;
+    public static final int POS_Y = 8;
+    public static final int PREV_X = 16;
+    public static final int PREV_Y = 24;
+    // Velocities
+    public static final int VEL_X = 32;
+    public static final int VEL_Y = 40;
+    // Forces
+    public static final int FORCE_X = 48;
+    public static final int FORCE_Y = 56;
+    // Rotation
+    public static final int ANGLE = 64;
+    public static final int ANG_VEL = 72;
+    public static final int TORQUE = 80;
+    // Mass and shape
+    public static final int MASS = 88;
+    public static final int INERTIA = 96;
+    public static final int HALF_W = 104;
+    public static final int HALF_H = 112;
+    // Flags (int), then padding to the record size
+    public static final int FLAGS = 120;
+
+    public static final int RECORD_BYTES = 128;
+
+    // Bits of FLAGS
+    public static final int STATIC = 1;
+    public static final int FIXED_ROTATION = 2;
+    public static final int ACTIVE = 4;
+
+    /**
+     * Every field's name and offset, in record order. Written into the header of
+     * mapped stores so another process can read them without this class.
+     */
+    public static final String[] NAMES = {
+        "posX", "posY", "prevX", "prevY", "velX", "velY", "forceX", "forceY",
+        "angle", "angVel", "torque", "mass", "inertia", "halfW", "halfH", "flags"
+    };
+    public static final int[] OFFSETS = {
+        POS_X, POS_Y, PREV_X, PREV_Y, VEL_X, VEL_Y, FORCE_X, FORCE_Y,
+        ANGLE, ANG_VEL, TORQUE, MASS, INERTIA, HALF_W, HALF_H, FLAGS
+    };
+
+    private BodyLayout() {
+    }
+}
@@ -0,0 +1,340 @@
+package physics;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import static physics.BodyLayout.*;
+
+/**
+ * Body state kept off the Java heap, as fixed-size records (see {@link BodyLayout})
+ * in a direct buffer or a memory-mapped file.
+ *
+ * The store holds no objects, so however many bodies it has, the garbage collector
+ * sees a single buffer. A mapped store also persists the state and lets another
+ * process read it while the simulation runs. {@link #capture} copies bodies in and
+ * {@link #restore} copies them back out, and {@link #integrate} steps the records in
+ * place with the same arithmetic as {@link Body#integrate}, giving the same results
+ * bit for bit.
+ *
+ * Layout (little-endian):
+ * <pre>
+ *   header:  int magic "FRCB", int version, int recordBytes, int fieldCount,
+ *            long tick, int count, int capacity, long sequence,
+ *            fieldCount x (int offset, 12 ASCII name bytes, zero padded)
+ *   records: from byte HEADER_BYTES, capacity x RECORD_BYTES
+ * </pre>
+ * The sequence is a seqlock: {@link #capture} makes it odd (with a volatile write)
+ * before touching the records and even again (with a release write) after, and
+ * readers load it with acquire. A reader that gets the same even sequence from
+ * {@link #beginRead} and {@link #validate} around its reads has a consistent copy;
+ * otherwise it reads again.
+ */
+public class BodyStore implements AutoCloseable {
+    private static final int MAGIC = 0x46524342; // "FRCB"
+    private static final int VERSION = 2;
+    private static final int NAME_BYTES = 12;
+    public static final int HEADER_BYTES = 512;
+
+    // Header offsets
+    private static final int H_TICK = 16;
+    private static final int H_COUNT = 24;
+    private static final int H_CAPACITY = 28;
+    private static final int H_SEQUENCE = 32;
+    private static final int H_FIELDS = 40;
+
+    // Ordered access to the sequence, shared with readers in other processes
+    private static final VarHandle SEQUENCE =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel; // Null for an in-memory store
+    private ByteBuffer buf;
+    private int capacity;
+    private int count = 0;
+
+    private BodyStore(FileChannel channel, ByteBuffer buf, int capacity) {
+        this.channel = channel;
+        this.buf = buf;
+        this.capacity = capacity;
+    }
+
+    /**
+     * A store in a direct buffer
+     */
+    public static BodyStore allocate(int capacity) {
+        BodyStore store = new BodyStore(null, ByteBuffer.allocateDirect(bytesFor(capacity)), capacity);
+        store.writeHeader();
+        return store;
+    }
+
+    /**
+     * A store in a memory-mapped file, replacing any existing file
+     */
+    public static BodyStore map(File file, int capacity) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        FileChannel channel = FileChannel.open(file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        BodyStore store = new BodyStore(channel,
+            channel.map(FileChannel.MapMode.READ_WRITE, 0, bytesFor(capacity)), capacity);
+        store.writeHeader();
+        return store;
+    }
+
+    /**
+     * Map an existing store file, e.g. one written by another process or an earlier run.
+     * The file is mapped at its current size; reopen it if the writer's capacity grows.
+     */
+    public static BodyStore open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION || buf.getInt(8) != RECORD_BYTES) {
+            channel.close();
+            throw new IOException("Not a body store of this layout: " + file);
+        }
+        BodyStore store = new BodyStore(channel, buf, buf.getInt(H_CAPACITY));
+        store.count = buf.getInt(H_COUNT);
+        return store;
+    }
+
+    private static int bytesFor(int capacity) {
+        return HEADER_BYTES + capacity * RECORD_BYTES;
+    }
+
+    private void writeHeader() {
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, VERSION);
+        buf.putInt(8, RECORD_BYTES);
+        buf.putInt(12, NAMES.length);
+        buf.putLong(H_TICK, 0);
+        buf.putInt(H_COUNT, count);
+        buf.putInt(H_CAPACITY, capacity);
+        buf.putLong(H_SEQUENCE, 0);
+        for (int i = 0; i < NAMES.length; i++) {
+            int at = H_FIELDS + i * (4 + NAME_BYTES);
+            buf.putInt(at, OFFSETS[i]);
+            byte[] name = NAMES[i].getBytes(StandardCharsets.US_ASCII);
+            for (int k = 0; k < NAME_BYTES; k++) {
+                buf.put(at + 4 + k, k < name.length ? name[k] : 0);
+            }
+        }
+    }
+
+    /**
+     * Make room for at least n records, keeping the current ones. A mapped store
+     * grows its file and is remapped.
+     */
+    public void ensureCapacity(int n) throws IOException {
+        if (n <= capacity) {
+            return;
+        }
+        int grown = Math.max(n, capacity * 2);
+        ByteBuffer old = buf;
+        if (channel != null) {
+            buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytesFor(grown));
+        } else {
+            buf = ByteBuffer.allocateDirect(bytesFor(grown));
+            old.clear();
+            buf.put(old);
+        }
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        capacity = grown;
+        buf.putInt(H_CAPACITY, capacity);
+    }
+
+    /**
+     * Copy the bodies' state into records 0..n-1 and make that the record count
+     */
+    public void capture(Body[] bodies, long tick) throws IOException {
+        ensureCapacity(bodies.length);
+        long sequence = (long) SEQUENCE.get(buf, H_SEQUENCE);
+        SEQUENCE.setVolatile(buf, H_SEQUENCE, sequence + 1); // Odd: records changing
+        for (int i = 0; i < bodies.length; i++) {
+            Body b = bodies[i];
+            int at = base(i);
+            buf.putDouble(at + POS_X, b.position.x);
+            buf.putDouble(at + POS_Y, b.position.y);
+            buf.putDouble(at + PREV_X, b.prevX);
+            buf.putDouble(at + PREV_Y, b.prevY);
+            buf.putDouble(at + VEL_X, b.velocity.x);
+            buf.putDouble(at + VEL_Y, b.velocity.y);
+            buf.putDouble(at + FORCE_X, b.force.x);
+            buf.putDouble(at + FORCE_Y, b.force.y);
+            buf.putDouble(at + ANGLE, b.angle);
+            buf.putDouble(at + ANG_VEL, b.angularVelocity);
+            buf.putDouble(at + TORQUE, b.torque);
+            buf.putDouble(at + MASS, b.mass);
+            buf.putDouble(at + INERTIA, b.inertia);
+            buf.putDouble(at + HALF_W, b.bounds.w);
+            buf.putDouble(at + HALF_H, b.bounds.h);
+            buf.putInt(at + FLAGS, (b.isStatic ? STATIC : 0) | (b.fixedRotation ? FIXED_ROTATION : 0)
+                | (b.active ? ACTIVE : 0));
+        }
+        count = bodies.length;
+        buf.putInt(H_COUNT, count);
+        buf.putLong(H_TICK, tick);
+        SEQUENCE.setRelease(buf, H_SEQUENCE, sequence + 2);
+    }
+
+    /**
+     * Start a consistent read, waiting out a capture in progress
+     * @return Sequence to pass to {@link #validate} once the reads are done
+     */
+    public long beginRead() {
+        long sequence;
+        while (((sequence = (long) SEQUENCE.getAcquire(buf, H_SEQUENCE)) & 1) != 0) {
+            Thread.onSpinWait();
+        }
+        return sequence;
+    }
+
+    /**
+     * Whether nothing was captured since {@link #beginRead} returned the sequence,
+     * so the values read in between belong to one tick
+     */
+    public boolean validate(long sequence) {
+        VarHandle.loadLoadFence(); // Keep the reads before the check
+        return (long) SEQUENCE.getAcquire(buf, H_SEQUENCE) == sequence;
+    }
+
+    /**
+     * Copy records 0..n-1 back into the bodies, which must match what was captured
+     */
+    public void restore(Body[] bodies) {
+        int n = Math.min(bodies.length, count);
+        for (int i = 0; i < n; i++) {
+            Body b = bodies[i];
+            int at = base(i);
+            b.position.x = buf.getDouble(at + POS_X);
+            b.position.y = buf.getDouble(at + POS_Y);
+            b.prevX = buf.getDouble(at + PREV_X);
+            b.prevY = buf.getDouble(at + PREV_Y);
+            b.velocity.x = buf.getDouble(at + VEL_X);
+            b.velocity.y = buf.getDouble(at + VEL_Y);
+            b.force.x = buf.getDouble(at + FORCE_X);
+            b.force.y = buf.getDouble(at + FORCE_Y);
+            b.angle = buf.getDouble(at + ANGLE);
+            b.angularVelocity = buf.getDouble(at + ANG_VEL);
+            b.torque = buf.getDouble(at + TORQUE);
+            b.mass = buf.getDouble(at + MASS);
+            b.inertia = buf.getDouble(at + INERTIA);
+            b.bounds.w = buf.getDouble(at + HALF_W);
+            b.bounds.h = buf.getDouble(at + HALF_H);
+            int flags = buf.getInt(at + FLAGS);
+            b.isStatic = (flags & STATIC) != 0;
+            b.fixedRotation = (flags & FIXED_ROTATION) != 0;
+            b.active = (flags & ACTIVE) != 0;
+            b.bounds.x = b.position.x;
+            b.bounds.y = b.position.y;
+        }
+    }
+
+    /**
+     * Step every active record over the context's step, as {@link Body#integrate} does
+     */
+    public void integrate(StepContext c) {
+        double dt = c.dt;
+        for (int i = 0; i < count; i++) {
+            int at = base(i);
+            int flags = buf.getInt(at + FLAGS);
+            if ((flags & ACTIVE) == 0) {
+                continue;
+            }
+            double px = buf.getDouble(at + POS_X);
+            double py = buf.getDouble(at + POS_Y);
+            buf.putDouble(at + PREV_X, px);
+            buf.putDouble(at + PREV_Y, py);
+            if ((flags & STATIC) != 0) {
+                continue;
+            }
+
+            double mass = buf.getDouble(at + MASS);
+            double vx = buf.getDouble(at + VEL_X) + (buf.getDouble(at + FORCE_X) / mass) * dt;
+            double vy = buf.getDouble(at + VEL_Y) + (buf.getDouble(at + FORCE_Y) / mass) * dt;
+            vx *= c.damping;
+            vy *= c.damping;
+
+            boolean fixedRotation = (flags & FIXED_ROTATION) != 0;
+            double angle = buf.getDouble(at + ANGLE);
+            double ey = fixedRotation ? buf.getDouble(at + HALF_H)
+                : Math.abs(Math.sin(angle)) * buf.getDouble(at + HALF_W) + Math.abs(Math.cos(angle)) * buf.getDouble(at + HALF_H);
+            if (py - ey <= c.groundContactY) {
+                vx *= c.groundFriction;
+            }
+
+            buf.putDouble(at + POS_X, px + vx * dt);
+            buf.putDouble(at + POS_Y, py + vy * dt);
+            buf.putDouble(at + VEL_X, vx);
+            buf.putDouble(at + VEL_Y, vy);
+
+            if (!fixedRotation) {
+                double w = buf.getDouble(at + ANG_VEL) + (buf.getDouble(at + TORQUE) / buf.getDouble(at + INERTIA)) * dt;
+                w *= c.damping;
+                buf.putDouble(at + ANG_VEL, w);
+                buf.putDouble(at + ANGLE, angle + w * dt);
+            }
+
+            buf.putDouble(at + FORCE_X, 0);
+            buf.putDouble(at + FORCE_Y, 0);
+            buf.putDouble(at + TORQUE, 0);
+        }
+    }
+
+    public void addForce(int i, double fx, double fy) {
+        int at = base(i);
+        buf.putDouble(at + FORCE_X, buf.getDouble(at + FORCE_X) + fx);
+        buf.putDouble(at + FORCE_Y, buf.getDouble(at + FORCE_Y) + fy);
+    }
+
+    /**
+     * A double field of record i, by its {@link BodyLayout} offset
+     */
+    public double get(int i, int field) {
+        return buf.getDouble(base(i) + field);
+    }
+
+    public void set(int i, int field, double value) {
+        buf.putDouble(base(i) + field, value);
+    }
+
+    public int getFlags(int i) {
+        return buf.getInt(base(i) + FLAGS);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Tick of the last capture (read it between {@link #beginRead} and
+     * {@link #validate} when another process is writing)
+     */
+    public long getTick() {
+        return buf.getLong(H_TICK);
+    }
+
+    private static int base(int i) {
+        return HEADER_BYTES + i * RECORD_BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
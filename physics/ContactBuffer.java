@@ -0,0 +1,85 @@
+package physics;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of contacts stored as parallel arrays. Each narrowphase worker
+ * fills its own buffer; buffers are then appended in a fixed order.
+ */
+public class ContactBuffer {
+    private int[] a = new int[64];        // Body indices; the normal points from a to b
+    private int[] b = new int[64];
+    private double[] nx = new double[64];
+    private double[] ny = new double[64];
+    private double[] px = new double[64];  // Contact point
+    private double[] py = new double[64];
+    private double[] depth = new double[64];
+    private int size = 0;
+
+    public void add(int bodyA, int bodyB, double normalX, double normalY,
+                    double pointX, double pointY, double penetration) {
+        if (size == a.length) {
+            int n = size * 2;
+            a = Arrays.copyOf(a, n);
+            b = Arrays.copyOf(b, n);
+            nx = Arrays.copyOf(nx, n);
+            ny = Arrays.copyOf(ny, n);
+            px = Arrays.copyOf(px, n);
+            py = Arrays.copyOf(py, n);
+            depth = Arrays.copyOf(depth, n);
+        }
+        a[size] = bodyA;
+        b[size] = bodyB;
+        nx[size] = normalX;
+        ny[size] = normalY;
+        px[size] = pointX;
+        py[size] = pointY;
+        depth[size] = penetration;
+        size++;
+    }
+
+    /**
+     * Append all contacts of another buffer
+     */
+    public void addAll(ContactBuffer other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.a[i], other.b[i], other.nx[i], other.ny[i], other.px[i], other.py[i], other.depth[i]);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int bodyA(int i) {
+        return a[i];
+    }
+
+    public int bodyB(int i) {
+        return b[i];
+    }
+
+    public double normalX(int i) {
+        return nx[i];
+    }
+
+    public double normalY(int i) {
+        return ny[i];
+    }
+
+    public double pointX(int i) {
+        return px[i];
+    }
+
+    public double pointY(int i) {
+        return py[i];
+    }
+
+    public double depth(int i) {
+        return depth[i];
+    }
+}
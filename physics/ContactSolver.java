@@ -0,0 +1,425 @@
+package physics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiPredicate;
+
+/**
+ * Body-body contacts: sort-and-sweep broadphase, box narrowphase and an impulse
+ * solve.
+ *
+ * The broadphase keeps bodies sorted by the left edge of their bounds across ticks
+ * (insertion sort, nearly linear since bodies move little per tick) and sweeps for
+ * pairs whose x ranges overlap. Above a pair-count threshold the narrowphase is
+ * split into fixed-size chunks on the fork-join pool; each chunk writes its own
+ * contact buffer and the buffers are merged in chunk order, so the contact list and
+ * therefore the result are identical for any number of threads.
+ *
+ * Pairs where neither body rotates use a plain AABB test. Otherwise the boxes are
+ * tested with the separating axis theorem; the axis that separated a pair is
+ * remembered and tried first on the next tick, since pairs that were apart usually
+ * still are.
+ */
+public class ContactSolver {
+    private static final int PARALLEL_THRESHOLD = 256; // Pairs below which one thread is faster
+    private static final int CHUNK_PAIRS = 64;
+    private static final double RESTITUTION = 0.1;
+    private static final double CORRECTION = 0.8; // Share of penetration removed per tick
+    private static final double SLOP = 0.001;     // Penetration left alone, in meters
+    private static final double FRICTION = 0.5;
+
+    private final BiPredicate<Body, Body> filter;
+
+    // Broadphase
+    private int[] order = new int[0];
+    private int[] pairA = new int[256];
+    private int[] pairB = new int[256];
+    private int pairCount = 0;
+
+    // Separating axis per pair from the previous tick, and this tick's results
+    // (written per pair so chunks never share a slot)
+    private final PairCache separatingAxes = new PairCache();
+    private byte[] pairAxis = new byte[256];
+    private boolean[] pairCacheHit = new boolean[256];
+    private int cacheHits = 0;
+
+    // Narrowphase
+    private ContactBuffer[] chunkBuffers = new ContactBuffer[0];
+    private final ContactBuffer contacts = new ContactBuffer();
+    private Body[] bodies;
+
+    /**
+     * @param filter Which body pairs should collide
+     */
+    public ContactSolver(BiPredicate<Body, Body> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Find and resolve contacts between the given bodies
+     */
+    public void solve(Body[] bodies) {
+        this.bodies = bodies;
+        broadphase();
+        narrowphase();
+        resolve();
+        this.bodies = null;
+    }
+
+    private void broadphase() {
+        int n = bodies.length;
+        if (order.length != n) {
+            order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+        }
+
+        // Insertion sort by left edge, ties by index so the order is reproducible
+        for (int i = 1; i < n; i++) {
+            int body = order[i];
+            double key = bodies[body].minX();
+            int j = i - 1;
+            while (j >= 0 && before(body, key, order[j])) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = body;
+        }
+
+        pairCount = 0;
+        for (int i = 0; i < n; i++) {
+            Body a = bodies[order[i]];
+            if (!a.active) {
+                continue;
+            }
+            double maxX = a.maxX();
+            for (int j = i + 1; j < n; j++) {
+                Body b = bodies[order[j]];
+                if (b.minX() >= maxX) {
+                    break;
+                }
+                if (!b.active || (a.isStatic && b.isStatic) || !filter.test(a, b)) {
+                    continue;
+                }
+                addPair(order[i], order[j]);
+            }
+        }
+    }
+
+    private boolean before(int body, double key, int other) {
+        double otherKey = bodies[other].minX();
+        return key < otherKey || (key == otherKey && body < other);
+    }
+
+    private void addPair(int a, int b) {
+        if (pairCount == pairA.length) {
+            pairA = Arrays.copyOf(pairA, pairCount * 2);
+            pairB = Arrays.copyOf(pairB, pairCount * 2);
+            pairAxis = Arrays.copyOf(pairAxis, pairCount * 2);
+            pairCacheHit = Arrays.copyOf(pairCacheHit, pairCount * 2);
+        }
+        pairA[pairCount] = a;
+        pairB[pairCount] = b;
+        pairCount++;
+    }
+
+    private void narrowphase() {
+        contacts.clear();
+        if (pairCount < PARALLEL_THRESHOLD) {
+            testPairs(0, pairCount, contacts);
+        } else {
+            testChunks();
+        }
+
+        // Remember this tick's separating axes
+        separatingAxes.clear();
+        cacheHits = 0;
+        for (int p = 0; p < pairCount; p++) {
+            if (pairAxis[p] >= 0) {
+                separatingAxes.put(pairA[p], pairB[p], pairAxis[p]);
+            }
+            if (pairCacheHit[p]) {
+                cacheHits++;
+            }
+        }
+    }
+
+    private void testChunks() {
+        int chunks = (pairCount + CHUNK_PAIRS - 1) / CHUNK_PAIRS;
+        if (chunkBuffers.length < chunks) {
+            int old = chunkBuffers.length;
+            chunkBuffers = Arrays.copyOf(chunkBuffers, chunks);
+            for (int i = old; i < chunks; i++) {
+                chunkBuffers[i] = new ContactBuffer();
+            }
+        }
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks));
+        for (int c = 0; c < chunks; c++) {
+            contacts.addAll(chunkBuffers[c]);
+        }
+    }
+
+    /**
+     * Test a range of candidate pairs, writing contacts to the given buffer
+     */
+    private void testPairs(int from, int to, ContactBuffer out) {
+        for (int p = from; p < to; p++) {
+            Body a = bodies[pairA[p]];
+            Body b = bodies[pairB[p]];
+            pairCacheHit[p] = false;
+            if (a.fixedRotation && b.fixedRotation) {
+                pairAxis[p] = -1;
+                testAabbs(p, a.bounds, b.bounds, out);
+            } else {
+                pairAxis[p] = (byte) testBoxes(p, a, b, out);
+            }
+        }
+    }
+
+    /**
+     * Fast path for two bodies that never rotate
+     */
+    private void testAabbs(int p, AABB a, AABB b, ContactBuffer out) {
+        if (!a.overlaps(b)) {
+            return;
+        }
+        double dx = b.x - a.x;
+        double dy = b.y - a.y;
+        double px = a.w + b.w - Math.abs(dx);
+        double py = a.h + b.h - Math.abs(dy);
+        // Contact at the middle of the overlap
+        double cx = (Math.max(a.minX(), b.minX()) + Math.min(a.maxX(), b.maxX())) / 2;
+        double cy = (Math.max(a.y - a.h, b.y - b.h) + Math.min(a.y + a.h, b.y + b.h)) / 2;
+        // Push out along the axis of least penetration
+        if (px < py) {
+            out.add(pairA[p], pairB[p], dx >= 0 ? 1 : -1, 0, cx, cy, px);
+        } else {
+            out.add(pairA[p], pairB[p], 0, dy >= 0 ? 1 : -1, cx, cy, py);
+        }
+    }
+
+    /**
+     * Oriented box test by separating axes. Axes 0 and 1 are a's local x and y,
+     * 2 and 3 are b's.
+     * @return The separating axis, or -1 if the boxes touch or were rejected early
+     */
+    private int testBoxes(int p, Body a, Body b, ContactBuffer out) {
+        double dx = b.position.x - a.position.x;
+        double dy = b.position.y - a.position.y;
+        if (Math.abs(dx) >= a.extentX() + b.extentX() || Math.abs(dy) >= a.extentY() + b.extentY()) {
+            return -1; // Enclosing boxes don't even touch
+        }
+
+        double ca = Math.cos(a.angle);
+        double sa = Math.sin(a.angle);
+        double cb = Math.cos(b.angle);
+        double sb = Math.sin(b.angle);
+
+        int cached = separatingAxes.get(pairA[p], pairB[p]);
+        if (cached >= 0 && axisOverlap(cached, a, b, ca, sa, cb, sb, dx, dy) <= 0) {
+            pairCacheHit[p] = true;
+            return cached;
+        }
+
+        int minAxis = -1;
+        double minOverlap = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < 4; k++) {
+            double o = axisOverlap(k, a, b, ca, sa, cb, sb, dx, dy);
+            if (o <= 0) {
+                return k;
+            }
+            if (o < minOverlap) {
+                minOverlap = o;
+                minAxis = k;
+            }
+        }
+
+        // Contact normal from a to b
+        double nx = axisX(minAxis, ca, sa, cb, sb);
+        double ny = axisY(minAxis, ca, sa, cb, sb);
+        if (dx * nx + dy * ny < 0) {
+            nx = -nx;
+            ny = -ny;
+        }
+
+        // The box owning the axis is the reference; the contact is where the other
+        // box's corners poke through the reference face
+        boolean referenceA = minAxis < 2;
+        Body ref = referenceA ? a : b;
+        Body inc = referenceA ? b : a;
+        double rnx = referenceA ? nx : -nx;
+        double rny = referenceA ? ny : -ny;
+        double cr = referenceA ? ca : cb;
+        double sr = referenceA ? sa : sb;
+        double face = ref.position.x * rnx + ref.position.y * rny
+            + ref.bounds.w * Math.abs(rnx * cr + rny * sr) + ref.bounds.h * Math.abs(-rnx * sr + rny * cr);
+
+        int i1 = -1;
+        int i2 = -1;
+        double d1 = 0;
+        double d2 = 0;
+        for (int i = 0; i < 4; i++) {
+            double d = face - (inc.cornerX(i) * rnx + inc.cornerY(i) * rny);
+            if (i1 < 0 || d > d1) {
+                i2 = i1;
+                d2 = d1;
+                i1 = i;
+                d1 = d;
+            } else if (i2 < 0 || d > d2) {
+                i2 = i;
+                d2 = d;
+            }
+        }
+        if (d1 <= 0) {
+            return -1;
+        }
+        double cx = inc.cornerX(i1);
+        double cy = inc.cornerY(i1);
+        if (d2 > 0) {
+            // A whole face is in contact: push at the point of the face nearest the
+            // incident box's center, so a resting box doesn't rock between corners
+            double ex = inc.cornerX(i2) - cx;
+            double ey = inc.cornerY(i2) - cy;
+            double len2 = ex * ex + ey * ey;
+            if (len2 > 1e-12) {
+                double f = ((inc.position.x - cx) * ex + (inc.position.y - cy) * ey) / len2;
+                f = Math.max(0, Math.min(1, f));
+                cx += ex * f;
+                cy += ey * f;
+            }
+        }
+        out.add(pairA[p], pairB[p], nx, ny, cx, cy, d1);
+        return -1;
+    }
+
+    private static double axisX(int k, double ca, double sa, double cb, double sb) {
+        switch (k) {
+            case 0: return ca;
+            case 1: return -sa;
+            case 2: return cb;
+            default: return -sb;
+        }
+    }
+
+    private static double axisY(int k, double ca, double sa, double cb, double sb) {
+        switch (k) {
+            case 0: return sa;
+            case 1: return ca;
+            case 2: return sb;
+            default: return cb;
+        }
+    }
+
+    /**
+     * Overlap of the two boxes' projections on an axis (negative or zero if separated)
+     */
+    private static double axisOverlap(int k, Body a, Body b, double ca, double sa, double cb, double sb,
+                                      double dx, double dy) {
+        double ux = axisX(k, ca, sa, cb, sb);
+        double uy = axisY(k, ca, sa, cb, sb);
+        double ra = a.bounds.w * Math.abs(ux * ca + uy * sa) + a.bounds.h * Math.abs(-ux * sa + uy * ca);
+        double rb = b.bounds.w * Math.abs(ux * cb + uy * sb) + b.bounds.h * Math.abs(-ux * sb + uy * cb);
+        return ra + rb - Math.abs(dx * ux + dy * uy);
+    }
+
+    /**
+     * Separate bodies and remove their closing velocity, in contact list order
+     */
+    private void resolve() {
+        for (int i = 0; i < contacts.size(); i++) {
+            Body a = bodies[contacts.bodyA(i)];
+            Body b = bodies[contacts.bodyB(i)];
+            double invA = a.isStatic ? 0 : 1 / a.mass;
+            double invB = b.isStatic ? 0 : 1 / b.mass;
+            double invSum = invA + invB;
+            if (invSum == 0) {
+                continue;
+            }
+            double nx = contacts.normalX(i);
+            double ny = contacts.normalY(i);
+            double px = contacts.pointX(i);
+            double py = contacts.pointY(i);
+
+            double correction = Math.max(contacts.depth(i) - SLOP, 0) * CORRECTION / invSum;
+            a.position.x -= nx * correction * invA;
+            a.position.y -= ny * correction * invA;
+            b.position.x += nx * correction * invB;
+            b.position.y += ny * correction * invB;
+
+            double vx = b.pointVelocityX(px, py) - a.pointVelocityX(px, py);
+            double vy = b.pointVelocityY(px, py) - a.pointVelocityY(px, py);
+            double vn = vx * nx + vy * ny;
+            if (vn < 0) {
+                double j = -(1 + RESTITUTION) * vn / (a.inverseMassAt(px, py, nx, ny) + b.inverseMassAt(px, py, nx, ny));
+                a.applyImpulse(px, py, -j * nx, -j * ny);
+                b.applyImpulse(px, py, j * nx, j * ny);
+
+                // Friction along the contact tangent
+                double tx = -ny;
+                double ty = nx;
+                vx = b.pointVelocityX(px, py) - a.pointVelocityX(px, py);
+                vy = b.pointVelocityY(px, py) - a.pointVelocityY(px, py);
+                double vt = vx * tx + vy * ty;
+                double jt = -vt / (a.inverseMassAt(px, py, tx, ty) + b.inverseMassAt(px, py, tx, ty));
+                jt = Math.max(-FRICTION * j, Math.min(FRICTION * j, jt));
+                a.applyImpulse(px, py, -jt * tx, -jt * ty);
+                b.applyImpulse(px, py, jt * tx, jt * ty);
+            }
+
+            a.bounds.x = a.position.x;
+            a.bounds.y = a.position.y;
+            b.bounds.x = b.position.x;
+            b.bounds.y = b.position.y;
+        }
+    }
+
+    /**
+     * Contacts found in the last solve
+     */
+    public int getContactCount() {
+        return contacts.size();
+    }
+
+    /**
+     * Pairs rejected in the last solve by their cached separating axis
+     */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Candidate pairs from the last broadphase
+     */
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    /**
+     * Narrowphase over a range of chunks, split in half until one chunk is left
+     */
+    private class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        ChunkTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                ContactBuffer buffer = chunkBuffers[from];
+                buffer.clear();
+                testPairs(from * CHUNK_PAIRS, Math.min((from + 1) * CHUNK_PAIRS, pairCount), buffer);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, mid), new ChunkTask(mid, to));
+        }
+    }
+}
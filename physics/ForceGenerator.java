@@ -0,0 +1,11 @@
+package physics;
+
+import core.World;
+
+/**
+ * Something that pushes on a body (motors, brakes). Called once per tick in the
+ * force phase, before bodies are integrated.
+ */
+public interface ForceGenerator {
+    void applyForce(World world, double dt);
+}
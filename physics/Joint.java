@@ -0,0 +1,45 @@
+package physics;
+
+/**
+ * Constraint between two bodies, solved by a {@link JointSolver} with sequential
+ * impulses. Bodies with fixed rotation act as if they had infinite inertia and
+ * static bodies as if they had infinite mass.
+ */
+public abstract class Joint {
+    protected static final double BAUMGARTE = 0.2; // Share of position error removed per step
+
+    public final Body a;
+    public final Body b;
+    public boolean kinematicA = false; // Body a is moved elsewhere and isn't pushed back by the joint
+
+    protected Joint(Body a, Body b) {
+        this.a = a;
+        this.b = b;
+    }
+
+    /**
+     * Start a step: forget the impulses accumulated during the previous one
+     */
+    public abstract void prepare(double dt);
+
+    /**
+     * Apply one round of corrective impulses to the bodies' velocities
+     */
+    public abstract void solveVelocity(double dt);
+
+    protected double inverseMass(Body body) {
+        return body.isStatic || (body == a && kinematicA) ? 0 : 1 / body.mass;
+    }
+
+    protected double inverseInertia(Body body) {
+        return body.isStatic || body.fixedRotation || (body == a && kinematicA) ? 0 : 1 / body.inertia;
+    }
+
+    /**
+     * Apply an accumulated impulse that must stay within [min, max]; returns the
+     * part of the given impulse that was actually allowed
+     */
+    protected static double clampImpulse(double accumulated, double impulse, double min, double max) {
+        return Math.max(min, Math.min(max, accumulated + impulse)) - accumulated;
+    }
+}
@@ -0,0 +1,88 @@
+package physics;
+
+import core.World;
+
+/**
+ * Steps a small set of bodies held together by joints.
+ *
+ * The solver owns the bodies it moves: it applies gravity, runs a fixed number of
+ * velocity iterations over the joints, then integrates the positions. Joints may
+ * also connect to bodies integrated elsewhere (such as a robot chassis); those
+ * receive the joints' impulses unless marked kinematic. Bodies resting on an owned
+ * body are handed over as {@link SupportContact}s during the collision phase and
+ * solved in the same iterations. The iteration count is fixed, so the cost per step
+ * is bounded no matter how hard the joints are loaded.
+ */
+public class JointSolver {
+    public static final int ITERATIONS = 8;
+
+    private final Body[] bodies;
+    private final Joint[] joints;
+    private SupportContact[] contacts = new SupportContact[4];
+    private int contactCount = 0;
+
+    public JointSolver(Body[] bodies, Joint[] joints) {
+        this.bodies = bodies;
+        this.joints = joints;
+        for (Body body : bodies) {
+            body.solver = this;
+        }
+        for (int i = 0; i < contacts.length; i++) {
+            contacts[i] = new SupportContact();
+        }
+    }
+
+    /**
+     * Add a contact of a body resting on one of this solver's bodies, to be solved in
+     * the next step
+     *
+     * @param nx Surface normal at the contact, pointing toward the resting body
+     */
+    public void addContact(Body surface, Body body, double px, double py, double nx, double ny, double friction) {
+        if (contactCount == contacts.length) {
+            SupportContact[] grown = new SupportContact[contacts.length * 2];
+            System.arraycopy(contacts, 0, grown, 0, contacts.length);
+            for (int i = contacts.length; i < grown.length; i++) {
+                grown[i] = new SupportContact();
+            }
+            contacts = grown;
+        }
+        contacts[contactCount++].set(surface, body, px, py, nx, ny, friction);
+    }
+
+    public void step(World world, double dt) {
+        double gravityDv = world.stepContext.gravityDv;
+        for (Body body : bodies) {
+            if (!body.isStatic) {
+                body.velocity.y += gravityDv;
+            }
+        }
+
+        // Contacts first in each round, so the joints' force limits have the last word
+        for (Joint joint : joints) {
+            joint.prepare(dt);
+        }
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (int c = 0; c < contactCount; c++) {
+                contacts[c].solveVelocity();
+            }
+            for (Joint joint : joints) {
+                joint.solveVelocity(dt);
+            }
+        }
+        contactCount = 0;
+
+        for (Body body : bodies) {
+            if (body.isStatic) {
+                continue;
+            }
+            body.position.x += body.velocity.x * dt;
+            body.position.y += body.velocity.y * dt;
+            if (!body.fixedRotation) {
+                body.angle += body.angularVelocity * dt;
+            }
+            body.bounds.x = body.position.x;
+            body.bounds.y = body.position.y;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package physics;
+
+/**
+ * Per-thread pool of temporary vectors and boxes, for geometry code that needs a
+ * few intermediate results without allocating them.
+ *
+ * Take objects after {@link #push()} and give them all back with the matching
+ * {@link #pop()}; anything taken must not be kept past the pop. Pushes nest, so a
+ * method using the pool can call another that uses it too:
+ * <pre>
+ * MathScratch scratch = MathScratch.get();
+ * scratch.push();
+ * try {
+ *     Vec2 tip = robot.getForkTipWorld(scratch.vec());
+ *     ...
+ * } finally {
+ *     scratch.pop();
+ * }
+ * </pre>
+ * The pool only grows, so once warmed up it never allocates.
+ */
+public final class MathScratch {
+    private static final ThreadLocal<MathScratch> LOCAL = ThreadLocal.withInitial(MathScratch::new);
+
+    private Vec2[] vecs = new Vec2[0];
+    private int vecCount = 0;
+    private AABB[] boxes = new AABB[0];
+    private int boxCount = 0;
+
+    // Counts to go back to at each pop, two per level
+    private int[] marks = new int[16];
+    private int depth = 0;
+
+    private MathScratch() {
+    }
+
+    /**
+     * The calling thread's pool
+     */
+    public static MathScratch get() {
+        return LOCAL.get();
+    }
+
+    public void push() {
+        if (2 * depth == marks.length) {
+            int[] grown = new int[marks.length * 2];
+            System.arraycopy(marks, 0, grown, 0, marks.length);
+            marks = grown;
+        }
+        marks[2 * depth] = vecCount;
+        marks[2 * depth + 1] = boxCount;
+        depth++;
+    }
+
+    /**
+     * Give back everything taken since the matching push
+     */
+    public void pop() {
+        if (depth == 0) {
+            throw new IllegalStateException("pop without push");
+        }
+        depth--;
+        vecCount = marks[2 * depth];
+        boxCount = marks[2 * depth + 1];
+    }
+
+    /**
+     * A zero vector, valid until the pop
+     */
+    public Vec2 vec() {
+        if (vecCount == vecs.length) {
+            Vec2[] grown = new Vec2[Math.max(8, vecs.length * 2)];
+            System.arraycopy(vecs, 0, grown, 0, vecs.length);
+            for (int i = vecs.length; i < grown.length; i++) {
+                grown[i] = new Vec2();
+            }
+            vecs = grown;
+        }
+        return vecs[vecCount++].set(0, 0);
+    }
+
+    /**
+     * An empty box at the origin, valid until the pop
+     */
+    public AABB box() {
+        if (boxCount == boxes.length) {
+            AABB[] grown = new AABB[Math.max(8, boxes.length * 2)];
+            System.arraycopy(boxes, 0, grown, 0, boxes.length);
+            for (int i = boxes.length; i < grown.length; i++) {
+                grown[i] = new AABB(0, 0, 0, 0);
+            }
+            boxes = grown;
+        }
+        return boxes[boxCount++].set(0, 0, 0, 0);
+    }
+}
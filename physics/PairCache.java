@@ -0,0 +1,93 @@
+package physics;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from a body pair to a small value, without boxing.
+ * Used to remember the axis that separated a pair on the previous tick.
+ */
+public class PairCache {
+    private static final long EMPTY = -1;
+
+    private long[] keys = new long[256];
+    private byte[] values = new byte[256];
+    private int size = 0;
+
+    public PairCache() {
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private static long key(int a, int b) {
+        return ((long)Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    /**
+     * Value stored for the pair, or -1 if none
+     */
+    public int get(int a, int b) {
+        long k = key(a, b);
+        int mask = keys.length - 1;
+        for (int i = slot(k, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == k) {
+                return values[i];
+            }
+            if (keys[i] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    public void put(int a, int b, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        long k = key(a, b);
+        int mask = keys.length - 1;
+        int i = slot(k, mask);
+        while (keys[i] != EMPTY && keys[i] != k) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == EMPTY) {
+            size++;
+        }
+        keys[i] = k;
+        values[i] = (byte) value;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int slot(long k, int mask) {
+        long h = k * 0x9E3779B97F4A7C15L;
+        return (int)(h >>> 40) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new byte[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = slot(oldKeys[i], mask);
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+                size++;
+            }
+        }
+    }
+}
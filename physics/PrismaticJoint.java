@@ -0,0 +1,136 @@
+package physics;
+
+/**
+ * Lets body b slide along an axis fixed to body a, within limits, driven by a motor
+ * with a maximum force that drops off toward the motor's free speed. Both bodies must
+ * have fixed rotation.
+ */
+public class PrismaticJoint extends Joint {
+    // Where b sits at zero translation, relative to a's center, and the slide axis (unit)
+    public final double anchorX;
+    public final double anchorY;
+    public final double axisX;
+    public final double axisY;
+
+    public double lower;          // Translation limits in meters
+    public double upper;
+    public double motorSpeed;     // Target speed of b along the axis, m/s
+    public double maxMotorForce;  // N
+    public double freeSpeed;      // Speed at which the motor has no force left to drive with (0 for no limit)
+
+    // Impulses accumulated this step
+    private double motorImpulse;
+    private double lowerImpulse;
+    private double upperImpulse;
+    private double motorMin;
+    private double motorMax;
+    private double lastDt = 1;
+
+    public PrismaticJoint(Body a, Body b, double anchorX, double anchorY, double axisX, double axisY,
+                          double lower, double upper, double maxMotorForce) {
+        super(a, b);
+        this.anchorX = anchorX;
+        this.anchorY = anchorY;
+        this.axisX = axisX;
+        this.axisY = axisY;
+        this.lower = lower;
+        this.upper = upper;
+        this.maxMotorForce = maxMotorForce;
+    }
+
+    /**
+     * Position of b along the axis
+     */
+    public double getTranslation() {
+        return (b.position.x - a.position.x - anchorX) * axisX + (b.position.y - a.position.y - anchorY) * axisY;
+    }
+
+    /**
+     * Force the joint applied to b along the axis during the last step (motor plus
+     * limits), in Newtons
+     */
+    public double getAxialForce() {
+        return (motorImpulse + lowerImpulse - upperImpulse) / lastDt;
+    }
+
+    /**
+     * Copy set-points and the last step's impulses from another joint
+     */
+    public void copyStateFrom(PrismaticJoint src) {
+        motorSpeed = src.motorSpeed;
+        motorImpulse = src.motorImpulse;
+        lowerImpulse = src.lowerImpulse;
+        upperImpulse = src.upperImpulse;
+        lastDt = src.lastDt;
+    }
+
+    @Override
+    public void prepare(double dt) {
+        motorImpulse = 0;
+        lowerImpulse = 0;
+        upperImpulse = 0;
+        lastDt = dt;
+
+        // Like a DC motor, the force available to drive falls off linearly with speed;
+        // holding and braking get the full force
+        double max = maxMotorForce * dt;
+        motorMin = -max;
+        motorMax = max;
+        if (freeSpeed > 0 && motorSpeed != 0) {
+            double dir = Math.signum(motorSpeed);
+            double drive = max * Math.max(0, Math.min(1, 1 - axialSpeed() * dir / freeSpeed));
+            if (dir > 0) {
+                motorMax = drive;
+            } else {
+                motorMin = -drive;
+            }
+        }
+    }
+
+    @Override
+    public void solveVelocity(double dt) {
+        double ima = inverseMass(a);
+        double imb = inverseMass(b);
+        double k = ima + imb;
+        if (k == 0) {
+            return;
+        }
+
+        // Motor
+        double impulse = clampImpulse(motorImpulse, -(axialSpeed() - motorSpeed) / k, motorMin, motorMax);
+        motorImpulse += impulse;
+        push(axisX, axisY, impulse, ima, imb);
+
+        // Limits; while clear of a limit, only stop b from passing it during this step
+        double t = getTranslation();
+        double c = t - lower;
+        double bias = c > 0 ? c / dt : BAUMGARTE * c / dt;
+        impulse = clampImpulse(lowerImpulse, -(axialSpeed() + bias) / k, 0, Double.POSITIVE_INFINITY);
+        lowerImpulse += impulse;
+        push(axisX, axisY, impulse, ima, imb);
+
+        c = upper - t;
+        bias = c > 0 ? c / dt : BAUMGARTE * c / dt;
+        impulse = clampImpulse(upperImpulse, -(-axialSpeed() + bias) / k, 0, Double.POSITIVE_INFINITY);
+        upperImpulse += impulse;
+        push(axisX, axisY, -impulse, ima, imb);
+
+        // Stay on the axis
+        double px = -axisY;
+        double py = axisX;
+        double error = (b.position.x - a.position.x - anchorX) * px + (b.position.y - a.position.y - anchorY) * py;
+        double sideSpeed = (b.velocity.x - a.velocity.x) * px + (b.velocity.y - a.velocity.y) * py;
+        push(px, py, -(sideSpeed + BAUMGARTE * error / dt) / k, ima, imb);
+    }
+
+    private double axialSpeed() {
+        return (b.velocity.x - a.velocity.x) * axisX + (b.velocity.y - a.velocity.y) * axisY;
+    }
+
+    private void push(double dx, double dy, double impulse, double ima, double imb) {
+        a.velocity.x -= dx * impulse * ima;
+        a.velocity.y -= dy * impulse * ima;
+        b.velocity.x += dx * impulse * imb;
+        b.velocity.y += dy * impulse * imb;
+    }
+}
@@ -0,0 +1,131 @@
+package physics;
+
+/**
+ * Pins a point of body b to a point of body a, letting b turn relative to a within
+ * limits, driven by a motor with a maximum torque.
+ */
+public class RevoluteJoint extends Joint {
+    // The pin in each body's own frame, relative to its center
+    public final double anchorAX;
+    public final double anchorAY;
+    public final double anchorBX;
+    public final double anchorBY;
+
+    public double lower;           // Angle limits in radians
+    public double upper;
+    public double motorSpeed;      // Target angular speed of b relative to a, rad/s
+    public double maxMotorTorque;  // N*m
+
+    // Impulses accumulated this step
+    private double motorImpulse;
+    private double lowerImpulse;
+    private double upperImpulse;
+
+    public RevoluteJoint(Body a, Body b, double anchorAX, double anchorAY, double anchorBX, double anchorBY,
+                         double lower, double upper, double maxMotorTorque) {
+        super(a, b);
+        this.anchorAX = anchorAX;
+        this.anchorAY = anchorAY;
+        this.anchorBX = anchorBX;
+        this.anchorBY = anchorBY;
+        this.lower = lower;
+        this.upper = upper;
+        this.maxMotorTorque = maxMotorTorque;
+    }
+
+    /**
+     * Angle of b relative to a, in radians
+     */
+    public double getAngle() {
+        return b.angle - a.angle;
+    }
+
+    /**
+     * Copy set-points and the last step's impulses from another joint
+     */
+    public void copyStateFrom(RevoluteJoint src) {
+        motorSpeed = src.motorSpeed;
+        motorImpulse = src.motorImpulse;
+        lowerImpulse = src.lowerImpulse;
+        upperImpulse = src.upperImpulse;
+    }
+
+    @Override
+    public void prepare(double dt) {
+        motorImpulse = 0;
+        lowerImpulse = 0;
+        upperImpulse = 0;
+    }
+
+    @Override
+    public void solveVelocity(double dt) {
+        double ima = inverseMass(a);
+        double imb = inverseMass(b);
+        double iia = inverseInertia(a);
+        double iib = inverseInertia(b);
+
+        // Keep the pins together
+        double cosA = Math.cos(a.angle);
+        double sinA = Math.sin(a.angle);
+        double rax = anchorAX * cosA - anchorAY * sinA;
+        double ray = anchorAX * sinA + anchorAY * cosA;
+        double cosB = Math.cos(b.angle);
+        double sinB = Math.sin(b.angle);
+        double rbx = anchorBX * cosB - anchorBY * sinB;
+        double rby = anchorBX * sinB + anchorBY * cosB;
+
+        double ex = b.position.x + rbx - a.position.x - rax;
+        double ey = b.position.y + rby - a.position.y - ray;
+        double vx = b.velocity.x - b.angularVelocity * rby - a.velocity.x + a.angularVelocity * ray;
+        double vy = b.velocity.y + b.angularVelocity * rbx - a.velocity.y - a.angularVelocity * rax;
+        vx += BAUMGARTE * ex / dt;
+        vy += BAUMGARTE * ey / dt;
+
+        double k11 = ima + imb + iia * ray * ray + iib * rby * rby;
+        double k12 = -iia * rax * ray - iib * rbx * rby;
+        double k22 = ima + imb + iia * rax * rax + iib * rbx * rbx;
+        double det = k11 * k22 - k12 * k12;
+        if (det != 0) {
+            double jx = -(k22 * vx - k12 * vy) / det;
+            double jy = -(k11 * vy - k12 * vx) / det;
+
+            a.velocity.x -= jx * ima;
+            a.velocity.y -= jy * ima;
+            a.angularVelocity -= (rax * jy - ray * jx) * iia;
+            b.velocity.x += jx * imb;
+            b.velocity.y += jy * imb;
+            b.angularVelocity += (rbx * jy - rby * jx) * iib;
+        }
+
+        // Motor and limits act on the relative rotation only. Solved after the pin so
+        // the motor's speed holds exactly and the pin's small error is left to the bias
+        double ki = iia + iib;
+        if (ki > 0) {
+            double spin = b.angularVelocity - a.angularVelocity;
+            double max = maxMotorTorque * dt;
+            double impulse = clampImpulse(motorImpulse, -(spin - motorSpeed) / ki, -max, max);
+            motorImpulse += impulse;
+            turn(impulse, iia, iib);
+
+            double angle = getAngle();
+            double c = angle - lower;
+            double bias = c > 0 ? c / dt : BAUMGARTE * c / dt;
+            spin = b.angularVelocity - a.angularVelocity;
+            impulse = clampImpulse(lowerImpulse, -(spin + bias) / ki, 0, Double.POSITIVE_INFINITY);
+            lowerImpulse += impulse;
+            turn(impulse, iia, iib);
+
+            c = upper - angle;
+            bias = c > 0 ? c / dt : BAUMGARTE * c / dt;
+            spin = b.angularVelocity - a.angularVelocity;
+            impulse = clampImpulse(upperImpulse, -(-spin + bias) / ki, 0, Double.POSITIVE_INFINITY);
+            upperImpulse += impulse;
+            turn(-impulse, iia, iib);
+        }
+    }
+
+    private void turn(double impulse, double iia, double iib) {
+        a.angularVelocity -= impulse * iia;
+        b.angularVelocity += impulse * iib;
+    }
+}
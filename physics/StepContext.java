@@ -0,0 +1,121 @@
+package physics;
+
+import java.util.List;
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Everything a body's step reads that is the same for every body in a tick: the
+ * damping and friction factors for this step size, gravity, the field limits, the
+ * bucket's walls and each robot's fork blade.
+ *
+ * The world prepares it once at the start of each tick, so the per-body integration
+ * and collision code is plain arithmetic on fields instead of {@code Math.pow} calls
+ * and geometry rebuilt for every body. The forks only move in the constraints phase,
+ * after collisions, so their blade stays valid for the whole tick.
+ */
+public class StepContext {
+    public double dt;
+    public double damping;         // Share of velocity kept after linear damping
+    public double groundFriction;  // Share of horizontal velocity kept when on the ground
+    public double gravity;         // m/s^2
+    public double gravityDv;       // Vertical velocity gravity adds in one step
+
+    // Field limits
+    public double groundY;
+    public double groundContactY;  // Bodies whose bottom is below this feel ground friction
+    public double leftX;
+    public double rightX;
+
+    // Bucket, if there is one. Its walls are given as full sizes.
+    public boolean hasBucket;
+    public double wallX, wallY, wallW, wallH;
+    public double wallLeft, wallRight, wallBottom, wallTop;
+    public double floorX, floorY, floorW, floorH;
+    public double floorLeft, floorTop;   // Start and height of the surface cargo rests on
+
+    // One fork blade per robot
+    public int forkCount;
+    public Fork[] forks = new Fork[0];
+
+    private final AABB wall = new AABB(0, 0, 0, 0);
+    private final AABB floor = new AABB(0, 0, 0, 0);
+
+    /**
+     * A robot's fork blade as it stands this tick
+     */
+    public static class Fork {
+        public Body body;
+        public double x, y;              // Center
+        public double vx, vy;
+        public double extentX, extentY;  // Half size of the enclosing axis-aligned box
+        public double tipX, tipY;        // Top face start (corner 2), where cargo rests
+        public double cos, sin;          // Blade direction
+        public double length;            // Top face length
+        public double thickness;         // Full blade thickness
+    }
+
+    /**
+     * Compute this tick's values from the world's current parameters and layout
+     */
+    public void prepare(World world, double dt) {
+        this.dt = dt;
+        damping = Math.pow(world.linearDamping, dt);
+        groundFriction = Math.pow(world.groundFriction, dt);
+        gravity = world.gravity;
+        gravityDv = world.gravity * dt;
+
+        groundY = world.groundY;
+        groundContactY = world.groundY + 0.01;
+        leftX = world.leftX;
+        rightX = world.rightX;
+
+        hasBucket = world.bucket != null;
+        if (hasBucket) {
+            world.bucket.getRightWall(wall);
+            wallX = wall.x;
+            wallY = wall.y;
+            wallW = wall.w;
+            wallH = wall.h;
+            wallLeft = wall.x - wall.w/2;
+            wallRight = wall.x + wall.w/2;
+            wallBottom = wall.y - wall.h/2;
+            wallTop = wall.y + wall.h/2;
+            world.bucket.getBottom(floor);
+            floorX = floor.x;
+            floorY = floor.y;
+            floorW = floor.w;
+            floorH = floor.h;
+            floorLeft = floor.x - floor.w/2;
+            floorTop = floor.y + floor.h/2;
+        }
+
+        List<Robot> robots = world.robots;
+        if (forks.length < robots.size()) {
+            Fork[] grown = new Fork[robots.size()];
+            System.arraycopy(forks, 0, grown, 0, forks.length);
+            for (int i = forks.length; i < grown.length; i++) {
+                grown[i] = new Fork();
+            }
+            forks = grown;
+        }
+        forkCount = robots.size();
+        for (int i = 0; i < forkCount; i++) {
+            Body b = robots.get(i).mast.forks;
+            Fork f = forks[i];
+            f.body = b;
+            f.x = b.position.x;
+            f.y = b.position.y;
+            f.vx = b.velocity.x;
+            f.vy = b.velocity.y;
+            f.extentX = b.extentX();
+            f.extentY = b.extentY();
+            f.tipX = b.cornerX(2);
+            f.tipY = b.cornerY(2);
+            f.cos = Math.cos(b.angle);
+            f.sin = Math.sin(b.angle);
+            f.length = 2 * b.bounds.w;
+            f.thickness = 2 * b.bounds.h;
+        }
+    }
+}
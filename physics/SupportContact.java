@@ -0,0 +1,69 @@
+package physics;
+
+/**
+ * A body resting on a surface that belongs to a jointed mechanism. Solved inside the
+ * mechanism's {@link JointSolver} together with its joints, so the motors holding the
+ * surface feel the load through their force limits.
+ */
+public class SupportContact {
+    private Body surface;
+    private Body body;
+    private double px;
+    private double py;
+    private double nx;  // Surface normal, pointing toward the body
+    private double ny;
+    private double friction;
+
+    // Impulses accumulated this step
+    private double normalImpulse;
+    private double tangentImpulse;
+
+    void set(Body surface, Body body, double px, double py, double nx, double ny, double friction) {
+        this.surface = surface;
+        this.body = body;
+        this.px = px;
+        this.py = py;
+        this.nx = nx;
+        this.ny = ny;
+        this.friction = friction;
+        normalImpulse = 0;
+        tangentImpulse = 0;
+    }
+
+    /**
+     * Normal force the surface exerted on the body during the last step, in Newtons
+     */
+    public double getNormalForce(double dt) {
+        return normalImpulse / dt;
+    }
+
+    void solveVelocity() {
+        // Stop the body moving into the surface
+        double k = body.inverseMassAt(px, py, nx, ny) + surface.inverseMassAt(px, py, nx, ny);
+        double j = -relativeVelocity(nx, ny) / k;
+        j = Math.max(0, normalImpulse + j) - normalImpulse;
+        normalImpulse += j;
+        push(nx * j, ny * j);
+
+        // Coulomb friction
+        double tx = ny;
+        double ty = -nx;
+        k = body.inverseMassAt(px, py, tx, ty) + surface.inverseMassAt(px, py, tx, ty);
+        double jt = -relativeVelocity(tx, ty) / k;
+        double max = friction * normalImpulse;
+        jt = Math.max(-max, Math.min(max, tangentImpulse + jt)) - tangentImpulse;
+        tangentImpulse += jt;
+        push(tx * jt, ty * jt);
+    }
+
+    private double relativeVelocity(double dx, double dy) {
+        double vx = body.pointVelocityX(px, py) - surface.pointVelocityX(px, py);
+        double vy = body.pointVelocityY(px, py) - surface.pointVelocityY(px, py);
+        return vx * dx + vy * dy;
+    }
+
+    private void push(double jx, double jy) {
+        body.applyImpulse(px, py, jx, jy);
+        surface.applyImpulse(px, py, -jx, -jy);
+    }
+}
@@ -0,0 +1,101 @@
+package physics;
+
+/**
+ * Swept box test: finds when a box moving in a straight line over one step first
+ * touches another box. Keeps the earliest hit found since the last {@link #reset},
+ * so one instance can be tested against several obstacles in turn.
+ */
+public class Sweep {
+    public double t;          // Time of the earliest hit as a fraction of the step, 1 if none
+    public double nx;         // Normal of the face hit, pointing back toward the moving box
+    public double ny;
+    public double obstacleDx; // Displacement of the obstacle hit over the step
+    public double obstacleDy;
+    public double obstacleVx; // Velocity of the obstacle hit
+    public double obstacleVy;
+    public Body other;        // Body hit if it can be pushed, null for fixed or driven obstacles
+
+    public void reset() {
+        t = 1;
+        nx = 0;
+        ny = 0;
+        obstacleDx = 0;
+        obstacleDy = 0;
+        obstacleVx = 0;
+        obstacleVy = 0;
+        other = null;
+    }
+
+    /**
+     * Sweep box a (center and half extents at the start of the step) against box b,
+     * both moving by the given displacements. Boxes that already overlap at the start
+     * are left to the discrete contacts.
+     *
+     * @return true if this is the earliest hit so far; the caller then fills in the
+     *         obstacle's velocity and body
+     */
+    public boolean test(double ax, double ay, double aw, double ah, double adx, double ady,
+                        double bx, double by, double bw, double bh, double bdx, double bdy) {
+        // Sweep a point against b grown by a's half extents, in b's frame
+        double ex = aw + bw;
+        double ey = ah + bh;
+        double px = ax - bx;
+        double py = ay - by;
+        double dx = adx - bdx;
+        double dy = ady - bdy;
+        if (Math.abs(px) < ex && Math.abs(py) < ey) {
+            return false;
+        }
+
+        double enterX;
+        double exitX;
+        if (dx == 0) {
+            if (Math.abs(px) >= ex) {
+                return false;
+            }
+            enterX = Double.NEGATIVE_INFINITY;
+            exitX = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (-ex - px) / dx;
+            double t2 = (ex - px) / dx;
+            enterX = Math.min(t1, t2);
+            exitX = Math.max(t1, t2);
+        }
+
+        double enterY;
+        double exitY;
+        if (dy == 0) {
+            if (Math.abs(py) >= ey) {
+                return false;
+            }
+            enterY = Double.NEGATIVE_INFINITY;
+            exitY = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (-ey - py) / dy;
+            double t2 = (ey - py) / dy;
+            enterY = Math.min(t1, t2);
+            exitY = Math.max(t1, t2);
+        }
+
+        double enter = Math.max(enterX, enterY);
+        double exit = Math.min(exitX, exitY);
+        if (enter > exit || enter < 0 || enter >= t) {
+            return false;
+        }
+
+        t = enter;
+        if (enterX > enterY) {
+            nx = dx > 0 ? -1 : 1;
+            ny = 0;
+        } else {
+            nx = 0;
+            ny = dy > 0 ? -1 : 1;
+        }
+        obstacleDx = bdx;
+        obstacleDy = bdy;
+        obstacleVx = 0;
+        obstacleVy = 0;
+        other = null;
+        return true;
+    }
+}
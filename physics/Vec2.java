@@ -3,6 +3,10 @@ package physics;
 /**
  * Represents a 2D vector with x and y components.
  * Used for positions, velocities, and forces in the simulation.
+ *
+ * Operations write into the vector they are called on and return it, so results
+ * can go into an existing vector (a field, or one from {@link MathScratch}) instead
+ * of a new one. Arguments may be the destination itself.
  */
 public class Vec2 {
     // Components
@@ -31,4 +35,76 @@ public class Vec2 {
     public Vec2 copy() {
         return new Vec2(x, y);
     }
+
+    public Vec2 set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public Vec2 set(Vec2 v) {
+        x = v.x;
+        y = v.y;
+        return this;
+    }
+
+    /**
+     * this = a + b
+     */
+    public Vec2 add(Vec2 a, Vec2 b) {
+        return set(a.x + b.x, a.y + b.y);
+    }
+
+    /**
+     * this = a - b
+     */
+    public Vec2 sub(Vec2 a, Vec2 b) {
+        return set(a.x - b.x, a.y - b.y);
+    }
+
+    /**
+     * this = a * s
+     */
+    public Vec2 scale(Vec2 a, double s) {
+        return set(a.x * s, a.y * s);
+    }
+
+    /**
+     * this = a + b * s
+     */
+    public Vec2 addScaled(Vec2 a, Vec2 b, double s) {
+        return set(a.x + b.x * s, a.y + b.y * s);
+    }
+
+    /**
+     * this = a + (b - a) * t
+     */
+    public Vec2 lerp(Vec2 a, Vec2 b, double t) {
+        return set(a.x + (b.x - a.x) * t, a.y + (b.y - a.y) * t);
+    }
+
+    public double dot(Vec2 v) {
+        return x * v.x + y * v.y;
+    }
+
+    /**
+     * Z component of the 3D cross product
+     */
+    public double cross(Vec2 v) {
+        return x * v.y - y * v.x;
+    }
+
+    public double lengthSquared() {
+        return x * x + y * y;
+    }
+
+    public double length() {
+        return Math.sqrt(x * x + y * y);
+    }
+
+    public double distance(Vec2 v) {
+        double dx = v.x - x;
+        double dy = v.y - y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
 }
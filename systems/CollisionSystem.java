@@ -0,0 +1,78 @@
+package systems;
+
+import core.World;
+import objects.Cargo;
+import objects.robot.Robot;
+import physics.Body;
+import physics.ContactSolver;
+import physics.ContinuousCollision;
+
+/**
+ * Resolves contacts with the ground, walls, forks and bucket, between cargo and
+ * other bodies, and between robots. Bodies fast enough to pass through something in
+ * one step are swept first.
+ */
+public class CollisionSystem extends SimSystem {
+    // Cargo collides with cargo and robots; robots are kept apart separately below
+    private final ContactSolver contacts = new ContactSolver((a, b) -> a instanceof Cargo || b instanceof Cargo);
+    private final ContinuousCollision sweeps = new ContinuousCollision((a, b) -> a instanceof Cargo || b instanceof Cargo);
+
+    public CollisionSystem() {
+        super(Phase.COLLISION, BODY | MECHANISM, BODY);
+    }
+
+    @Override
+    public void run(World world, double dt) {
+        sweeps.solve(world, world.components.bodies);
+
+        for (Body b : world.components.bodies) {
+            if (b.active) {
+                b.resolveGroundAndWalls(world);
+            }
+        }
+
+        // Body-body contacts
+        contacts.solve(world.components.bodies);
+
+        // Keep robots from driving through each other
+        Robot[] robots = world.components.robots;
+        for (int i = 0; i < robots.length; i++) {
+            for (int j = i + 1; j < robots.length; j++) {
+                separateRobots(robots[i], robots[j]);
+            }
+        }
+    }
+
+    public ContactSolver getContacts() {
+        return contacts;
+    }
+
+    public ContinuousCollision getSweeps() {
+        return sweeps;
+    }
+
+    /**
+     * Push two overlapping robots apart horizontally and stop their closing motion
+     */
+    private static void separateRobots(Robot a, Robot b) {
+        double dx = b.position.x - a.position.x;
+        double overlapX = a.bounds.w + b.bounds.w - Math.abs(dx);
+        double overlapY = a.bounds.h + b.bounds.h - Math.abs(b.position.y - a.position.y);
+        if (overlapX <= 0 || overlapY <= 0) {
+            return;
+        }
+
+        double dir = dx >= 0 ? 1 : -1;
+        a.position.x -= dir * overlapX / 2;
+        b.position.x += dir * overlapX / 2;
+        a.bounds.x = a.position.x;
+        b.bounds.x = b.position.x;
+
+        // Perfectly inelastic along x if they are approaching
+        if ((b.velocity.x - a.velocity.x) * dir < 0) {
+            double v = (a.mass * a.velocity.x + b.mass * b.velocity.x) / (a.mass + b.mass);
+            a.velocity.x = v;
+            b.velocity.x = v;
+        }
+    }
+}
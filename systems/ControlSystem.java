@@ -0,0 +1,22 @@
+package systems;
+
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Exchanges observations and commands with each robot's controller
+ */
+public class ControlSystem extends SimSystem {
+    public ControlSystem() {
+        super(Phase.CONTROL, BODY | DRIVE | MECHANISM | SENSOR | SCORE, COMMAND);
+    }
+
+    @Override
+    public void run(World world, double dt) {
+        for (Robot r : world.components.robots) {
+            if (r.control != null) {
+                r.control.tick(world, r, dt);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package systems;
+
+import core.World;
+
+/**
+ * Runs the world's conveyor drill, if any: removes delivered cargo after it was
+ * scored and drops new cargo for the next tick
+ */
+public class ConveyorSystem extends SimSystem {
+    public ConveyorSystem() {
+        super(Phase.SCORING, BODY | SCORE, BODY | SCORE);
+    }
+
+    @Override
+    public void run(World world, double dt) {
+        if (world.conveyor != null) {
+            world.conveyor.step(world, dt);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package systems;
+
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Sets drive motor power and brake force from each robot's command
+ */
+public class DriveSystem extends SimSystem {
+    public DriveSystem() {
+        super(Phase.ACTUATORS, COMMAND, DRIVE);
+    }
+
+    @Override
+    public void run(World world, double dt) {
+        for (Robot r : world.components.robots) {
+            r.applyDrive(world, dt);
+            r.driveMotor.update(world, dt);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package systems;
+
+import core.World;
+import physics.Body;
+import physics.ForceGenerator;
+
+/**
+ * Accumulates gravity and actuator forces on bodies
+ */
+public class ForceSystem extends SimSystem {
+    public ForceSystem() {
+        super(Phase.FORCES, DRIVE | BODY, FORCE);
+    }
+
+    @Override
+    public void run(World world, double dt) {
+        double gravity = world.stepContext.gravity;
+        for (Body b : world.components.bodies) {
+            if (b.active && !b.isStatic) {
+                b.addForce(0, b.mass * gravity);
+            }
+        }
+        for (ForceGenerator f : world.components.forceGenerators) {
+            f.applyForce(world, dt);
+        }
+    }
+}
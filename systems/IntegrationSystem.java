@@ -0,0 +1,24 @@
+package systems;
+
+import core.World;
+import physics.Body;
+import physics.StepContext;
+
+/**
+ * Moves every body by its accumulated forces
+ */
+public class IntegrationSystem extends SimSystem {
+    public IntegrationSystem() {
+        super(Phase.INTEGRATION, FORCE | BODY, FORCE | BODY);
+    }
+
+    @Override
+    public void run(World world, double dt) {
+        StepContext c = world.stepContext;
+        for (Body b : world.components.bodies) {
+            if (b.active) {
+                b.integrate(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package systems;
+
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Solves each robot's mast joints, moving the carriage and forks once the chassis
+ * has moved and been resolved against the ground
+ */
+public class JointSystem extends SimSystem {
+    public JointSystem() {
+        super(Phase.CONSTRAINTS, MECHANISM | BODY, MECHANISM | BODY);
+    }
+
+    @Override
+    public void run(World world, double dt) {
+        for (Robot r : world.components.robots) {
+            r.mast.step(world, dt);
+        }
+    }
+}
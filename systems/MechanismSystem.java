@@ -0,0 +1,24 @@
+package systems;
+
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Runs the lift and tilt motors from each robot's command, setting the speeds the
+ * mast joints are driven toward
+ */
+public class MechanismSystem extends SimSystem {
+    public MechanismSystem() {
+        super(Phase.ACTUATORS, COMMAND, MECHANISM);
+    }
+
+    @Override
+    public void run(World world, double dt) {
+        for (Robot r : world.components.robots) {
+            r.applyLift(world, dt);
+            r.applyTilt(world, dt);
+            r.liftMotor.update(world, dt);
+            r.tiltMotor.update(world, dt);
+        }
+    }
+}
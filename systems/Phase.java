@@ -0,0 +1,15 @@
+package systems;
+
+/**
+ * Phases of a simulation tick, in the order they run. Every system belongs to one
+ * phase; a phase only starts once all systems of the previous phase are done.
+ */
+public enum Phase {
+    CONTROL,      // Controllers turn observations into commands
+    ACTUATORS,    // Commands drive motors and mechanisms
+    FORCES,       // Gravity and actuator forces are accumulated on bodies
+    INTEGRATION,  // Bodies move
+    COLLISION,    // Contacts and boundaries are resolved
+    CONSTRAINTS,  // Jointed mechanisms are solved against the final chassis motion, and move
+    SCORING       // Game state and sensors observe the final poses
+}
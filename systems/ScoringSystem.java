@@ -0,0 +1,27 @@
+package systems;
+
+import core.World;
+import objects.Cargo;
+
+/**
+ * Counts the cargo inside the bucket
+ */
+public class ScoringSystem extends SimSystem {
+    public ScoringSystem() {
+        super(Phase.SCORING, BODY, SCORE);
+    }
+
+    @Override
+    public void run(World world, double dt) {
+        if (world.bucket == null) {
+            return;
+        }
+        int score = world.delivered;
+        for (Cargo cargo : world.components.cargos) {
+            if (cargo.active && world.bucket.isInside(cargo.position.x, cargo.position.y)) {
+                score++;
+            }
+        }
+        world.score = score;
+    }
+}
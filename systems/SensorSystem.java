@@ -0,0 +1,20 @@
+package systems;
+
+import core.World;
+import objects.robot.subsystems.Sensor;
+
+/**
+ * Samples every sensor from the end-of-tick state
+ */
+public class SensorSystem extends SimSystem {
+    public SensorSystem() {
+        super(Phase.SCORING, BODY | DRIVE | MECHANISM, SENSOR);
+    }
+
+    @Override
+    public void run(World world, double dt) {
+        for (Sensor s : world.components.sensors) {
+            s.update(world, dt);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package systems;
+
+import core.World;
+
+/**
+ * One step of the simulation tick, operating over the world's component arrays.
+ *
+ * Each system declares which kinds of state it reads and writes. Systems of the same
+ * phase whose accesses don't conflict are independent and may run in parallel.
+ */
+public abstract class SimSystem {
+    // Kinds of state a system can access
+    public static final int COMMAND = 1;     // Robot commands
+    public static final int DRIVE = 1 << 1;  // Drive motor and brake set-points
+    public static final int MECHANISM = 1 << 2; // Lift and tilt motors and positions
+    public static final int FORCE = 1 << 3;  // Accumulated body forces
+    public static final int BODY = 1 << 4;   // Body positions, velocities and bounds
+    public static final int SENSOR = 1 << 5; // Sensor samples
+    public static final int SCORE = 1 << 6;  // Game score
+
+    private final Phase phase;
+    private final int reads;
+    private final int writes;
+
+    protected SimSystem(Phase phase, int reads, int writes) {
+        this.phase = phase;
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public int getReads() {
+        return reads;
+    }
+
+    public int getWrites() {
+        return writes;
+    }
+
+    /**
+     * Run the system for one tick
+     */
+    public abstract void run(World world, double dt);
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+}
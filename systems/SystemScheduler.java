@@ -0,0 +1,234 @@
+package systems;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import core.World;
+
+/**
+ * Runs the systems of a tick in phase order.
+ *
+ * Within a phase, consecutive systems whose declared accesses don't conflict (no
+ * system writes what another reads or writes) are grouped into a batch. Batches run
+ * one after another; when parallel execution is enabled the systems of a batch run
+ * concurrently on a shared pool. Because batch members are independent the result is
+ * the same either way.
+ */
+public class SystemScheduler {
+    private static ExecutorService pool;
+
+    private final List<SimSystem> systems = new ArrayList<>();
+    private Batch[] batches = new Batch[0];
+    private boolean parallel = false;
+
+    // Time spent in each phase over all ticks run, for monitoring
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private long ticks = 0;
+
+    /**
+     * The standard tick: control, actuators, forces, integration, collision, constraints, scoring
+     */
+    public static SystemScheduler standard() {
+        SystemScheduler s = new SystemScheduler();
+        s.add(new ControlSystem());
+        s.add(new DriveSystem());
+        s.add(new MechanismSystem());
+        s.add(new ForceSystem());
+        s.add(new IntegrationSystem());
+        s.add(new CollisionSystem());
+        s.add(new JointSystem());
+        s.add(new ScoringSystem());
+        s.add(new SensorSystem());
+        s.add(new ConveyorSystem());
+        s.setParallel(Boolean.getBoolean("sim.parallelSystems"));
+        return s;
+    }
+
+    /**
+     * Add a system. Systems run in phase order, and in the order added within a phase.
+     */
+    public void add(SimSystem system) {
+        int i = systems.size();
+        while (i > 0 && systems.get(i - 1).getPhase().compareTo(system.getPhase()) > 0) {
+            i--;
+        }
+        systems.add(i, system);
+        buildBatches();
+    }
+
+    /**
+     * Run independent systems of a phase concurrently
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Run one tick
+     */
+    public void run(World world, double dt) {
+        long start = System.nanoTime();
+        for (Batch batch : batches) {
+            if (!parallel || batch.systems.length == 1) {
+                for (SimSystem system : batch.systems) {
+                    system.run(world, dt);
+                }
+            } else {
+                batch.runParallel(world, dt);
+            }
+            long end = System.nanoTime();
+            phaseNanos[batch.phase] += end - start;
+            start = end;
+        }
+        ticks++;
+    }
+
+    /**
+     * Total nanoseconds spent in a phase since this scheduler was created. Written by
+     * the simulation thread only; other threads may read a value a tick old.
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Ticks run since this scheduler was created
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Execution order, one batch per line (systems in a batch are independent)
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (Batch batch : batches) {
+            sb.append(batch.systems[0].getPhase().name().toLowerCase()).append(": ");
+            for (int i = 0; i < batch.systems.length; i++) {
+                if (i > 0) {
+                    sb.append(" | ");
+                }
+                sb.append(batch.systems[i]);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void buildBatches() {
+        List<Batch> list = new ArrayList<>();
+        List<SimSystem> current = new ArrayList<>();
+        int reads = 0;
+        int writes = 0;
+        for (SimSystem s : systems) {
+            boolean fits = !current.isEmpty()
+                && current.get(0).getPhase() == s.getPhase()
+                && (s.getWrites() & (reads | writes)) == 0
+                && (s.getReads() & writes) == 0;
+            if (!fits && !current.isEmpty()) {
+                list.add(new Batch(current));
+                current.clear();
+                reads = 0;
+                writes = 0;
+            }
+            current.add(s);
+            reads |= s.getReads();
+            writes |= s.getWrites();
+        }
+        if (!current.isEmpty()) {
+            list.add(new Batch(current));
+        }
+        batches = list.toArray(new Batch[0]);
+    }
+
+    private static synchronized ExecutorService pool() {
+        if (pool == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "system-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return pool;
+    }
+
+    /**
+     * Systems that may run together, with reusable tasks for running them in parallel
+     */
+    private static class Batch {
+        final SimSystem[] systems;
+        final int phase;  // Ordinal of the phase all systems belong to
+        final Task[] tasks;
+        final AtomicInteger pending = new AtomicInteger();
+        volatile Thread waiter;
+        volatile Throwable failure;
+
+        Batch(List<SimSystem> list) {
+            systems = list.toArray(new SimSystem[0]);
+            phase = systems[0].getPhase().ordinal();
+            tasks = new Task[systems.length];
+            for (int i = 0; i < systems.length; i++) {
+                tasks[i] = new Task(this, systems[i]);
+            }
+        }
+
+        void runParallel(World world, double dt) {
+            waiter = Thread.currentThread();
+            failure = null;
+            pending.set(systems.length - 1);
+            ExecutorService executor = pool();
+            for (int i = 1; i < tasks.length; i++) {
+                tasks[i].world = world;
+                tasks[i].dt = dt;
+                executor.execute(tasks[i]);
+            }
+
+            // The calling thread takes the first system itself
+            systems[0].run(world, dt);
+
+            while (pending.get() > 0) {
+                LockSupport.park(this);
+            }
+            Throwable t = failure;
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            } else if (t instanceof Error) {
+                throw (Error) t;
+            }
+        }
+    }
+
+    private static class Task implements Runnable {
+        final Batch batch;
+        final SimSystem system;
+        World world;
+        double dt;
+
+        Task(Batch batch, SimSystem system) {
+            this.batch = batch;
+            this.system = system;
+        }
+
+        @Override
+        public void run() {
+            try {
+                system.run(world, dt);
+            } catch (Throwable t) {
+                batch.failure = t;
+            } finally {
+                if (batch.pending.decrementAndGet() == 0) {
+                    LockSupport.unpark(batch.waiter);
+                }
+            }
+        }
+    }
+}
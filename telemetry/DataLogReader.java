@@ -0,0 +1,133 @@
+package telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming reader for logs written by {@link DataLogWriter}.
+ * Only one block is held in memory at a time, so logs of any size can be scanned.
+ *
+ * <pre>
+ *   try (DataLogReader reader = new DataLogReader(file)) {
+ *       int x = reader.signalIndex("/robot/pose/x");
+ *       while (reader.nextBlock()) {
+ *           for (int r = 0; r < reader.rows(); r++) {
+ *               double value = reader.get(x, r);
+ *           }
+ *       }
+ *   }
+ * </pre>
+ */
+public class DataLogReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final String[] signalNames;
+    private ByteBuffer block = ByteBuffer.allocateDirect(64 * 1024);
+    private final ByteBuffer lengthBuf = ByteBuffer.allocateDirect(4);
+    private int rows = 0;
+
+    public DataLogReader(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+        ByteBuffer header = ByteBuffer.allocate(DataLogWriter.MAGIC.length + 8);
+        readFully(header);
+        byte[] magic = new byte[DataLogWriter.MAGIC.length];
+        header.get(magic);
+        if (!java.util.Arrays.equals(magic, DataLogWriter.MAGIC)) {
+            channel.close();
+            throw new IOException("Not a data log: " + file);
+        }
+        int version = header.getInt();
+        if (version != DataLogWriter.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported data log version " + version + ": " + file);
+        }
+
+        signalNames = new String[header.getInt()];
+        ByteBuffer len = ByteBuffer.allocate(2);
+        for (int i = 0; i < signalNames.length; i++) {
+            len.clear();
+            readFully(len);
+            ByteBuffer name = ByteBuffer.allocate(len.getShort() & 0xFFFF);
+            readFully(name);
+            signalNames[i] = new String(name.array(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public String[] signalNames() {
+        return signalNames.clone();
+    }
+
+    /**
+     * Column index of a signal, or -1 if the log doesn't contain it
+     */
+    public int signalIndex(String name) {
+        for (int i = 0; i < signalNames.length; i++) {
+            if (signalNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Load the next block
+     * @return false at the end of the log
+     */
+    public boolean nextBlock() throws IOException {
+        lengthBuf.clear();
+        if (!tryReadFully(lengthBuf)) {
+            return false;
+        }
+        int payload = lengthBuf.getInt();
+        if (payload <= 0) {
+            return false; // End marker or unused mapped tail
+        }
+
+        if (block.capacity() < payload) {
+            block = ByteBuffer.allocateDirect(Integer.highestOneBit(payload) << 1);
+        }
+        block.clear().limit(payload);
+        readFully(block);
+        rows = block.getInt();
+        return true;
+    }
+
+    /**
+     * Rows in the current block
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Value of a signal in the current block
+     */
+    public double get(int signal, int row) {
+        return block.getDouble(4 + (signal * rows + row) * 8);
+    }
+
+    private void readFully(ByteBuffer buf) throws IOException {
+        if (!tryReadFully(buf)) {
+            throw new IOException("Truncated data log");
+        }
+    }
+
+    private boolean tryReadFully(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf) < 0) {
+                return false;
+            }
+        }
+        buf.flip();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
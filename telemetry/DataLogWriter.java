@@ -0,0 +1,161 @@
+package telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only binary data log written through a memory-mapped file.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   header: magic "FRCLOG01", int version, int signalCount,
+ *           signalCount x (short nameLength, UTF-8 name bytes)
+ *   block:  int payloadBytes, int rows, then one column per signal of rows doubles
+ *   end:    a zero payloadBytes (or end of file)
+ * </pre>
+ * Rows are staged in a preallocated column array and copied into the mapping one
+ * block at a time, so appending a row is a handful of array stores. The mapping is
+ * forced to disk every few blocks rather than every row.
+ */
+public class DataLogWriter implements AutoCloseable {
+    static final byte[] MAGIC = "FRCLOG01".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+
+    private static final long WINDOW_BYTES = 64L << 20; // Size of each mapped region
+    private static final int FLUSH_EVERY_BLOCKS = 8;     // Blocks between msyncs
+
+    private final FileChannel channel;
+    private final int signalCount;
+    private final int blockRows;
+    private final double[] columns;  // [signal * blockRows + row]
+    private int rows = 0;            // Rows staged in the current block
+
+    private MappedByteBuffer window;
+    private long windowStart;        // File offset of the current mapping
+    private long written;            // Bytes committed to the file so far
+    private int blocksSinceFlush = 0;
+
+    /**
+     * Creates a log file, replacing any existing file
+     * @param file Output file
+     * @param signalNames Names of the logged signals, in column order
+     * @param blockRows Rows buffered per block
+     */
+    public DataLogWriter(File file, String[] signalNames, int blockRows) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        this.channel = FileChannel.open(file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.signalCount = signalNames.length;
+        this.blockRows = blockRows;
+        this.columns = new double[signalCount * blockRows];
+
+        // Header
+        int headerBytes = MAGIC.length + 8;
+        byte[][] names = new byte[signalCount][];
+        for (int i = 0; i < signalCount; i++) {
+            names[i] = signalNames[i].getBytes(StandardCharsets.UTF_8);
+            headerBytes += 2 + names[i].length;
+        }
+        ensureSpace(headerBytes);
+        window.put(MAGIC);
+        window.putInt(VERSION);
+        window.putInt(signalCount);
+        for (byte[] name : names) {
+            window.putShort((short)name.length);
+            window.put(name);
+        }
+        written = headerBytes;
+    }
+
+    /**
+     * Set a value in the row being built
+     */
+    public void set(int signal, double value) {
+        columns[signal * blockRows + rows] = value;
+    }
+
+    /**
+     * Finish the current row; writes out a block when it fills up
+     */
+    public void commitRow() throws IOException {
+        rows++;
+        if (rows == blockRows) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Write staged rows to the mapping
+     */
+    private void writeBlock() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        int payload = 4 + signalCount * rows * 8;
+        ensureSpace(4 + payload + 4); // Keep room for the end marker
+        window.putInt(payload);
+        window.putInt(rows);
+        for (int s = 0; s < signalCount; s++) {
+            int base = s * blockRows;
+            for (int r = 0; r < rows; r++) {
+                window.putDouble(columns[base + r]);
+            }
+        }
+        written += 4 + payload;
+        rows = 0;
+
+        if (++blocksSinceFlush >= FLUSH_EVERY_BLOCKS) {
+            window.force();
+            blocksSinceFlush = 0;
+        }
+    }
+
+    /**
+     * Make sure the current mapping has room for the given number of bytes,
+     * mapping a new region at the end of the written data if needed
+     */
+    private void ensureSpace(int bytes) throws IOException {
+        if (window != null && window.remaining() >= bytes) {
+            return;
+        }
+        if (window != null) {
+            window.force();
+        }
+        windowStart = written;
+        window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW_BYTES, bytes));
+    }
+
+    /**
+     * Number of bytes of log data written so far
+     */
+    public long bytesWritten() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeBlock();
+        if (window.remaining() >= 4) {
+            window.putInt(0); // End marker
+        }
+        window.force();
+        window = null;
+        try {
+            // Drop the unused tail of the mapping; may fail on platforms that
+            // refuse to truncate mapped files, in which case the end marker
+            // tells readers where the data stops
+            channel.truncate(written + 4);
+        } catch (IOException e) {
+            // Keep the padded file
+        }
+        channel.close();
+    }
+}
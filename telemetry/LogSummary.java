@@ -0,0 +1,42 @@
+package telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Prints per-signal statistics for a data log by streaming it block by block.
+ */
+public class LogSummary {
+    public static void print(File file, PrintStream out) throws IOException {
+        try (DataLogReader reader = new DataLogReader(file)) {
+            String[] names = reader.signalNames();
+            int n = names.length;
+            double[] min = new double[n];
+            double[] max = new double[n];
+            double[] sum = new double[n];
+            java.util.Arrays.fill(min, Double.POSITIVE_INFINITY);
+            java.util.Arrays.fill(max, Double.NEGATIVE_INFINITY);
+            long rows = 0;
+
+            while (reader.nextBlock()) {
+                int blockRows = reader.rows();
+                for (int s = 0; s < n; s++) {
+                    for (int r = 0; r < blockRows; r++) {
+                        double v = reader.get(s, r);
+                        min[s] = Math.min(min[s], v);
+                        max[s] = Math.max(max[s], v);
+                        sum[s] += v;
+                    }
+                }
+                rows += blockRows;
+            }
+
+            out.println(file + ": " + rows + " rows, " + n + " signals");
+            for (int s = 0; s < n && rows > 0; s++) {
+                out.println(String.format("  %-22s min=%12.4f  max=%12.4f  mean=%12.4f",
+                    names[s], min[s], max[s], sum[s] / rows));
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package telemetry;
+
+import java.io.IOException;
+import core.World;
+import objects.robot.Robot;
+import objects.robot.RobotCommand;
+
+/**
+ * Publishes simulator state to dashboards over UDP and receives control values back.
+ *
+ * State goes to {@code sim.nt.port} (default 5810) on loopback; control values are
+ * read from {@code sim.nt.controlPort} (default 5811). A dashboard takes over the
+ * robot by publishing {@code /control/enabled} = 1 along with {@code /control/drive},
+ * {@code /control/lift}, {@code /control/tilt} (each -1..1) and {@code /control/brake}.
+ */
+public class NetworkTelemetry implements AutoCloseable {
+    private static final long CONTROL_TIMEOUT_POLLS = 60; // Half a second at 120 Hz
+
+    private final NtPublisher publisher;
+    private final NtSubscriber subscriber;
+
+    // Published keys
+    private final int time, score;
+    private final int poseX, poseY, velX, velY;
+    private final int lift, tiltDeg, frontDistance, forkLoad;
+    private final int drivePower, liftPower, tiltPower, brakeForce;
+
+    // Control keys
+    private final int ctrlEnabled, ctrlDrive, ctrlLift, ctrlTilt, ctrlBrake;
+
+    public NetworkTelemetry() throws IOException {
+        this(Integer.getInteger("sim.nt.port", 5810), Integer.getInteger("sim.nt.controlPort", 5811));
+    }
+
+    public NetworkTelemetry(int port, int controlPort) throws IOException {
+        publisher = new NtPublisher(port);
+        try {
+            subscriber = new NtSubscriber(controlPort);
+        } catch (IOException e) {
+            publisher.close();
+            throw e;
+        }
+
+        time = publisher.register("/sim/time");
+        score = publisher.register("/game/score");
+        poseX = publisher.register("/robot/pose/x");
+        poseY = publisher.register("/robot/pose/y");
+        velX = publisher.register("/robot/velocity/x");
+        velY = publisher.register("/robot/velocity/y");
+        lift = publisher.register("/robot/lift");
+        tiltDeg = publisher.register("/robot/tiltDeg");
+        frontDistance = publisher.register("/robot/frontDistance");
+        forkLoad = publisher.register("/robot/forkLoad");
+        drivePower = publisher.register("/robot/drive/power");
+        liftPower = publisher.register("/robot/lift/power");
+        tiltPower = publisher.register("/robot/tilt/power");
+        brakeForce = publisher.register("/robot/brakeForce");
+
+        ctrlEnabled = subscriber.lookup("/control/enabled");
+        ctrlDrive = subscriber.lookup("/control/drive");
+        ctrlLift = subscriber.lookup("/control/lift");
+        ctrlTilt = subscriber.lookup("/control/tilt");
+        ctrlBrake = subscriber.lookup("/control/brake");
+    }
+
+    /**
+     * Receive pending control values; call once per tick before stepping
+     */
+    public void poll() {
+        subscriber.poll();
+    }
+
+    /**
+     * Fill in a command from the dashboard if it has recently enabled control
+     * @return true if the command was set from the network
+     */
+    public boolean readCommand(RobotCommand out) {
+        if (subscriber.age(ctrlEnabled) > CONTROL_TIMEOUT_POLLS || !(subscriber.get(ctrlEnabled) > 0.5)) {
+            return false;
+        }
+        out.drive = valueOr(ctrlDrive, 0);
+        out.lift = valueOr(ctrlLift, 0);
+        out.tilt = valueOr(ctrlTilt, 0);
+        out.brake = valueOr(ctrlBrake, 0) > 0.5;
+        return true;
+    }
+
+    private double valueOr(int id, double fallback) {
+        double v = subscriber.get(id);
+        return Double.isNaN(v) ? fallback : v;
+    }
+
+    /**
+     * Queue the current state and send whatever changed; call once per tick after stepping
+     */
+    public void publish(World world) {
+        Robot robot = world.robot;
+        publisher.set(time, world.timeSec);
+        publisher.set(score, world.score);
+        publisher.set(poseX, robot.position.x);
+        publisher.set(poseY, robot.position.y);
+        publisher.set(velX, robot.velocity.x);
+        publisher.set(velY, robot.velocity.y);
+        publisher.set(lift, robot.lift);
+        publisher.set(tiltDeg, robot.tiltDeg);
+        publisher.set(frontDistance, robot.frontDistSensor.getDistance());
+        publisher.set(forkLoad, robot.forkLoadCell.getLoad());
+        publisher.set(drivePower, robot.driveMotor.getPower());
+        publisher.set(liftPower, robot.liftMotor.getPower());
+        publisher.set(tiltPower, robot.tiltMotor.getPower());
+        publisher.set(brakeForce, robot.brakes.getBrakeForce());
+        publisher.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        publisher.close();
+        subscriber.close();
+    }
+}
@@ -0,0 +1,212 @@
+package telemetry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Publishes numeric key/value entries as UDP datagrams, NetworkTables style.
+ *
+ * Values set during a tick are coalesced: only the last value of each key is kept,
+ * and {@link #flush} sends just the keys whose value changed since they were last
+ * sent. Key names are announced once and then referenced by id, and everything is
+ * re-sent periodically so late subscribers catch up. Sends are non-blocking; if the
+ * socket buffer is full the values stay pending and go out with the next flush.
+ *
+ * Datagram layout (big-endian):
+ * <pre>
+ *   int magic, int sequence, short entryCount, then entries:
+ *     ANNOUNCE: byte 0, short id, short nameLength, UTF-8 name
+ *     VALUE:    byte 1, short id, double value
+ * </pre>
+ */
+public class NtPublisher implements AutoCloseable {
+    static final int MAGIC = 0x46524E54; // "FRNT"
+    static final byte ANNOUNCE = 0;
+    static final byte VALUE = 1;
+    static final int HEADER_BYTES = 10;
+    static final int MAX_DATAGRAM = 1200; // Stay under a typical MTU
+
+    private static final int FULL_REFRESH_FLUSHES = 120; // Re-send everything about once a second
+
+    private final DatagramChannel channel;
+    private final SocketAddress target;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(MAX_DATAGRAM);
+
+    // Key table, indexed by id
+    private final Map<String, Integer> ids = new HashMap<>();
+    private byte[][] names = new byte[16][];
+    private double[] values = new double[16];
+    private boolean[] dirty = new boolean[16];
+    private boolean[] announced = new boolean[16];
+    private int count = 0;
+
+    private int sequence = 0;
+    private int flushes = 0;
+    private long datagramsSent = 0;
+    private long sendsDeferred = 0;
+
+    /**
+     * Creates a publisher sending to the given port on loopback
+     */
+    public NtPublisher(int port) throws IOException {
+        this(new InetSocketAddress("127.0.0.1", port));
+    }
+
+    public NtPublisher(SocketAddress target) throws IOException {
+        this.target = target;
+        this.channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+    }
+
+    /**
+     * Register a key and return its id. Registering the same key twice returns the same id.
+     */
+    public int register(String key) {
+        Integer existing = ids.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (count == names.length) {
+            int n = count * 2;
+            names = Arrays.copyOf(names, n);
+            values = Arrays.copyOf(values, n);
+            dirty = Arrays.copyOf(dirty, n);
+            announced = Arrays.copyOf(announced, n);
+        }
+        int id = count++;
+        names[id] = key.getBytes(StandardCharsets.UTF_8);
+        values[id] = Double.NaN;
+        dirty[id] = false;
+        announced[id] = false;
+        ids.put(key, id);
+        return id;
+    }
+
+    /**
+     * Set the value of a key; it is sent on the next flush only if it changed
+     */
+    public void set(int id, double value) {
+        if (Double.doubleToLongBits(values[id]) != Double.doubleToLongBits(value)) {
+            values[id] = value;
+            dirty[id] = true;
+        }
+    }
+
+    /**
+     * Send pending announcements and changed values. Never blocks.
+     */
+    public void flush() {
+        if (++flushes >= FULL_REFRESH_FLUSHES) {
+            flushes = 0;
+            for (int i = 0; i < count; i++) {
+                announced[i] = false;
+                dirty[i] = true;
+            }
+        }
+
+        beginDatagram();
+        int entries = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (!announced[i]) {
+                int size = 5 + names[i].length;
+                if (out.remaining() < size) {
+                    if (!send(entries)) {
+                        return;
+                    }
+                    beginDatagram();
+                    entries = 0;
+                }
+                out.put(ANNOUNCE).putShort((short)i).putShort((short)names[i].length).put(names[i]);
+                announced[i] = true;
+                entries++;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (dirty[i]) {
+                if (out.remaining() < 11) {
+                    if (!send(entries)) {
+                        return;
+                    }
+                    beginDatagram();
+                    entries = 0;
+                }
+                out.put(VALUE).putShort((short)i).putDouble(values[i]);
+                dirty[i] = false;
+                entries++;
+            }
+        }
+
+        if (entries > 0) {
+            send(entries);
+        }
+    }
+
+    private void beginDatagram() {
+        out.clear();
+        out.putInt(MAGIC).putInt(sequence).putShort((short)0);
+    }
+
+    /**
+     * Send the datagram being built
+     * @return false if it couldn't be sent right now
+     */
+    private boolean send(int entries) {
+        out.putShort(8, (short)entries);
+        out.flip();
+        try {
+            if (channel.send(out, target) == 0) {
+                deferFrom(out);
+                return false;
+            }
+        } catch (IOException e) {
+            // Nobody listening or the network is unavailable; try again next flush
+            deferFrom(out);
+            return false;
+        }
+        sequence++;
+        datagramsSent++;
+        return true;
+    }
+
+    /**
+     * Mark every entry in an unsent datagram as pending again
+     */
+    private void deferFrom(ByteBuffer datagram) {
+        sendsDeferred++;
+        int pos = HEADER_BYTES;
+        int limit = datagram.limit();
+        while (pos < limit) {
+            byte type = datagram.get(pos);
+            int id = datagram.getShort(pos + 1);
+            if (type == ANNOUNCE) {
+                announced[id] = false;
+                pos += 5 + datagram.getShort(pos + 3);
+            } else {
+                dirty[id] = true;
+                pos += 11;
+            }
+        }
+    }
+
+    public long getDatagramsSent() {
+        return datagramsSent;
+    }
+
+    public long getSendsDeferred() {
+        return sendsDeferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,169 @@
+package telemetry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Receives key/value datagrams in the {@link NtPublisher} format.
+ * {@link #poll} drains everything pending without blocking and keeps the latest
+ * value of each key.
+ */
+public class NtSubscriber implements AutoCloseable {
+    private final DatagramChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocateDirect(NtPublisher.MAX_DATAGRAM);
+
+    // Local key table
+    private final Map<String, Integer> ids = new HashMap<>();
+    private double[] values = new double[16];
+    private long[] updated = new long[16]; // Poll count when each value last arrived
+    private int count = 0;
+
+    // Sender's key ids mapped onto local ids (-1 = not announced yet)
+    private int[] remoteToLocal = new int[16];
+
+    private long polls = 0;
+    private long datagramsReceived = 0;
+
+    /**
+     * Creates a subscriber listening on the given port on loopback
+     */
+    public NtSubscriber(int port) throws IOException {
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.bind(new InetSocketAddress("127.0.0.1", port));
+        Arrays.fill(remoteToLocal, -1);
+    }
+
+    /**
+     * Local id for a key, registering it if needed. Ids are stable for the subscriber's lifetime.
+     */
+    public int lookup(String key) {
+        Integer existing = ids.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+            updated = Arrays.copyOf(updated, count * 2);
+        }
+        int id = count++;
+        values[id] = Double.NaN;
+        updated[id] = -1;
+        ids.put(key, id);
+        return id;
+    }
+
+    /**
+     * Receive and decode all pending datagrams. Never blocks.
+     */
+    public void poll() {
+        polls++;
+        while (true) {
+            in.clear();
+            try {
+                if (channel.receive(in) == null) {
+                    return;
+                }
+            } catch (IOException e) {
+                return;
+            }
+            in.flip();
+            datagramsReceived++;
+            decode();
+        }
+    }
+
+    private void decode() {
+        if (in.remaining() < NtPublisher.HEADER_BYTES || in.getInt() != NtPublisher.MAGIC) {
+            return;
+        }
+        in.getInt(); // Sequence
+        int entries = in.getShort() & 0xFFFF;
+        int body = in.position();
+        // A malformed datagram is dropped whole, before any of it is applied
+        if (!wellFormed(entries)) {
+            return;
+        }
+        in.position(body);
+        for (int e = 0; e < entries; e++) {
+            byte type = in.get();
+            int remote = in.getShort() & 0xFFFF;
+            if (remote >= remoteToLocal.length) {
+                int old = remoteToLocal.length;
+                remoteToLocal = Arrays.copyOf(remoteToLocal, Math.max(old * 2, remote + 1));
+                Arrays.fill(remoteToLocal, old, remoteToLocal.length, -1);
+            }
+            if (type == NtPublisher.ANNOUNCE) {
+                // Always remap: a restarted sender may number its keys differently
+                byte[] name = new byte[in.getShort() & 0xFFFF];
+                in.get(name);
+                remoteToLocal[remote] = lookup(new String(name, StandardCharsets.UTF_8));
+            } else {
+                double value = in.getDouble();
+                int local = remoteToLocal[remote];
+                if (local >= 0) {
+                    values[local] = value;
+                    updated[local] = polls;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that the entries fit the datagram exactly and have known types
+     */
+    private boolean wellFormed(int entries) {
+        for (int e = 0; e < entries; e++) {
+            if (in.remaining() < 3) {
+                return false;
+            }
+            byte type = in.get();
+            in.getShort();
+            int length;
+            if (type == NtPublisher.ANNOUNCE) {
+                if (in.remaining() < 2) {
+                    return false;
+                }
+                length = in.getShort() & 0xFFFF;
+            } else if (type == NtPublisher.VALUE) {
+                length = 8;
+            } else {
+                return false;
+            }
+            if (in.remaining() < length) {
+                return false;
+            }
+            in.position(in.position() + length);
+        }
+        return !in.hasRemaining();
+    }
+
+    /**
+     * Latest value of a key, or NaN if nothing has been received
+     */
+    public double get(int id) {
+        return values[id];
+    }
+
+    /**
+     * Number of polls since the key was last updated, or Long.MAX_VALUE if never
+     */
+    public long age(int id) {
+        return updated[id] < 0 ? Long.MAX_VALUE : polls - updated[id];
+    }
+
+    public long getDatagramsReceived() {
+        return datagramsReceived;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
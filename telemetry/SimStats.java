@@ -0,0 +1,145 @@
+package telemetry;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import core.World;
+import systems.Phase;
+
+/**
+ * Live simulator statistics for external monitoring through {@link SimStatsMBean}.
+ *
+ * Loop timing is pushed in by the game loop; match state and phase totals are read
+ * from the world when asked, without locking, so a value may be a tick old.
+ */
+public class SimStats implements SimStatsMBean {
+    public static final String DOMAIN = "frcsim";
+
+    private final World world;
+
+    private volatile double tickMillis;
+    private volatile double renderHz;
+    private volatile double achievedRate;
+    private volatile double droppedSeconds;
+    private volatile long stalls;
+
+    public SimStats(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Record the game loop's latest timing
+     */
+    public void setTiming(double tickSeconds, double renderHz, double achievedRate,
+                          double droppedSeconds, long stalls) {
+        this.tickMillis = tickSeconds * 1e3;
+        this.renderHz = renderHz;
+        this.achievedRate = achievedRate;
+        this.droppedSeconds = droppedSeconds;
+        this.stalls = stalls;
+    }
+
+    /**
+     * Register an MBean with the platform server as {@code frcsim:type=<type>},
+     * replacing one left by an earlier panel. Failures are reported and ignored,
+     * since monitoring is optional.
+     */
+    public static void register(Object mbean, String type) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":type=" + type);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+        } catch (JMException | SecurityException e) {
+            System.err.println("JMX registration failed for " + type + ": " + e);
+        }
+    }
+
+    @Override
+    public double getTickMillis() {
+        return tickMillis;
+    }
+
+    @Override
+    public double getRenderHz() {
+        return renderHz;
+    }
+
+    @Override
+    public double getAchievedRate() {
+        return achievedRate;
+    }
+
+    @Override
+    public double getDroppedSeconds() {
+        return droppedSeconds;
+    }
+
+    @Override
+    public long getStalls() {
+        return stalls;
+    }
+
+    @Override
+    public long getTicks() {
+        return world.systems.getTicks();
+    }
+
+    @Override
+    public double getSimSeconds() {
+        return world.timeSec;
+    }
+
+    @Override
+    public int getScore() {
+        return world.score;
+    }
+
+    @Override
+    public int getDelivered() {
+        return world.delivered;
+    }
+
+    @Override
+    public int getActiveCargo() {
+        return world.getActiveCargo();
+    }
+
+    @Override
+    public long getControlNanos() {
+        return world.systems.getPhaseNanos(Phase.CONTROL);
+    }
+
+    @Override
+    public long getActuatorsNanos() {
+        return world.systems.getPhaseNanos(Phase.ACTUATORS);
+    }
+
+    @Override
+    public long getForcesNanos() {
+        return world.systems.getPhaseNanos(Phase.FORCES);
+    }
+
+    @Override
+    public long getIntegrationNanos() {
+        return world.systems.getPhaseNanos(Phase.INTEGRATION);
+    }
+
+    @Override
+    public long getCollisionNanos() {
+        return world.systems.getPhaseNanos(Phase.COLLISION);
+    }
+
+    @Override
+    public long getConstraintsNanos() {
+        return world.systems.getPhaseNanos(Phase.CONSTRAINTS);
+    }
+
+    @Override
+    public long getScoringNanos() {
+        return world.systems.getPhaseNanos(Phase.SCORING);
+    }
+}
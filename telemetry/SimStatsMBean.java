@@ -0,0 +1,31 @@
+package telemetry;
+
+/**
+ * JMX view of {@link SimStats}: tick timing, match state, and time spent in each
+ * tick phase. Phase times are running totals; divide their change by the change in
+ * {@code Ticks} for a per-tick cost.
+ */
+public interface SimStatsMBean {
+    // Loop timing
+    double getTickMillis();
+    double getRenderHz();
+    double getAchievedRate();
+    double getDroppedSeconds();
+    long getStalls();
+
+    // Match
+    long getTicks();
+    double getSimSeconds();
+    int getScore();
+    int getDelivered();
+    int getActiveCargo();
+
+    // Phase totals
+    long getControlNanos();
+    long getActuatorsNanos();
+    long getForcesNanos();
+    long getIntegrationNanos();
+    long getCollisionNanos();
+    long getConstraintsNanos();
+    long getScoringNanos();
+}
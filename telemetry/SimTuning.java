@@ -0,0 +1,252 @@
+package telemetry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Physics and robot constants that can be changed while the simulation runs, e.g.
+ * from JConsole through {@link SimTuningMBean}.
+ *
+ * Changes are never written into the world directly. Each one replaces an immutable
+ * set of overrides, and the simulation thread applies the newest set between ticks
+ * with {@link #applyTo}, so a tick never sees half of a change. Overrides are applied
+ * every tick, so they also hold for robots created by a reset. The simulation side
+ * remembers what each override replaced and puts it back once the override is
+ * cleared.
+ */
+public class SimTuning implements SimTuningMBean {
+    private static final int GRAVITY = 0;
+    private static final int LINEAR_DAMPING = 1;
+    private static final int GROUND_FRICTION = 2;
+    private static final int DRIVE_FORCE = 3;
+    private static final int LIFT_RATE = 4;
+    private static final int TILT_RATE = 5;
+    private static final int BRAKE_FORCE = 6;
+    private static final int COUNT = 7;
+
+    // NaN where a value isn't overridden
+    private static final double[] NONE = new double[COUNT];
+    static {
+        Arrays.fill(NONE, Double.NaN);
+    }
+
+    private final World world;
+    private final AtomicReference<double[]> overrides = new AtomicReference<>(NONE);
+
+    // Simulation thread only: the value each override replaced and the value it
+    // wrote, per field (world fields) or per robot slot and field (robot fields).
+    // A value that no longer matches what was written was rebuilt by a reset, so it
+    // is the one to save next time and the one to leave alone on clearing.
+    private final boolean[] held = new boolean[COUNT];
+    private boolean anyHeld = false;
+    private final double[] worldSaved = new double[COUNT];
+    private final double[] worldWritten = new double[COUNT];
+    private final double[][] robotSaved = new double[World.MAX_ROBOTS][COUNT];
+    private final double[][] robotWritten = new double[World.MAX_ROBOTS][COUNT];
+
+    public SimTuning(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Write the current overrides into the world and its robots, and restore the
+     * values of overrides cleared since the last call. Call from the simulation
+     * thread between ticks.
+     */
+    public void applyTo(World world) {
+        double[] o = overrides.get();
+        if (o == NONE && !anyHeld) {
+            return;
+        }
+        anyHeld = false;
+        for (int i = 0; i < COUNT; i++) {
+            boolean on = !Double.isNaN(o[i]);
+            if (!on && !held[i]) {
+                continue;
+            }
+            if (i < DRIVE_FORCE) {
+                double current = read(world, i);
+                if (on) {
+                    if (!held[i] || current != worldWritten[i]) {
+                        worldSaved[i] = current;
+                    }
+                    write(world, i, o[i]);
+                    worldWritten[i] = o[i];
+                } else if (current == worldWritten[i]) {
+                    write(world, i, worldSaved[i]);
+                }
+            } else {
+                int n = Math.min(world.robots.size(), World.MAX_ROBOTS);
+                for (int k = 0; k < n; k++) {
+                    Robot r = world.robots.get(k);
+                    double current = read(r, i);
+                    if (on) {
+                        if (!held[i] || current != robotWritten[k][i]) {
+                            robotSaved[k][i] = current;
+                        }
+                        write(r, i, o[i]);
+                        robotWritten[k][i] = o[i];
+                    } else if (current == robotWritten[k][i]) {
+                        write(r, i, robotSaved[k][i]);
+                    }
+                }
+            }
+            held[i] = on;
+            anyHeld |= on;
+        }
+    }
+
+    private static double read(World world, int index) {
+        switch (index) {
+            case GRAVITY: return world.gravity;
+            case LINEAR_DAMPING: return world.linearDamping;
+            default: return world.groundFriction;
+        }
+    }
+
+    private static void write(World world, int index, double value) {
+        switch (index) {
+            case GRAVITY: world.gravity = value; break;
+            case LINEAR_DAMPING: world.linearDamping = value; break;
+            default: world.groundFriction = value; break;
+        }
+    }
+
+    private static double read(Robot r, int index) {
+        switch (index) {
+            case DRIVE_FORCE: return r.driveForce;
+            case LIFT_RATE: return r.liftRate;
+            case TILT_RATE: return r.tiltRate;
+            default: return r.brakeForce;
+        }
+    }
+
+    private static void write(Robot r, int index, double value) {
+        switch (index) {
+            case DRIVE_FORCE: r.driveForce = value; break;
+            case LIFT_RATE: r.liftRate = value; break;
+            case TILT_RATE: r.tiltRate = value; break;
+            default: r.brakeForce = value; break;
+        }
+    }
+
+    private void set(int index, double value) {
+        double[] values = new double[COUNT];
+        Arrays.fill(values, Double.NaN);
+        values[index] = value;
+        merge(values);
+    }
+
+    /**
+     * Replace the overrides with a copy that has every non-NaN value changed
+     */
+    private void merge(double[] values) {
+        while (true) {
+            double[] current = overrides.get();
+            double[] next = current.clone();
+            for (int i = 0; i < COUNT; i++) {
+                if (!Double.isNaN(values[i])) {
+                    next[i] = values[i];
+                }
+            }
+            if (overrides.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The override if there is one, else what the world currently uses
+     */
+    private double get(int index, double current) {
+        double o = overrides.get()[index];
+        return Double.isNaN(o) ? current : o;
+    }
+
+    @Override
+    public double getGravity() {
+        return get(GRAVITY, world.gravity);
+    }
+
+    @Override
+    public void setGravity(double value) {
+        set(GRAVITY, value);
+    }
+
+    @Override
+    public double getLinearDamping() {
+        return get(LINEAR_DAMPING, world.linearDamping);
+    }
+
+    @Override
+    public void setLinearDamping(double value) {
+        set(LINEAR_DAMPING, value);
+    }
+
+    @Override
+    public double getGroundFriction() {
+        return get(GROUND_FRICTION, world.groundFriction);
+    }
+
+    @Override
+    public void setGroundFriction(double value) {
+        set(GROUND_FRICTION, value);
+    }
+
+    @Override
+    public double getDriveForce() {
+        Robot r = world.robot;
+        return get(DRIVE_FORCE, r != null ? r.driveForce : Double.NaN);
+    }
+
+    @Override
+    public void setDriveForce(double value) {
+        set(DRIVE_FORCE, value);
+    }
+
+    @Override
+    public double getLiftRate() {
+        Robot r = world.robot;
+        return get(LIFT_RATE, r != null ? r.liftRate : Double.NaN);
+    }
+
+    @Override
+    public void setLiftRate(double value) {
+        set(LIFT_RATE, value);
+    }
+
+    @Override
+    public double getTiltRate() {
+        Robot r = world.robot;
+        return get(TILT_RATE, r != null ? r.tiltRate : Double.NaN);
+    }
+
+    @Override
+    public void setTiltRate(double value) {
+        set(TILT_RATE, value);
+    }
+
+    @Override
+    public double getBrakeForce() {
+        Robot r = world.robot;
+        return get(BRAKE_FORCE, r != null ? r.brakeForce : Double.NaN);
+    }
+
+    @Override
+    public void setBrakeForce(double value) {
+        set(BRAKE_FORCE, value);
+    }
+
+    @Override
+    public void apply(double gravity, double linearDamping, double groundFriction,
+                      double driveForce, double liftRate, double tiltRate, double brakeForce) {
+        merge(new double[] { gravity, linearDamping, groundFriction, driveForce, liftRate, tiltRate, brakeForce });
+    }
+
+    @Override
+    public void clearOverrides() {
+        overrides.set(NONE);
+    }
+}
@@ -0,0 +1,40 @@
+package telemetry;
+
+/**
+ * JMX view of {@link SimTuning}. Reading an attribute gives the value in effect;
+ * setting one overrides it from the next tick on, for every robot and across resets.
+ */
+public interface SimTuningMBean {
+    double getGravity();
+    void setGravity(double value);
+
+    double getLinearDamping();
+    void setLinearDamping(double value);
+
+    double getGroundFriction();
+    void setGroundFriction(double value);
+
+    double getDriveForce();
+    void setDriveForce(double value);
+
+    double getLiftRate();
+    void setLiftRate(double value);
+
+    double getTiltRate();
+    void setTiltRate(double value);
+
+    double getBrakeForce();
+    void setBrakeForce(double value);
+
+    /**
+     * Set every value at once, taking effect together on the same tick. NaN leaves
+     * a value as it is.
+     */
+    void apply(double gravity, double linearDamping, double groundFriction,
+               double driveForce, double liftRate, double tiltRate, double brakeForce);
+
+    /**
+     * Drop all overrides; the values they replaced are restored before the next tick
+     */
+    void clearOverrides();
+}
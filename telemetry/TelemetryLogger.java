@@ -0,0 +1,92 @@
+package telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Samples robot and world state every tick into a {@link DataLogWriter}.
+ */
+public class TelemetryLogger implements AutoCloseable {
+    // Signal columns
+    public static final String[] SIGNALS = {
+        "/sim/time",
+        "/sim/tickNanos",
+        "/robot/pose/x",
+        "/robot/pose/y",
+        "/robot/velocity/x",
+        "/robot/velocity/y",
+        "/robot/drive/power",
+        "/robot/drive/speed",
+        "/robot/lift/power",
+        "/robot/lift/speed",
+        "/robot/tilt/power",
+        "/robot/tilt/speed",
+        "/robot/lift",
+        "/robot/tiltDeg",
+        "/robot/brakeForce",
+        "/game/score",
+    };
+    private static final int TIME = 0;
+    private static final int TICK_NANOS = 1;
+    private static final int POSE_X = 2;
+    private static final int POSE_Y = 3;
+    private static final int VEL_X = 4;
+    private static final int VEL_Y = 5;
+    private static final int DRIVE_POWER = 6;
+    private static final int DRIVE_SPEED = 7;
+    private static final int LIFT_POWER = 8;
+    private static final int LIFT_SPEED = 9;
+    private static final int TILT_POWER = 10;
+    private static final int TILT_SPEED = 11;
+    private static final int LIFT = 12;
+    private static final int TILT_DEG = 13;
+    private static final int BRAKE_FORCE = 14;
+    private static final int SCORE = 15;
+
+    private static final int BLOCK_ROWS = 120; // One second per block at 120 Hz
+
+    private final DataLogWriter writer;
+    private final File file;
+
+    public TelemetryLogger(File file) throws IOException {
+        this.file = file;
+        this.writer = new DataLogWriter(file, SIGNALS, BLOCK_ROWS);
+    }
+
+    /**
+     * Record one row for the tick that just finished
+     * @param world World after the tick
+     * @param tickNanos Wall time spent computing the tick
+     */
+    public void sample(World world, long tickNanos) throws IOException {
+        Robot robot = world.robot;
+        writer.set(TIME, world.timeSec);
+        writer.set(TICK_NANOS, tickNanos);
+        writer.set(POSE_X, robot.position.x);
+        writer.set(POSE_Y, robot.position.y);
+        writer.set(VEL_X, robot.velocity.x);
+        writer.set(VEL_Y, robot.velocity.y);
+        writer.set(DRIVE_POWER, robot.driveMotor.getPower());
+        writer.set(DRIVE_SPEED, robot.driveMotor.getSpeed());
+        writer.set(LIFT_POWER, robot.liftMotor.getPower());
+        writer.set(LIFT_SPEED, robot.liftMotor.getSpeed());
+        writer.set(TILT_POWER, robot.tiltMotor.getPower());
+        writer.set(TILT_SPEED, robot.tiltMotor.getSpeed());
+        writer.set(LIFT, robot.lift);
+        writer.set(TILT_DEG, robot.tiltDeg);
+        writer.set(BRAKE_FORCE, robot.brakes.getBrakeForce());
+        writer.set(SCORE, world.score);
+        writer.commitRow();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
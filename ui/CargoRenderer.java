@@ -0,0 +1,208 @@
+package ui;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Draws all cargo in a render snapshot in one pass.
+ *
+ * Boxes are sorted into rotation buckets of {@code 360 / ROTATION_BUCKETS} degrees.
+ * For each sprite and bucket the sprite is rendered once, already rotated, into a
+ * cached image, so drawing a box is a single image blit with no transform changes.
+ * Boxes without a sprite are filled as polygons in their own color, and a cached
+ * overlay per bucket adds the shading, edge highlight and outline, so nothing is
+ * allocated per box. The caches are rebuilt only if the box size on screen changes.
+ */
+public class CargoRenderer {
+    public static final int ROTATION_BUCKETS = 72; // 5 degrees each
+
+    // Rotated sprites for the sprite last drawn (all cargo normally share one)
+    private BufferedImage cachedSprite;
+    private int spriteW;
+    private int spriteH;
+    private final BufferedImage[] rotatedSprite = new BufferedImage[ROTATION_BUCKETS];
+
+    // Fallback shading per bucket
+    private int overlayW;
+    private int overlayH;
+    private final BufferedImage[] overlay = new BufferedImage[ROTATION_BUCKETS];
+
+    // Boxes sorted by bucket, reused every frame
+    private int[] bucketOf = new int[64];
+    private int[] order = new int[64];
+    private final int[] bucketStart = new int[ROTATION_BUCKETS + 1];
+    private RenderSnapshot sorted;          // Snapshot the order is for, so clipped
+    private long sortedSequence = -1;       // passes over one frame sort only once
+    private final int[] polyX = new int[4];
+    private final int[] polyY = new int[4];
+    private final Rectangle clip = new Rectangle();
+
+    public void draw(Graphics2D g, RenderSnapshot s) {
+        int n = s.cargoCount;
+        if (n == 0) {
+            return;
+        }
+        if (s != sorted || s.sequence != sortedSequence) {
+            sortByBucket(s);
+            sorted = s;
+            sortedSequence = s.sequence;
+        }
+        // Only boxes reaching into the clip are drawn (all of them without one)
+        boolean clipped = g.getClip() != null;
+        if (clipped) {
+            g.getClipBounds(clip);
+        }
+
+        for (int b = 0; b < ROTATION_BUCKETS; b++) {
+            for (int k = bucketStart[b]; k < bucketStart[b + 1]; k++) {
+                int i = order[k];
+                int w = (int)(s.cargoHalfW[i] * 2 * SimulationPanel.PPM);
+                int h = (int)(s.cargoHalfH[i] * 2 * SimulationPanel.PPM);
+                int px = SimulationPanel.screenX(s.cargoX[i]);
+                int py = SimulationPanel.screenY(s.cargoY[i]);
+                int r = extent(w, h) / 2;
+                if (clipped && (px + r < clip.x || px - r > clip.x + clip.width ||
+                                py + r < clip.y || py - r > clip.y + clip.height)) {
+                    continue;
+                }
+                BufferedImage sprite = s.cargoSprite[i];
+                BufferedImage img;
+                if (sprite != null) {
+                    img = rotatedSprite(sprite, w, h, b);
+                } else {
+                    fillBox(g, px, py, w, h, bucketAngle(b), s.cargoColor[i]);
+                    img = overlay(w, h, b);
+                }
+                g.drawImage(img, px - img.getWidth() / 2, py - img.getHeight() / 2, null);
+            }
+        }
+    }
+
+    /**
+     * Counting sort of the snapshot's boxes by rotation bucket
+     */
+    private void sortByBucket(RenderSnapshot s) {
+        int n = s.cargoCount;
+        if (bucketOf.length < n) {
+            bucketOf = new int[Math.max(n, bucketOf.length * 2)];
+            order = new int[bucketOf.length];
+        }
+        Arrays.fill(bucketStart, 0);
+        for (int i = 0; i < n; i++) {
+            int b = bucket(s.cargoAngle[i]);
+            bucketOf[i] = b;
+            bucketStart[b + 1]++;
+        }
+        for (int b = 0; b < ROTATION_BUCKETS; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        for (int i = 0; i < n; i++) {
+            order[bucketStart[bucketOf[i]]++] = i;
+        }
+        // Filling moved each start to the next bucket's; shift back
+        for (int b = ROTATION_BUCKETS; b > 0; b--) {
+            bucketStart[b] = bucketStart[b - 1];
+        }
+        bucketStart[0] = 0;
+    }
+
+    static int bucket(double angle) {
+        int b = (int)Math.round(angle / (2 * Math.PI) * ROTATION_BUCKETS);
+        return Math.floorMod(b, ROTATION_BUCKETS);
+    }
+
+    private static double bucketAngle(int b) {
+        return b * 2 * Math.PI / ROTATION_BUCKETS;
+    }
+
+    private BufferedImage rotatedSprite(BufferedImage sprite, int w, int h, int b) {
+        if (sprite != cachedSprite || w != spriteW || h != spriteH) {
+            cachedSprite = sprite;
+            spriteW = w;
+            spriteH = h;
+            Arrays.fill(rotatedSprite, null);
+        }
+        BufferedImage img = rotatedSprite[b];
+        if (img == null) {
+            img = newRotated(w, h);
+            Graphics2D g = rotatedGraphics(img, b);
+            g.drawImage(sprite, -w / 2, -h / 2, w, h, null);
+            g.dispose();
+            rotatedSprite[b] = img;
+        }
+        return img;
+    }
+
+    private BufferedImage overlay(int w, int h, int b) {
+        if (w != overlayW || h != overlayH) {
+            overlayW = w;
+            overlayH = h;
+            Arrays.fill(overlay, null);
+        }
+        BufferedImage img = overlay[b];
+        if (img == null) {
+            img = newRotated(w, h);
+            Graphics2D g = rotatedGraphics(img, b);
+            int x = -w / 2;
+            int y = -h / 2;
+            // Darken toward the bottom right
+            g.setPaint(new GradientPaint(x, y, new Color(0, 0, 0, 0), x + w, y + h, new Color(0, 0, 0, 40)));
+            g.fillRect(x, y, w, h);
+            // Metallic highlight on the top and left edges
+            g.setColor(new Color(220, 220, 220, 140));
+            g.setStroke(new BasicStroke(2));
+            g.drawLine(x, y, x + w, y);
+            g.drawLine(x, y, x, y + h);
+            g.setColor(new Color(0, 0, 0, 140));
+            g.setStroke(new BasicStroke(1));
+            g.drawRect(x, y, w, h);
+            g.dispose();
+            overlay[b] = img;
+        }
+        return img;
+    }
+
+    private static BufferedImage newRotated(int w, int h) {
+        int size = extent(w, h);
+        return new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Side of the square a w x h box is drawn in at any rotation
+     */
+    static int extent(int w, int h) {
+        return (int)Math.ceil(Math.hypot(w, h)) + 4;
+    }
+
+    /**
+     * Graphics for an image centered on the box and rotated to a bucket's angle
+     * (screen Y points down, so world rotation is clockwise on screen)
+     */
+    private static Graphics2D rotatedGraphics(BufferedImage img, int b) {
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.translate(img.getWidth() / 2.0, img.getHeight() / 2.0);
+        g.rotate(-bucketAngle(b));
+        return g;
+    }
+
+    /**
+     * Fill a fallback box in its color, at its bucket's angle to line up with the overlay
+     */
+    private void fillBox(Graphics2D g, int px, int py, int w, int h, double angle, Color color) {
+        double c = Math.cos(angle);
+        double sn = Math.sin(angle);
+        double hw = w / 2.0;
+        double hh = h / 2.0;
+        for (int k = 0; k < 4; k++) {
+            double lx = (k == 0 || k == 3) ? -hw : hw;
+            double ly = k < 2 ? -hh : hh;
+            polyX[k] = px + (int)Math.round(lx * c - ly * sn);
+            polyY[k] = py - (int)Math.round(lx * sn + ly * c);
+        }
+        g.setColor(color);
+        g.fillPolygon(polyX, polyY, 4);
+    }
+}
@@ -0,0 +1,201 @@
+package ui;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import core.World;
+import objects.robot.Robot;
+
+/**
+ * Screen areas that changed between the last frame drawn and a new snapshot.
+ *
+ * Remembers where every robot and cargo slot was drawn last frame. A box whose
+ * screen position, rotation bucket and look are unchanged isn't dirty, nor is a
+ * robot whose pose is unchanged; otherwise both the old and new rectangles are.
+ * Overlapping rectangles are merged, and past {@link #MAX_RECTS} the list
+ * collapses into its union.
+ */
+public class DirtyRegions {
+    public static final int MAX_RECTS = 16;
+
+    private final Rectangle[] rects = new Rectangle[MAX_RECTS];
+    private int count = 0;
+    private final Rectangle screen = new Rectangle();  // Areas are clipped to this
+    private final Rectangle pending = new Rectangle();
+    private final Rectangle scratch = new Rectangle();
+
+    // Where each cargo slot was drawn, valid when seen == frame - 1
+    private long frame = 1;
+    private long[] seen = new long[64];
+    private int[] lastX = new int[64];
+    private int[] lastY = new int[64];
+    private int[] lastSize = new int[64];
+    private int[] lastBucket = new int[64];
+    private BufferedImage[] lastSprite = new BufferedImage[64];
+    private Color[] lastColor = new Color[64];
+    private int slotCount = 0;
+
+    // Robots as last drawn
+    private final Robot[] lastRobot = new Robot[World.MAX_ROBOTS];
+    private final Rectangle[] lastRobotRect = new Rectangle[World.MAX_ROBOTS];
+    private final double[] lastRobotPose = new double[World.MAX_ROBOTS * 5];
+
+    public DirtyRegions() {
+        for (int i = 0; i < MAX_RECTS; i++) {
+            rects[i] = new Rectangle();
+        }
+        for (int i = 0; i < lastRobotRect.length; i++) {
+            lastRobotRect[i] = new Rectangle();
+        }
+    }
+
+    /**
+     * Record a frame drawn in full: nothing is dirty, every object is where the
+     * snapshot says. Changes outside the given screen size are ignored from now on.
+     */
+    public void reset(RenderSnapshot s, int width, int height) {
+        screen.setBounds(0, 0, width, height);
+        update(s);
+        count = 0;
+    }
+
+    /**
+     * Collect the areas that differ between the last frame and this snapshot, and
+     * remember the snapshot as the new last frame
+     */
+    public void update(RenderSnapshot s) {
+        count = 0;
+        frame++;
+
+        for (int i = 0; i < s.cargoCount; i++) {
+            int slot = s.cargoSlot[i];
+            if (slot >= seen.length) {
+                grow(slot + 1);
+            }
+            slotCount = Math.max(slotCount, slot + 1);
+            int w = (int)(s.cargoHalfW[i] * 2 * SimulationPanel.PPM);
+            int h = (int)(s.cargoHalfH[i] * 2 * SimulationPanel.PPM);
+            int x = SimulationPanel.screenX(s.cargoX[i]);
+            int y = SimulationPanel.screenY(s.cargoY[i]);
+            int size = CargoRenderer.extent(w, h);
+            int bucket = CargoRenderer.bucket(s.cargoAngle[i]);
+            boolean wasDrawn = seen[slot] == frame - 1;
+            if (wasDrawn && lastX[slot] == x && lastY[slot] == y && lastSize[slot] == size &&
+                lastBucket[slot] == bucket && lastSprite[slot] == s.cargoSprite[i] &&
+                lastColor[slot] == s.cargoColor[i]) {
+                seen[slot] = frame;
+                continue;
+            }
+            if (wasDrawn) {
+                addSquare(lastX[slot], lastY[slot], lastSize[slot]);
+            }
+            addSquare(x, y, size);
+            seen[slot] = frame;
+            lastX[slot] = x;
+            lastY[slot] = y;
+            lastSize[slot] = size;
+            lastBucket[slot] = bucket;
+            lastSprite[slot] = s.cargoSprite[i];
+            lastColor[slot] = s.cargoColor[i];
+        }
+        // Slots drawn last frame but gone now (despawned)
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (seen[slot] == frame - 1) {
+                addSquare(lastX[slot], lastY[slot], lastSize[slot]);
+            }
+        }
+
+        for (int i = 0; i < lastRobot.length; i++) {
+            Robot r = i < s.robotCount ? s.robots[i] : null;
+            double[] pose = lastRobotPose;
+            int k = i * 5;
+            if (r == lastRobot[i] && (r == null ||
+                (pose[k] == s.robotX[i] && pose[k + 1] == s.robotY[i] && pose[k + 2] == s.forkBaseX[i] &&
+                 pose[k + 3] == s.forkBaseY[i] && pose[k + 4] == s.tiltDeg[i]))) {
+                continue;
+            }
+            if (lastRobot[i] != null) {
+                add(lastRobotRect[i]);
+            }
+            if (r != null) {
+                r.drawBounds(s.robotX[i], s.robotY[i], s.forkBaseX[i], s.forkBaseY[i], s.tiltDeg[i], scratch);
+                add(scratch);
+                lastRobotRect[i].setBounds(scratch);
+                pose[k] = s.robotX[i];
+                pose[k + 1] = s.robotY[i];
+                pose[k + 2] = s.forkBaseX[i];
+                pose[k + 3] = s.forkBaseY[i];
+                pose[k + 4] = s.tiltDeg[i];
+            }
+            lastRobot[i] = r;
+        }
+    }
+
+    /**
+     * Mark an area dirty, merging it with any it overlaps
+     */
+    public void add(Rectangle r) {
+        add(r.x, r.y, r.width, r.height);
+    }
+
+    public void add(int x, int y, int w, int h) {
+        pending.setBounds(x, y, w, h);
+        Rectangle.intersect(pending, screen, pending);
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Fold in every rectangle the new one touches, starting over as it grows
+        for (int i = 0; i < count; i++) {
+            if (rects[i].intersects(pending)) {
+                pending.add(rects[i]);
+                rects[i].setBounds(rects[--count]);
+                i = -1;
+            }
+        }
+        if (count == MAX_RECTS) {
+            for (int i = 0; i < count; i++) {
+                pending.add(rects[i]);
+            }
+            count = 0;
+        }
+        rects[count++].setBounds(pending);
+    }
+
+    private void addSquare(int cx, int cy, int size) {
+        add(cx - size / 2, cy - size / 2, size, size);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Rectangle get(int i) {
+        return rects[i];
+    }
+
+    /**
+     * Bounding box of every dirty area, or an empty rectangle if none
+     */
+    public void union(Rectangle out) {
+        if (count == 0) {
+            out.setBounds(0, 0, 0, 0);
+            return;
+        }
+        out.setBounds(rects[0]);
+        for (int i = 1; i < count; i++) {
+            out.add(rects[i]);
+        }
+    }
+
+    private void grow(int n) {
+        n = Math.max(n, seen.length * 2);
+        seen = Arrays.copyOf(seen, n);
+        lastX = Arrays.copyOf(lastX, n);
+        lastY = Arrays.copyOf(lastY, n);
+        lastSize = Arrays.copyOf(lastSize, n);
+        lastBucket = Arrays.copyOf(lastBucket, n);
+        lastSprite = Arrays.copyOf(lastSprite, n);
+        lastColor = Arrays.copyOf(lastColor, n);
+    }
+}
@@ -0,0 +1,49 @@
+package ui;
+
+import core.Input;
+import objects.robot.RobotCommand;
+import objects.robot.RobotController;
+import objects.robot.RobotState;
+import telemetry.NetworkTelemetry;
+
+/**
+ * Control source for the local robot: the keyboard, or the dashboard while it
+ * has control enabled. Runs inline every tick since it only reads latched state.
+ */
+public class DriverStation implements RobotController {
+    private final Input input;
+    private volatile NetworkTelemetry network;
+    private volatile boolean networkControl = false;
+
+    public DriverStation(Input input) {
+        this.input = input;
+    }
+
+    /**
+     * Dashboard link to take commands from (null for keyboard only)
+     */
+    public void setNetwork(NetworkTelemetry network) {
+        this.network = network;
+    }
+
+    /**
+     * Whether the dashboard drove the robot on the last tick
+     */
+    public boolean isNetworkControl() {
+        return networkControl;
+    }
+
+    @Override
+    public void control(RobotState state, RobotCommand out) {
+        NetworkTelemetry net = network;
+        networkControl = net != null && net.readCommand(out);
+        if (!networkControl) {
+            out.setFromInput(input);
+        }
+    }
+
+    @Override
+    public double period() {
+        return 0;
+    }
+}
@@ -0,0 +1,287 @@
+package ui;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import core.Input;
+import core.InputRecording;
+import core.Scenario;
+import core.World;
+import objects.robot.ShuttleController;
+
+/**
+ * Replays a run without a window and writes it out as a numbered PNG sequence,
+ * as fast as the machine allows rather than in real time.
+ *
+ * The work is split into three stages joined by bounded queues: the calling
+ * thread steps the world and captures a render snapshot every frame, render
+ * threads draw snapshots into offscreen images, and encoder threads write the
+ * images as PNGs. Snapshots and images are pooled, so a slow stage holds back
+ * the ones before it instead of piling up frames in memory. Frame files are
+ * named by frame number, so the stages don't need to keep frames in order.
+ */
+public class FrameExporter {
+    private static final double DT = 1.0/120.0;  // Same fixed step as the panel
+    private static final int QUEUE_DEPTH = 8;    // Frames waiting between two stages
+    private static final float PNG_QUALITY = 0.9f;  // Light deflate: encoding dominates, size matters less
+
+    // Pipeline end markers
+    private static final RenderSnapshot END_SNAPSHOT = new RenderSnapshot();
+    private static final Frame END_FRAME = new Frame();
+
+    private final int widthPx;
+    private final int heightPx;
+    private final BufferedImage background;
+
+    private int fps = 30;
+    private final int renderThreads;
+    private final int encodeThreads;
+
+    // Frames moving through the pipeline
+    private BlockingQueue<RenderSnapshot> freeSnapshots;
+    private BlockingQueue<RenderSnapshot> snapshots;
+    private BlockingQueue<BufferedImage> freeImages;
+    private BlockingQueue<Frame> frames;
+
+    // First error in any stage; later frames are then passed through undone
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * A rendered image and the frame number it is saved under
+     */
+    private static class Frame {
+        long index;
+        BufferedImage image;
+    }
+
+    public FrameExporter(int widthPx, int heightPx) {
+        this.widthPx = widthPx;
+        this.heightPx = heightPx;
+        BufferedImage bg = null;
+        try {
+            bg = ImageIO.read(new File("assets/sprites/bg.png"));
+        } catch (IOException e) {
+            // Plain sky, like the panel
+        }
+        background = bg;
+
+        // PNG encoding is the most expensive stage, so it gets most of the cores
+        int cores = Runtime.getRuntime().availableProcessors();
+        renderThreads = Math.max(1, cores / 4);
+        encodeThreads = Math.max(1, cores - renderThreads - 1);
+    }
+
+    /**
+     * Frames per second of play written out (default 30)
+     */
+    public void setFps(int fps) {
+        this.fps = fps;
+    }
+
+    /**
+     * Replay a recording from a fresh world and write frames to a directory.
+     *
+     * @param scenario Layout to build, or null for the built-in one
+     * @param replay Input to drive robot 0 with, or null to leave it idle
+     * @param seconds Seconds of play to export; 0 runs until one second after the
+     *                last recorded input
+     * @return Number of frames written
+     */
+    public long export(Scenario scenario, InputRecording replay, double seconds, File dir) throws IOException {
+        dir.mkdirs();
+        if (!dir.isDirectory()) {
+            throw new IOException("Not a directory: " + dir);
+        }
+
+        // Same world setup as the panel, but with its own input so nothing is shared
+        Input input = new Input();
+        World world = new World();
+        world.scenario = scenario;
+        world.robotCount = Integer.getInteger("sim.robots", 1);
+        world.setController(0, new DriverStation(input));
+        for (int i = 1; i < World.MAX_ROBOTS; i++) {
+            world.setController(i, new ShuttleController(3, 14));
+        }
+        world.reset();
+        if (replay != null) {
+            replay.rewind();
+        }
+
+        if (seconds <= 0) {
+            long lastTick = replay != null ? replay.lastTick() : -1;
+            seconds = Math.max(0, lastTick) * DT + 1.0;
+        }
+        long totalTicks = (long)Math.ceil(seconds / DT);
+        int ticksPerFrame = Math.max(1, (int)Math.round(1.0 / (fps * DT)));
+
+        startPipeline();
+        List<Thread> renderers = new ArrayList<>();
+        for (int i = 0; i < renderThreads; i++) {
+            renderers.add(startThread("export-render-" + i, this::renderStage));
+        }
+        List<Thread> encoders = new ArrayList<>();
+        for (int i = 0; i < encodeThreads; i++) {
+            encoders.add(startThread("export-encode-" + i, () -> encodeStage(dir)));
+        }
+
+        long wallStart = System.nanoTime();
+        long frame = 0;
+        try {
+            for (long tick = 0; tick <= totalTicks && failure.get() == null; tick++) {
+                if (tick % ticksPerFrame == 0) {
+                    RenderSnapshot s = freeSnapshots.take();
+                    s.capture(world, frame++);
+                    snapshots.put(s);
+                }
+                if (replay != null) {
+                    replay.replayTick(tick, input);
+                }
+                if (input.reset) {
+                    world.reset();
+                    input.reset = false;
+                }
+                world.step(DT);
+            }
+
+            // Drain the stages in order
+            for (int i = 0; i < renderers.size(); i++) {
+                snapshots.put(END_SNAPSHOT);
+            }
+            joinAll(renderers);
+            for (int i = 0; i < encoders.size(); i++) {
+                frames.put(END_FRAME);
+            }
+            joinAll(encoders);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        }
+
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new IOException("Export failed", error);
+        }
+
+        double wall = (System.nanoTime() - wallStart) / 1e9;
+        System.out.printf("Exported %d frames (%.1fs of play) to %s in %.1fs, %.1fx real time%n",
+            frame, totalTicks * DT, dir.getPath(), wall, totalTicks * DT / wall);
+        return frame;
+    }
+
+    private void startPipeline() {
+        // Enough buffers for a full queue plus one in hand per thread
+        int snapshotCount = QUEUE_DEPTH + renderThreads + 1;
+        int imageCount = QUEUE_DEPTH + renderThreads + encodeThreads;
+        freeSnapshots = new ArrayBlockingQueue<>(snapshotCount);
+        for (int i = 0; i < snapshotCount; i++) {
+            freeSnapshots.add(new RenderSnapshot());
+        }
+        snapshots = new ArrayBlockingQueue<>(QUEUE_DEPTH + renderThreads);
+        freeImages = new ArrayBlockingQueue<>(imageCount);
+        for (int i = 0; i < imageCount; i++) {
+            freeImages.add(new BufferedImage(widthPx, heightPx, BufferedImage.TYPE_INT_RGB));
+        }
+        frames = new ArrayBlockingQueue<>(QUEUE_DEPTH + encodeThreads);
+        failure.set(null);
+    }
+
+    /**
+     * Draw snapshots into free images until the end marker
+     */
+    private void renderStage() {
+        FrameRenderer renderer = new FrameRenderer(background, widthPx, heightPx);
+        try {
+            while (true) {
+                RenderSnapshot s = snapshots.take();
+                if (s == END_SNAPSHOT) {
+                    return;
+                }
+                BufferedImage image = freeImages.take();
+                if (failure.get() == null) {
+                    try {
+                        Graphics2D g = image.createGraphics();
+                        renderer.draw(g, s);
+                        drawCaption(g, s);
+                        g.dispose();
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+                Frame f = new Frame();
+                f.index = s.sequence;
+                f.image = image;
+                freeSnapshots.put(s);
+                frames.put(f);
+            }
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Write rendered images as PNGs until the end marker
+     */
+    private void encodeStage(File dir) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(PNG_QUALITY);
+        try {
+            while (true) {
+                Frame f = frames.take();
+                if (f == END_FRAME) {
+                    return;
+                }
+                if (failure.get() == null) {
+                    File file = new File(dir, String.format("frame-%06d.png", f.index));
+                    try (FileImageOutputStream out = new FileImageOutputStream(file)) {
+                        writer.setOutput(out);
+                        writer.write(null, new IIOImage(f.image, null, null), param);
+                    } catch (IOException | RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+                freeImages.put(f.image);
+            }
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Match time and score in the corner, in place of the interactive HUD
+     */
+    private static void drawCaption(Graphics2D g, RenderSnapshot s) {
+        g.setColor(new Color(0, 0, 0, 200));
+        g.fillRoundRect(10, 10, 220, 46, 12, 12);
+        g.setColor(Color.WHITE);
+        g.setFont(g.getFont().deriveFont(Font.BOLD, 14f));
+        g.drawString(String.format("t=%.2fs   score %d / %d", s.timeSec, s.score, s.cargoTotal), 24, 38);
+    }
+
+    private static Thread startThread(String name, Runnable body) {
+        Thread t = new Thread(body, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread t : threads) {
+            t.join();
+        }
+    }
+}
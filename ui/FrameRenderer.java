@@ -0,0 +1,75 @@
+package ui;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import objects.robot.Robot;
+
+/**
+ * Draws the field from a render snapshot: background, ground, scenery, robots and
+ * cargo. Shared by the Swing panel and the offscreen exporter so both produce the
+ * same picture. Not thread-safe; use one per rendering thread.
+ */
+public class FrameRenderer {
+    private final BufferedImage background;  // Null draws a plain sky
+    private final int widthPx;
+    private final int heightPx;
+    private final CargoRenderer cargoRenderer = new CargoRenderer();
+
+    public FrameRenderer(BufferedImage background, int widthPx, int heightPx) {
+        this.background = background;
+        this.widthPx = widthPx;
+        this.heightPx = heightPx;
+    }
+
+    public void draw(Graphics2D g, RenderSnapshot s) {
+        drawStatic(g, s);
+        drawMoving(g, s);
+    }
+
+    /**
+     * Background, ground and scenery: everything that only changes on a reset
+     */
+    public void drawStatic(Graphics2D g, RenderSnapshot s) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        // Draw background image scaled to panel size
+        if (background != null) {
+            g.drawImage(background, 0, 0, widthPx, heightPx, null);
+        } else {
+            // Draw sky background
+            g.setColor(new Color(235, 244, 255));
+            g.fillRect(0, 0, widthPx, heightPx);
+        }
+
+        // Draw ground, in the panel's default foreground color
+        g.setColor(new Color(51, 51, 51));
+        SimulationPanel.drawRectCenter(g, (s.leftX + s.rightX)/2, s.groundY/2, widthPx / (double)SimulationPanel.PPM, s.groundY, true);
+
+        // Draw the scenery (bucket, conveyor)
+        for (int i = 0; i < s.sceneryCount; i++) {
+            s.scenery[i].draw(g);
+        }
+    }
+
+    /**
+     * Robots, cargo and robot labels. Cargo outside the clip is skipped.
+     */
+    public void drawMoving(Graphics2D g, RenderSnapshot s) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        // Draw the robots, then all cargo in one batch
+        for (int i = 0; i < s.robotCount; i++) {
+            s.robots[i].drawPose(g, s.robotX[i], s.robotY[i], s.forkBaseX[i], s.forkBaseY[i], s.tiltDeg[i]);
+        }
+        cargoRenderer.draw(g, s);
+
+        // Label robots when several share the field
+        if (s.robotCount > 1) {
+            g.setFont(g.getFont().deriveFont(Font.BOLD, 12f));
+            for (int i = 0; i < s.robotCount; i++) {
+                Robot r = s.robots[i];
+                Point p = SimulationPanel.toScreen(s.robotX[i], s.robotY[i] + r.bounds.h);
+                g.setColor(i == 0 ? new Color(255, 200, 60) : Color.WHITE);
+                g.drawString("R" + (i + 1), p.x - 8, p.y + 14);
+            }
+        }
+    }
+}
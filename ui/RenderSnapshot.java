@@ -0,0 +1,131 @@
+package ui;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import core.GameObject;
+import core.World;
+import physics.Body;
+import objects.Cargo;
+import objects.robot.Robot;
+
+/**
+ * What the renderer needs from the world, copied on the simulation thread between
+ * ticks so the render thread never reads bodies in the middle of a step.
+ *
+ * The arrays grow when the world gains cargo and are reused otherwise, so taking a
+ * snapshot doesn't allocate. Only cargo in play is copied. Objects that aren't
+ * bodies don't move and are kept by reference.
+ */
+public class RenderSnapshot {
+    public long sequence = -1;  // Increases with every capture
+
+    // Field
+    public double leftX;
+    public double rightX;
+    public double groundY;
+
+    // Match state
+    public double timeSec;
+    public int score;
+    public int cargoTotal;       // Cargo in play plus delivered
+
+    // Objects that aren't bodies (bucket, conveyor), drawn through their own draw
+    public int sceneryCount = 0;
+    public GameObject[] scenery = new GameObject[8];
+
+    // Cargo in play
+    public int cargoCount = 0;
+    public double[] cargoX = new double[64];
+    public double[] cargoY = new double[64];
+    public double[] cargoAngle = new double[64];
+    public double[] cargoHalfW = new double[64];
+    public double[] cargoHalfH = new double[64];
+    public BufferedImage[] cargoSprite = new BufferedImage[64];
+    public Color[] cargoColor = new Color[64];
+    public int[] cargoSlot = new int[64];     // Index in the world's cargo array
+
+    // Robots; the objects themselves are only used for their sprites and sizes
+    public int robotCount = 0;
+    public final Robot[] robots = new Robot[World.MAX_ROBOTS];
+    public final double[] robotX = new double[World.MAX_ROBOTS];
+    public final double[] robotY = new double[World.MAX_ROBOTS];
+    public final double[] robotVx = new double[World.MAX_ROBOTS];
+    public final double[] robotVy = new double[World.MAX_ROBOTS];
+    public final double[] forkBaseX = new double[World.MAX_ROBOTS];
+    public final double[] forkBaseY = new double[World.MAX_ROBOTS];
+    public final double[] tiltDeg = new double[World.MAX_ROBOTS];
+
+    /**
+     * Copy the world's current state. Call from the simulation thread.
+     */
+    public void capture(World world, long sequence) {
+        this.sequence = sequence;
+        leftX = world.leftX;
+        rightX = world.rightX;
+        groundY = world.groundY;
+        timeSec = world.timeSec;
+        score = world.score;
+
+        int m = 0;
+        for (GameObject obj : world.objects) {
+            if (obj instanceof Body) {
+                continue;
+            }
+            if (m == scenery.length) {
+                scenery = Arrays.copyOf(scenery, m * 2);
+            }
+            scenery[m++] = obj;
+        }
+        if (m < sceneryCount) {
+            Arrays.fill(scenery, m, sceneryCount, null);
+        }
+        sceneryCount = m;
+
+        Cargo[] cargos = world.components.cargos;
+        if (cargoX.length < cargos.length) {
+            int n = Math.max(cargos.length, cargoX.length * 2);
+            cargoX = Arrays.copyOf(cargoX, n);
+            cargoY = Arrays.copyOf(cargoY, n);
+            cargoAngle = Arrays.copyOf(cargoAngle, n);
+            cargoHalfW = Arrays.copyOf(cargoHalfW, n);
+            cargoHalfH = Arrays.copyOf(cargoHalfH, n);
+            cargoSprite = Arrays.copyOf(cargoSprite, n);
+            cargoColor = Arrays.copyOf(cargoColor, n);
+            cargoSlot = Arrays.copyOf(cargoSlot, n);
+        }
+        int n = 0;
+        for (int slot = 0; slot < cargos.length; slot++) {
+            Cargo c = cargos[slot];
+            if (!c.active) {
+                continue;
+            }
+            cargoX[n] = c.position.x;
+            cargoY[n] = c.position.y;
+            cargoAngle[n] = c.angle;
+            cargoHalfW[n] = c.bounds.w;
+            cargoHalfH[n] = c.bounds.h;
+            cargoSprite[n] = c.getSprite();
+            cargoColor[n] = c.getColor();
+            cargoSlot[n] = slot;
+            n++;
+        }
+        cargoCount = n;
+        cargoTotal = n + world.delivered;
+
+        Robot[] rs = world.components.robots;
+        robotCount = Math.min(rs.length, robots.length);
+        for (int i = 0; i < robotCount; i++) {
+            Robot r = rs[i];
+            robots[i] = r;
+            robotX[i] = r.position.x;
+            robotY[i] = r.position.y;
+            robotVx[i] = r.velocity.x;
+            robotVy[i] = r.velocity.y;
+            forkBaseX[i] = r.mast.carriage.position.x;
+            forkBaseY[i] = r.mast.carriage.position.y;
+            tiltDeg[i] = r.tiltDeg;
+        }
+        Arrays.fill(robots, robotCount, robots.length, null);
+    }
+}
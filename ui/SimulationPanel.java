@@ -6,11 +6,24 @@ import java.awt.*;
 import java.awt.event.*;
 import java.io.IOException;
 import java.io.File;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import core.*;
 import objects.*;
+import objects.robot.ShuttleController;
+import objects.robot.commands.AutonomousController;
+import objects.robot.commands.Autos;
+import objects.robot.planning.PlanningController;
 import physics.*;
+import telemetry.NetworkTelemetry;
+import telemetry.SimStats;
+import telemetry.SimTuning;
+import telemetry.TelemetryLogger;
 import java.awt.image.BufferedImage;
+import net.MatchClient;
+import net.MatchProtocol;
 /**
  * Main simulation panel that handles rendering and game loop
  */
@@ -31,11 +44,68 @@ public class SimulationPanel extends JPanel implements Runnable {
     private Thread loop;
     private volatile boolean running = false;
     private World world = new World();
-    private double accumulator = 0;
 
-    // Game state
-    private int score = 0;
-    private double timeSec = 0;
+    // Time scaling
+    private static final double[] TIME_SCALES = {0.25, 0.5, 1, 2, 5, 10, 20, 50, 100};
+    private static final int REALTIME_INDEX = 2;
+    private static final double DT = 1.0/120.0;                        // Physics timestep (s)
+    private static final long RENDER_INTERVAL_NANOS = 1_000_000_000L / 60; // Display rate
+    private static final long RATE_WINDOW_NANOS = 500_000_000L;        // Achieved-rate sampling window
+    private static final int TURBO_BATCH = 8;                          // Ticks between clock checks in turbo
+    private volatile int timeScaleIndex = REALTIME_INDEX;
+    private volatile double achievedRate = 0;                          // Simulated s per wall s
+    private final StepController steps = new StepController(DT, RENDER_INTERVAL_NANOS);
+
+    // Render snapshots, triple buffered: the sim thread fills its own and swaps it
+    // into 'latest'; the render thread swaps its shown one for 'latest' when newer
+    private RenderSnapshot captureSnapshot = new RenderSnapshot();
+    private final AtomicReference<RenderSnapshot> latestSnapshot = new AtomicReference<>(new RenderSnapshot());
+    private RenderSnapshot shownSnapshot = new RenderSnapshot();
+    private long snapshotSequence = 0;
+    private final FrameRenderer frameRenderer;
+
+    // Frames are composed into 'frame' on the EDT, redrawing only the dirty areas
+    // over a cached copy of the static scenery; the panel then copies the union
+    private final AtomicBoolean framePending = new AtomicBoolean();
+    private BufferedImage frame;
+    private BufferedImage staticLayer;
+    private GameObject[] staticScenery = new GameObject[0];
+    private double staticLeftX, staticRightX, staticGroundY;
+    private final DirtyRegions dirty = new DirtyRegions();
+    private final Rectangle hudArea = new Rectangle();      // Where the HUD was drawn last
+    private BufferedImage hudLayer;                         // HUD box, title and key help
+    private final Rectangle hudLayerArea = new Rectangle();
+    private int hudLayerRobots = -1;
+    private static final String HUD_TITLE = "FRC Forklift 2D Simulator";
+    private final Rectangle repaintArea = new Rectangle();
+
+    // Input ticks since start, never reset
+    private long tick = 0;
+
+    // Input replay (null when driven by the keyboard)
+    private InputRecording replay;
+
+    // Telemetry log (null when not logging)
+    private volatile TelemetryLogger logger;
+
+    // Dashboard publisher/subscriber (null when off)
+    private volatile NetworkTelemetry network;
+
+    // Mapped file other processes read body state from (null when not sharing)
+    private BodyStore sharedState;
+
+    // Networked match this panel drives a robot in (null when playing locally)
+    private volatile MatchClient match;
+
+    // Live tuning and statistics over JMX (frcsim:type=Tuning, frcsim:type=Stats)
+    private final SimTuning tuning = new SimTuning(world);
+    private final SimStats stats = new SimStats(world);
+
+    // Control source for robot 0
+    private final DriverStation driverStation = new DriverStation(input);
+    private volatile boolean autonomous = false;
+    private volatile boolean planning = false;
+    private PlanningController planner;
 
     public SimulationPanel(int widthPx, int heightPx) {
         this.widthPx = widthPx;
@@ -43,7 +113,17 @@ public class SimulationPanel extends JPanel implements Runnable {
         setPreferredSize(new Dimension(widthPx, heightPx));
         setFocusable(true);
         addKeyListener(input);
+        input.setRecording(new InputRecording());
+
+        // Robot 0 follows the driver station; extra robots (-Dsim.robots=N) shuttle as sparring partners
+        world.robotCount = Integer.getInteger("sim.robots", 1);
+        world.setController(0, driverStation);
+        for (int i = 1; i < World.MAX_ROBOTS; i++) {
+            world.setController(i, new ShuttleController(3, 14));
+        }
         world.reset();
+        SimStats.register(tuning, "Tuning");
+        SimStats.register(stats, "Stats");
 
         try {
             // Load background image from resources
@@ -51,9 +131,47 @@ public class SimulationPanel extends JPanel implements Runnable {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        frameRenderer = new FrameRenderer(background, widthPx, heightPx);
+    }
+
+    /**
+     * Build the world from a scenario file (now and on every reset) instead of the
+     * built-in layout. Call before {@link #start}.
+     */
+    public void setScenario(Scenario scenario) {
+        world.scenario = scenario;
+        world.reset();
+    }
+
+    /**
+     * Drive the simulation from a recorded input stream instead of the keyboard
+     */
+    public void setReplay(InputRecording recording) {
+        replay = recording;
+        replay.rewind();
+        input.setRecording(null);
+    }
+
+    /**
+     * Copy every body's state into a mapped store after each tick, for other
+     * processes to read. Call before {@link #start}.
+     */
+    public void setSharedState(BodyStore store) {
+        sharedState = store;
+    }
+
+    /**
+     * Join a match hosted by a {@link net.MatchServer}: the world is rebuilt as the
+     * server's and the keyboard drives the robot it assigns. Call before {@link #start}.
+     */
+    public void joinMatch(String host, int port) throws IOException {
+        MatchClient client = new MatchClient(world);
+        client.connect(host, port);
+        match = client;
     }
 
     public void start() {
+        publishSnapshot();
         running = true;
         loop = new Thread(this, "sim-loop");
         loop.start();
@@ -62,120 +180,542 @@ public class SimulationPanel extends JPanel implements Runnable {
     @Override
     public void run() {
         long lastTime = System.nanoTime();
-        final double dt = 1.0/120.0; // Physics timestep (s)
+        long lastRender = lastTime;
+        long rateWindowStart = lastTime;
+        double rateWindowSim = 0;
 
         while (running) {
+            handleTimeScaleKeys();
+            handleSaveRecording();
+            handleToggleLog();
+            handleToggleNetwork();
+            handleToggleAuto();
+            handleTogglePlanner();
+
             long now = System.nanoTime();
             double frameTime = (now - lastTime) / 1e9;
             lastTime = now;
 
             if (!input.pause) {
-                accumulator += Math.min(frameTime, 0.05);
+                if (input.turbo) {
+                    // Unbounded: step as fast as possible until the next frame is due
+                    long renderDue = lastRender + steps.getRenderInterval();
+                    do {
+                        for (int i = 0; i < TURBO_BATCH; i++) {
+                            update(DT, System.nanoTime());
+                        }
+                        rateWindowSim += TURBO_BATCH * DT;
+                    } while (System.nanoTime() < renderDue);
+                    steps.clearBacklog();
+                } else {
+                    // The step controller bounds the ticks per pass and drops (and
+                    // counts) time only once lowering the render rate wasn't enough
+                    double scale = TIME_SCALES[timeScaleIndex];
+                    int ticks = steps.advance(frameTime, scale, now);
+                    for (int i = 0; i < ticks; i++) {
+                        double owed = steps.consumeTick();
+                        // Wall time this tick corresponds to: input up to here belongs to it
+                        long boundary = now - (long)(Math.max(0, owed) / scale * 1e9);
+                        update(DT, boundary);
+                        rateWindowSim += DT;
+                    }
+                }
+            } else {
+                steps.clearBacklog();
+            }
+
+            // Measure achieved simulated seconds per wall second
+            now = System.nanoTime();
+            if (now - rateWindowStart >= RATE_WINDOW_NANOS) {
+                achievedRate = rateWindowSim / ((now - rateWindowStart) / 1e9);
+                rateWindowStart = now;
+                rateWindowSim = 0;
+            }
+
+            // Render at display rate no matter how many ticks ran (lowered under load)
+            if (now - lastRender >= steps.getRenderInterval()) {
+                stats.setTiming(steps.getTickCost(), steps.getRenderHz(), achievedRate,
+                    steps.getDroppedSeconds(), steps.getStalls());
+                publishSnapshot();
+                requestFrame();
+                lastRender = now;
             }
 
-            while (accumulator >= dt) {
-                update(dt);
-                accumulator -= dt;
+            if (!input.turbo || input.pause) {
+                try {
+                    Thread.sleep(1000/120);
+                } catch (InterruptedException e) {
+                    // Ignore
+                }
             }
+        }
+    }
+
+    /**
+     * Capture the world for the render thread (sim thread)
+     */
+    private void publishSnapshot() {
+        captureSnapshot.capture(world, snapshotSequence++);
+        captureSnapshot = latestSnapshot.getAndSet(captureSnapshot);
+    }
+
+    /**
+     * Have the EDT compose a frame from the newest snapshot, unless one is queued
+     */
+    private void requestFrame() {
+        if (framePending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::composeFrame);
+        }
+    }
 
+    /**
+     * Bring the frame image up to date with the newest snapshot and repaint the
+     * part that changed (EDT). The whole frame is redrawn on the first call, on a
+     * resize, and when the field or scenery changed (e.g. a reset).
+     */
+    private void composeFrame() {
+        framePending.set(false);
+        RenderSnapshot s = takeSnapshot();
+        int w = Math.max(getWidth(), widthPx);
+        int h = Math.max(getHeight(), heightPx);
+        if (frame == null || frame.getWidth() != w || frame.getHeight() != h || staticChanged(s)) {
+            frame = newImage(w, h);
+            staticLayer = newImage(w, h);
+            Graphics2D sg = staticLayer.createGraphics();
+            frameRenderer.drawStatic(sg, s);
+            sg.dispose();
+            staticScenery = Arrays.copyOf(s.scenery, s.sceneryCount);
+            staticLeftX = s.leftX;
+            staticRightX = s.rightX;
+            staticGroundY = s.groundY;
+
+            Graphics2D fg = frameGraphics();
+            fg.drawImage(staticLayer, 0, 0, null);
+            frameRenderer.drawMoving(fg, s);
+            drawHUD(fg, s);
+            fg.dispose();
+            dirty.reset(s, w, h);
             repaint();
+            return;
+        }
 
-            try {
-                Thread.sleep(1000/120);
-            } catch (InterruptedException e) {
-                // Ignore
+        // Restore and redraw each area that changed, and where the HUD was
+        dirty.update(s);
+        dirty.add(hudArea);
+        Graphics2D fg = frameGraphics();
+        for (int i = 0; i < dirty.getCount(); i++) {
+            fg.setClip(dirty.get(i));
+            fg.drawImage(staticLayer, 0, 0, null);
+            frameRenderer.drawMoving(fg, s);
+        }
+        fg.setClip(null);
+        drawHUD(fg, s);
+        fg.dispose();
+
+        dirty.union(repaintArea);
+        repaintArea.add(hudArea);
+        repaint(repaintArea);
+    }
+
+    private Graphics2D frameGraphics() {
+        Graphics2D g = frame.createGraphics();
+        g.setFont(getFont());
+        return g;
+    }
+
+    private boolean staticChanged(RenderSnapshot s) {
+        if (s.sceneryCount != staticScenery.length || s.leftX != staticLeftX ||
+            s.rightX != staticRightX || s.groundY != staticGroundY) {
+            return true;
+        }
+        for (int i = 0; i < staticScenery.length; i++) {
+            if (s.scenery[i] != staticScenery[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BufferedImage newImage(int w, int h) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        return gc != null
+            ? gc.createCompatibleImage(w, h)
+            : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * The newest snapshot published (render thread)
+     */
+    private RenderSnapshot takeSnapshot() {
+        if (latestSnapshot.get().sequence > shownSnapshot.sequence) {
+            shownSnapshot = latestSnapshot.getAndSet(shownSnapshot);
+        }
+        return shownSnapshot;
+    }
+
+    /**
+     * Apply pending faster/slower requests to the time scale
+     */
+    private void handleTimeScaleKeys() {
+        if (input.faster) {
+            timeScaleIndex = Math.min(timeScaleIndex + 1, TIME_SCALES.length - 1);
+            input.faster = false;
+        }
+        if (input.slower) {
+            timeScaleIndex = Math.max(timeScaleIndex - 1, 0);
+            input.slower = false;
+        }
+    }
+
+    /**
+     * Save the input recorded so far when requested
+     */
+    private void handleSaveRecording() {
+        if (!input.saveRecording) {
+            return;
+        }
+        input.saveRecording = false;
+        InputRecording recording = input.getRecording();
+        if (recording == null) {
+            return;
+        }
+        File file = new File("recordings/run-" + System.currentTimeMillis() + ".rec");
+        try {
+            recording.save(file);
+            System.out.println("Saved input recording: " + file.getAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Failed to save input recording: " + file);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Start or stop writing a telemetry log when requested
+     */
+    private void handleToggleLog() {
+        if (!input.toggleLog) {
+            return;
+        }
+        input.toggleLog = false;
+        if (logger != null) {
+            stopLogging();
+            return;
+        }
+        File file = new File("logs/run-" + System.currentTimeMillis() + ".frclog");
+        try {
+            logger = new TelemetryLogger(file);
+            System.out.println("Logging telemetry to: " + file.getAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Failed to start telemetry log: " + file);
+            e.printStackTrace();
+        }
+    }
+
+    private void stopLogging() {
+        TelemetryLogger current = logger;
+        logger = null;
+        try {
+            current.close();
+            System.out.println("Closed telemetry log: " + current.getFile().getAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Failed to close telemetry log: " + current.getFile());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Start or stop the dashboard link when requested
+     */
+    private void handleToggleNetwork() {
+        if (!input.toggleNetwork) {
+            return;
+        }
+        input.toggleNetwork = false;
+        NetworkTelemetry current = network;
+        network = null;
+        driverStation.setNetwork(null);
+        try {
+            if (current != null) {
+                current.close();
+                System.out.println("Network telemetry stopped");
+            } else {
+                network = new NetworkTelemetry();
+                driverStation.setNetwork(network);
+                System.out.println("Network telemetry started");
             }
+        } catch (IOException e) {
+            System.err.println("Network telemetry error");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Switch robot 0 between the driver station and the autonomous routine
+     */
+    private void handleToggleAuto() {
+        if (!input.toggleAuto) {
+            return;
+        }
+        input.toggleAuto = false;
+        if (match != null) {
+            return; // The match drives every robot from the keys sent
+        }
+        autonomous = !autonomous;
+        planning = false;
+        world.setController(0, autonomous
+            ? new AutonomousController(Autos::scorePresetCargo)
+            : driverStation);
+    }
+
+    /**
+     * Switch robot 0 between the driver station and the rollout planner
+     */
+    private void handleTogglePlanner() {
+        if (!input.togglePlanner) {
+            return;
+        }
+        input.togglePlanner = false;
+        if (match != null) {
+            return;
         }
+        planning = !planning;
+        autonomous = false;
+        if (planning && planner == null) {
+            planner = new PlanningController(); // Kept for later toggles, with its worker threads
+        }
+        world.setController(0, planning ? planner : driverStation);
     }
 
-    private void update(double dt) {
-        timeSec += dt;
+    private void update(double dt, long boundaryNanos) {
+        // Apply input for this tick
+        if (replay != null) {
+            input.discardPending();
+            replay.replayTick(tick, input);
+        } else {
+            input.poll(boundaryNanos, tick);
+        }
+        tick++;
 
         if (input.reset) {
-            world.reset();
-            score = 0;
-            timeSec = 0;
+            if (match == null) {
+                world.reset(); // In a match only the server resets
+            }
             input.reset = false;
         }
 
-        // Update all objects
-        for (GameObject obj : world.objects) {
-            obj.update(world, dt);
+        // Receive dashboard control values before the driver station reads them
+        NetworkTelemetry net = network;
+        if (net != null) {
+            net.poll();
         }
 
-        // Handle cargo-ground collisions
-        for (Cargo cargo : world.cargos) {
-            if (cargo.position.y - cargo.bounds.h <= world.groundY + 0.01) {
-                cargo.position.y = world.groundY + cargo.bounds.h;
-                if (cargo.velocity.y < 0) {
-                    cargo.velocity.y = 0;
-                }
+        // Tuning changes take effect here, between ticks. Not in a match: the server's
+        // constants are the match's, and a rollback restores only body state
+        if (match == null) {
+            tuning.applyTo(world);
+        }
+
+        long tickStart = System.nanoTime();
+        if (match != null) {
+            stepMatch();
+        } else {
+            world.step(dt);
+        }
+        long tickNanos = System.nanoTime() - tickStart;
+        steps.recordTick(tickNanos);
+
+        if (net != null) {
+            net.publish(world);
+        }
+
+        if (logger != null) {
+            try {
+                logger.sample(world, tickNanos);
+            } catch (IOException e) {
+                System.err.println("Telemetry log write failed, logging stopped");
+                e.printStackTrace();
+                stopLogging();
             }
         }
 
-        score = 0;
-        for (Cargo cargo : world.cargos) {
-            if (world.bucket.isInside(cargo.position.x, cargo.position.y)) {
-                score++;
+        if (sharedState != null) {
+            try {
+                sharedState.capture(world.components.bodies, world.systems.getTicks());
+            } catch (IOException e) {
+                System.err.println("Shared state write failed, sharing stopped: " + e);
+                sharedState = null;
             }
         }
-        score = Math.min(score, world.cargos.size());
+    }
 
+    /**
+     * Step the match one tick with the current keys (including any rollback)
+     */
+    private void stepMatch() {
+        try {
+            match.tick(MatchProtocol.bits(input));
+        } catch (IOException e) {
+            System.err.println("Left the match: " + e.getMessage());
+            try {
+                match.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+            match = null;
+            world.setController(0, driverStation);
+        }
     }
 
     @Override
     protected void paintComponent(Graphics gRaw) {
-        super.paintComponent(gRaw);
-        Graphics2D g = (Graphics2D) gRaw;
-
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        // Draw background image scaled to panel size
-        if (background != null) {
-            g.drawImage(background, 0, 0, getWidth(), getHeight(), this);
-        } else {
-            // Draw sky background
-            g.setColor(new Color(235, 244, 255));
-            g.fillRect(0, 0, widthPx, heightPx);
+        if (frame == null) {
+            composeFrame();
         }
+        // Copy the composed frame; Swing clips this to the area being repainted
+        gRaw.drawImage(frame, 0, 0, null);
+    }
 
-        // Draw ground
-        drawRectCenter(g, (world.leftX + world.rightX)/2, world.groundY/2, widthPx / (double)PPM, world.groundY, true);
+    private void drawHUD(Graphics2D g, RenderSnapshot s) {
+        // Box, title and key help come from a cached image; match state comes from
+        // the snapshot, never the live world
+        int extraRobots = Math.max(0, s.robotCount - 1);
+        if (hudLayer == null || hudLayerRobots != extraRobots) {
+            buildHudLayer(g.getFont(), extraRobots);
+        }
+        g.drawImage(hudLayer, hudLayerArea.x, hudLayerArea.y, null);
+        hudArea.setBounds(hudLayerArea);
 
-        // Draw all objects
-        for (GameObject obj : world.objects) {
-            obj.draw(g);
+        Font font = g.getFont();
+        g.setColor(Color.WHITE);
+        g.setFont(font.deriveFont(Font.BOLD, 14f));
+        if (logger != null) {
+            g.setColor(new Color(255, 80, 80));
+            hudString(g, "LOG", 300, 34);
+            g.setColor(Color.WHITE);
+        }
+        if (autonomous) {
+            g.setColor(new Color(120, 255, 140));
+            hudString(g, "AUTO", 225, 34);
+            g.setColor(Color.WHITE);
+        }
+        if (planning) {
+            g.setColor(new Color(200, 140, 255));
+            hudString(g, "MPC", 225, 34);
+            g.setColor(Color.WHITE);
+        }
+        if (network != null) {
+            g.setColor(driverStation.isNetworkControl() ? new Color(255, 200, 60) : new Color(120, 200, 255));
+            hudString(g, "NT", 270, 34);
+            g.setColor(Color.WHITE);
         }
 
-        // Draw HUD
-        drawHUD(g);
+        g.setFont(font.deriveFont(Font.PLAIN, 13f));
+        hudString(g, String.format("Score (in bucket): %d / %d", s.score, s.cargoTotal), 24, 96);
+
+        String status = s.robotCount > 0
+            ? String.format("t=%.1fs  pos=(%.1f, %.1f)  v=(%.1f, %.1f)",
+                s.timeSec, s.robotX[0], s.robotY[0], s.robotVx[0], s.robotVy[0])
+            : String.format("t=%.1fs", s.timeSec);
+        hudString(g, status, 24, 114);
+
+        String speed = input.turbo
+            ? String.format("speed: TURBO  (achieved %.1fx)", achievedRate)
+            : String.format("speed: %sx  (achieved %.1fx)", formatScale(TIME_SCALES[timeScaleIndex]), achievedRate);
+        hudString(g, speed, 24, 132);
+
+        // Render rate reductions are cosmetic; dropped time means the sim fell behind
+        String load = String.format("tick: %.2f ms  render: %.0f Hz (lowered %d)  dropped: %.2fs  stalls: %d",
+            steps.getTickCost() * 1e3, steps.getRenderHz(), steps.getRenderReductions(),
+            steps.getDroppedSeconds(), steps.getStalls());
+        hudString(g, load, 24, 150);
+
+        MatchClient m = match;
+        String inputStatus = m != null
+            ? String.format("match: %s  tick %d  server %d  rollback %d (max %d)",
+                m.getSlot() >= 0 ? "robot " + (m.getSlot() + 1) : "watching",
+                m.getTick(), m.getConfirmedTick(), m.getLastRollback(), m.getMaxRollback())
+            : replay != null
+            ? String.format("input: replay (tick %d)", tick)
+            : String.format("input lag: %.1f ms  (max %.1f)",
+                input.lastLatencyNanos / 1e6, input.maxLatencyNanos / 1e6);
+        hudString(g, inputStatus, 24, 168);
+
+        for (int i = 1; i < s.robotCount; i++) {
+            hudString(g, String.format("R%d  pos=(%.1f, %.1f)  v=(%.1f, %.1f)",
+                i + 1, s.robotX[i], s.robotY[i], s.robotVx[i], s.robotVy[i]), 24, 168 + 18 * i);
+        }
     }
 
-    private void drawHUD(Graphics2D g) {
-        g.setColor(new Color(0, 0, 0, 200));
-        g.fillRoundRect(10, 10, 330, 118, 12, 12);
+    /**
+     * Draw the parts of the HUD that never change into an image of their own
+     */
+    private void buildHudLayer(Font font, int extraRobots) {
+        Font title = font.deriveFont(Font.BOLD, 14f);
+        Font plain = font.deriveFont(Font.PLAIN, 13f);
+        String[] help = {
+            "A/D: drive    W/S: lift    Q/E: tilt    SPACE: brake    V: save recording",
+            "R: reset    P: pause    [/]: speed    T: turbo    L: log    N: net    O: auto    M: planner"
+        };
+
+        // Measure first: the help lines overhang the box
+        hudArea.setBounds(10, 10, 331, 155 + 18 * extraRobots);
+        FontMetrics tm = getFontMetrics(title);
+        hudArea.add(24 + tm.stringWidth(HUD_TITLE) + 1, 34 + tm.getDescent() + 1);
+        FontMetrics pm = getFontMetrics(plain);
+        for (int i = 0; i < help.length; i++) {
+            hudArea.add(24 + pm.stringWidth(help[i]) + 1, 56 + 18 * i + pm.getDescent() + 1);
+        }
+        hudLayerArea.setBounds(hudArea);
+        hudLayerRobots = extraRobots;
 
+        hudLayer = new BufferedImage(hudLayerArea.width, hudLayerArea.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = hudLayer.createGraphics();
+        g.translate(-hudLayerArea.x, -hudLayerArea.y);
+        g.setColor(new Color(0, 0, 0, 200));
+        g.fillRoundRect(10, 10, 330, 154 + 18 * extraRobots, 12, 12);
         g.setColor(Color.WHITE);
-        g.setFont(g.getFont().deriveFont(Font.BOLD, 14f));
-        g.drawString("FRC Forklift 2D Simulator", 24, 34);
+        g.setFont(title);
+        g.drawString(HUD_TITLE, 24, 34);
+        g.setFont(plain);
+        for (int i = 0; i < help.length; i++) {
+            g.drawString(help[i], 24, 56 + 18 * i);
+        }
+        g.dispose();
+    }
 
-        g.setFont(g.getFont().deriveFont(Font.PLAIN, 13f));
-        g.drawString("A/D: drive    W/S: lift    Q/E: tilt    SPACE: brake", 24, 56);
-        g.drawString("R: reset    P: pause", 24, 74);
-        g.drawString(String.format("Score (in bucket): %d / %d", score, world.cargos.size()), 24, 96);
+    /**
+     * Draw a HUD line, growing the HUD area to cover it (lines overhang the box)
+     */
+    private void hudString(Graphics2D g, String text, int x, int y) {
+        g.drawString(text, x, y);
+        FontMetrics fm = g.getFontMetrics();
+        hudArea.add(x, y - fm.getAscent());
+        hudArea.add(x + fm.stringWidth(text) + 1, y + fm.getDescent() + 1);
+    }
 
-        String status = String.format("t=%.1fs  pos=(%.1f, %.1f)  v=(%.1f, %.1f)",
-            timeSec, world.robot.position.x, world.robot.position.y,
-            world.robot.velocity.x, world.robot.velocity.y);
-        g.drawString(status, 24, 114);
+    private static String formatScale(double scale) {
+        return scale == Math.rint(scale) ? String.valueOf((int)scale) : String.valueOf(scale);
     }
 
     /**
      * Convert world coordinates (meters) to screen coordinates (pixels)
      */
     public static Point toScreen(double xMeters, double yMeters) {
-        int x = (int)Math.round(xMeters * PPM + 50); // Add 50px margin on left
-        int y = (int)Math.round(700 - (yMeters * PPM + 50)); // Add 50px margin on bottom
-        return new Point(x, y);
+        return new Point(screenX(xMeters), screenY(yMeters));
+    }
+
+    /**
+     * Screen X of a world X, without allocating a point
+     */
+    public static int screenX(double xMeters) {
+        return (int)Math.round(xMeters * PPM + 50); // Add 50px margin on left
+    }
+
+    /**
+     * Screen Y of a world Y, without allocating a point
+     */
+    public static int screenY(double yMeters) {
+        return (int)Math.round(700 - (yMeters * PPM + 50)); // Add 50px margin on bottom
     }
 
     /**
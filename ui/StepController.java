@@ -0,0 +1,160 @@
+package ui;
+
+/**
+ * Decides how many fixed ticks each pass of the real-time loop runs and how often
+ * to render, from the measured cost of a tick.
+ *
+ * Under load, time goes to the simulation before the display. When the ticks owed
+ * per wall second take more than {@link #SIM_SHARE} of it, the render rate is halved
+ * (down to {@link #MIN_RENDER_HZ}), so the simulation keeps real time and only the
+ * picture gets choppier; it is raised again once the load drops. Each pass runs at
+ * most {@link #PASS_BUDGET} seconds' worth of ticks so a slow tick can't make the
+ * next pass owe even more. Only when the backlog passes {@link #MAX_BACKLOG} is the
+ * excess given up, and that simulated time is counted. A long stall (debugger,
+ * sleep) is counted separately. So a real slowdown shows as dropped time, while a
+ * cosmetic one only shows as render rate reductions.
+ */
+public class StepController {
+    private static final double COST_SMOOTHING = 0.05;  // Weight of the newest tick in the average cost
+    private static final double SIM_SHARE = 0.8;        // Load above which the render rate is lowered
+    private static final double RECOVER_SHARE = 0.4;    // Load below which it's raised again
+    private static final double PASS_BUDGET = 0.05;     // Wall s of ticks run per pass at most
+    private static final double MAX_BACKLOG = 0.25;     // Simulated s owed before the excess is dropped
+    private static final double MAX_STALL = 0.25;       // Wall s credited for one pass after a stall
+    private static final int MIN_RENDER_HZ = 15;
+    private static final long RATE_CHANGE_NANOS = 500_000_000L; // Least time between render rate changes
+
+    private final double dt;
+    private final long baseRenderInterval;
+    private volatile long renderInterval;
+    private double accumulator = 0;       // Simulated time owed
+    private volatile double tickCost = 0; // Average wall s per tick
+    private long lastRateChange = 0;
+
+    // Overload counters, read by the HUD from the render thread
+    private volatile long ticks = 0;
+    private volatile long renderReductions = 0; // Times the render rate was lowered
+    private volatile long overloadedPasses = 0; // Passes that had to drop simulated time
+    private volatile double droppedSeconds = 0; // Simulated time given up under load
+    private volatile long stalls = 0;           // Passes that came after a stall
+    private volatile double stalledSeconds = 0; // Simulated time skipped over stalls
+
+    /**
+     * @param dt Fixed tick, in simulated seconds
+     * @param renderIntervalNanos Render interval with no load
+     */
+    public StepController(double dt, long renderIntervalNanos) {
+        this.dt = dt;
+        this.baseRenderInterval = renderIntervalNanos;
+        this.renderInterval = renderIntervalNanos;
+    }
+
+    /**
+     * Credit the wall time since the last pass at the given time scale
+     *
+     * @return Number of ticks to run in this pass
+     */
+    public int advance(double frameSeconds, double scale, long now) {
+        if (frameSeconds > MAX_STALL) {
+            stalls++;
+            stalledSeconds += (frameSeconds - MAX_STALL) * scale;
+            frameSeconds = MAX_STALL;
+        }
+        accumulator += frameSeconds * scale;
+
+        // Share of wall time the ticks need at this scale
+        adjustRenderRate(tickCost * scale / dt, now);
+
+        int owed = (int)(accumulator / dt);
+        int budget = tickCost > 0 ? Math.max(1, (int)(PASS_BUDGET / tickCost)) : owed;
+        int n = Math.min(owed, budget);
+
+        double backlog = accumulator - n * dt;
+        if (backlog > MAX_BACKLOG) {
+            overloadedPasses++;
+            droppedSeconds += backlog - MAX_BACKLOG;
+            accumulator -= backlog - MAX_BACKLOG;
+        }
+        return n;
+    }
+
+    /**
+     * Take one tick's worth from the simulated time owed
+     *
+     * @return Simulated time still owed after this tick
+     */
+    public double consumeTick() {
+        accumulator -= dt;
+        return accumulator;
+    }
+
+    /**
+     * Record the wall time a tick took
+     */
+    public void recordTick(long nanos) {
+        ticks++;
+        double seconds = nanos / 1e9;
+        tickCost = tickCost == 0 ? seconds : tickCost + COST_SMOOTHING * (seconds - tickCost);
+    }
+
+    /**
+     * Forget time owed (pause and turbo don't catch up afterwards)
+     */
+    public void clearBacklog() {
+        accumulator = 0;
+    }
+
+    private void adjustRenderRate(double load, long now) {
+        if (now - lastRateChange < RATE_CHANGE_NANOS) {
+            return;
+        }
+        long slowest = 1_000_000_000L / MIN_RENDER_HZ;
+        if (load > SIM_SHARE && renderInterval < slowest) {
+            renderInterval = Math.min(slowest, renderInterval * 2);
+            renderReductions++;
+            lastRateChange = now;
+        } else if (load < RECOVER_SHARE && renderInterval > baseRenderInterval) {
+            renderInterval = Math.max(baseRenderInterval, renderInterval / 2);
+            lastRateChange = now;
+        }
+    }
+
+    public long getRenderInterval() {
+        return renderInterval;
+    }
+
+    public double getRenderHz() {
+        return 1e9 / renderInterval;
+    }
+
+    /**
+     * Average wall time per tick, in seconds
+     */
+    public double getTickCost() {
+        return tickCost;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getRenderReductions() {
+        return renderReductions;
+    }
+
+    public long getOverloadedPasses() {
+        return overloadedPasses;
+    }
+
+    public double getDroppedSeconds() {
+        return droppedSeconds;
+    }
+
+    public long getStalls() {
+        return stalls;
+    }
+
+    public double getStalledSeconds() {
+        return stalledSeconds;
+    }
+}